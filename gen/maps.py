@@ -0,0 +1,594 @@
+"""
+Generates the eleven open-addressing maps in com.github.gilch.saccharin.associative from one
+template: Int{Obj,Int,Long,Double}Map, Long{Obj,Int,Long,Double}Map and Obj{Int,Long,Double}Map.
+
+Edit the template here, never the generated files, then run from anywhere:
+
+    python3 gen/maps.py
+
+Lines between #if flag / #else / #endif are kept or dropped by key and value kind. kobj and vobj
+are set when the key or the value is an object. {name} fields are filled in per map.
+"""
+import os
+import re
+
+HEADER = """// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+"""
+
+GENERATED = '// Generated by gen/maps.py. Edit the template there, not this file.\n'
+
+T = r'''
+package com.github.gilch.saccharin.associative;
+
+import java.util.*;
+
+import static com.github.gilch.saccharin.BuiltIn.eq;
+import static com.github.gilch.saccharin.BuiltIn.hash;
+
+/**
+ * A map from {kdesc} to {vdesc}, using open addressing with linear probing. The keys and values
+ * live in two parallel arrays, so there are no entry objects, and the primitive methods never
+ * box. Each slot holds only {slotdesc}. The table doubles once it is more than
+ * 3/4 full. Removals never shrink it.
+ * <p/>
+ * The Map methods also work, boxing as they go, so Literal._x(Map) can wrap it like any other
+ * map. Iterators are not fail-fast.
+ * <p/>
+ * <code>
+ * {Raw}.of({ex1})._({ex2})
+ * </code>
+ *
+ * @see com.github.gilch.saccharin.Literal#_x(Map)
+ */
+public class {Full} extends AbstractMap<{kb}, {vb}> {
+#if !kobj
+    private static final {kp} FREE = {kzero};
+
+#endif
+    private {karr} keys;
+    private {varr} values;
+    private boolean hasFree;//whether {FREE} is a key. Its value is kept outside the table.
+    private {vp} freeValue;
+    private int size;
+    private int mask;
+    private int maxFill;
+
+    public {Raw}() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize how many entries to make room for before growing
+     */
+    public {Raw}(final int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + expectedSize);
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    /**
+     * Map fake literal. Chain more pairs with ._(key, value)
+     *
+     * @param key   of the first pair
+     * @param value of the first pair
+     * @return a new map
+     */
+    public static {tp}{Full} of(final {kp} key, final {vp} value) {
+        return new {Full}()._(key, value);
+    }
+
+    /**
+     * Map fake literal chain. Adds another pair to the map.
+     *
+     * @return this
+     */
+    public {Full} _(final {kp} key, final {vp} value) {
+        put(key, value);
+        return this;
+    }
+
+    private void allocate(final int capacity) {
+        keys = new {kalloc}[capacity];
+        values = new {valloc}[capacity];
+        mask = capacity - 1;
+        maxFill = Hashing.maxFill(capacity);
+    }
+
+    // The slot holding key, or -(the free slot where it would go) - 1.
+    private int find(final {kelem} key) {
+        int i = Hashing.mix(key) & mask;
+        for ({kelem} k; (k = keys[i]) != {FREE}; i = (i + 1) & mask)
+            if ({eq}) return i;
+        return -i - 1;
+    }
+
+    private void insert(final int slot, final {kelem} key, final {vp} value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+    }
+
+    private void rehash(final int capacity) {
+        final {karr} oldKeys = keys;
+        final {varr} oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            final {kelem} k = oldKeys[j];
+            if (k == {FREE}) continue;
+            int i = Hashing.mix(k) & mask;
+            while (keys[i] != {FREE}) i = (i + 1) & mask;
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+
+    /**
+     * Empties the slot, shifting back the later keys of its run so lookups still find them.
+     *
+     * @return the slot that a key moved into from the start of the table by wrapping around,
+     * or -1 if none did.
+     */
+    private int removeAt(int gap) {
+        int wrapped = -1;
+        size--;
+        for (int j = (gap + 1) & mask; keys[j] != {FREE}; j = (j + 1) & mask) {
+            final int home = Hashing.mix(keys[j]) & mask;
+            if (((j - home) & mask) < ((j - gap) & mask)) continue;//gap is before its home
+            keys[gap] = keys[j];
+            values[gap] = values[j];
+            if (j < gap) wrapped = gap;
+            gap = j;
+        }
+        keys[gap] = {FREE};
+#if vobj
+        values[gap] = null;
+#endif
+        return wrapped;
+    }
+
+    private {vp} removeFree() {
+        final {vp} old = freeValue;
+        if (hasFree) {
+            hasFree = false;
+            freeValue = {vzero};
+            size--;
+        }
+        return old;
+    }
+
+#if !kobj
+    public boolean containsKey(final {kp} key) {
+        return key == FREE ? hasFree : find(key) >= 0;
+    }
+
+#if vobj
+    /**
+     * @return the value of key, or null if there isn't one.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final {kp} key) {
+        if (key == FREE) return freeValue;
+        final int i = find(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * @return the previous value of key, or null if there wasn't one.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final {kp} key, final V value) {
+#else
+    /**
+     * @return the value of key, or {vzero} if there isn't one.
+     */
+    public {vp} get(final {kp} key) {
+        return getOrDefault(key, {vzero});
+    }
+
+    /**
+     * @return the value of key, or missing if there isn't one.
+     */
+    public {vp} getOrDefault(final {kp} key, final {vp} missing) {
+        if (key == FREE) return hasFree ? freeValue : missing;
+        final int i = find(key);
+        return i < 0 ? missing : values[i];
+    }
+
+    /**
+     * @return the previous value of key, or {vzero} if there wasn't one.
+     */
+    public {vp} put(final {kp} key, final {vp} value) {
+#endif
+        if (key == FREE) {
+            final {vp} old = freeValue;
+            freeValue = value;
+            if (!hasFree) {
+                hasFree = true;
+                size++;
+            }
+            return old;
+        }
+        final int i = find(key);
+        if (i < 0) {
+            insert(-i - 1, key, value);
+            return {vzero};
+        }
+        final {vp} old = {vread};
+        values[i] = value;
+        return old;
+    }
+
+    /**
+     * @return the removed value of key, or {vzero} if there wasn't one.
+     */
+#if vobj
+    @SuppressWarnings("unchecked")
+#endif
+    public {vp} remove(final {kp} key) {
+        if (key == FREE) return removeFree();
+        final int i = find(key);
+        if (i < 0) return {vzero};
+        final {vp} old = {vread};
+        removeAt(i);
+        return old;
+    }
+
+#else
+    /**
+     * @return the value of key, or {vzero} if there isn't one.
+     */
+    public {vp} get{Vn}(final Object key) {
+        return getOrDefault(key, {vzero});
+    }
+
+    /**
+     * @return the value of key, or missing if there isn't one.
+     */
+    public {vp} getOrDefault(final Object key, final {vp} missing) {
+        if (key == null) return hasFree ? freeValue : missing;
+        final int i = find(key);
+        return i < 0 ? missing : values[i];
+    }
+
+    /**
+     * @return the previous value of key, or {vzero} if there wasn't one.
+     */
+    public {vp} put(final K key, final {vp} value) {
+        if (key == null) {
+            final {vp} old = freeValue;
+            freeValue = value;
+            if (!hasFree) {
+                hasFree = true;
+                size++;
+            }
+            return old;
+        }
+        final int i = find(key);
+        if (i < 0) {
+            insert(-i - 1, key, value);
+            return {vzero};
+        }
+        final {vp} old = values[i];
+        values[i] = value;
+        return old;
+    }
+
+#endif
+#if !vobj
+    /**
+     * Adds delta to the value of key, counting a missing value as {vzero}.
+     *
+     * @return the new value
+     */
+    public {vp} add(final {kp} key, final {vp} delta) {
+        if (key == {FREE}) {
+            if (!hasFree) {
+                hasFree = true;
+                size++;
+            }
+            return freeValue += delta;
+        }
+        final int i = find(key);
+        if (i >= 0) return values[i] += delta;
+        insert(-i - 1, key, delta);
+        return delta;
+    }
+
+#endif
+    // Map methods
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, {FREE});
+#if vobj
+        Arrays.fill(values, null);
+#endif
+        hasFree = false;
+        freeValue = {vzero};
+        size = 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+#if kobj
+        return key == null ? hasFree : find(key) >= 0;
+#else
+        return key instanceof {kb} && containsKey((({kb}) key).{kp}Value());
+#endif
+    }
+
+#if kobj
+    @Override
+    public {vb} get(final Object key) {
+        if (key == null) return hasFree ? ({vb}) freeValue : null;
+        final int i = find(key);
+        return i < 0 ? null : ({vb}) values[i];
+    }
+
+    @Override
+    public {vb} put(final K key, final {vb} value) {
+        final boolean had = containsKey(key);
+        final {vp} old = put(key, value.{vp}Value());
+        return had ? ({vb}) old : null;
+    }
+
+    @Override
+    public {vb} remove(final Object key) {
+        if (key == null) return hasFree ? ({vb}) removeFree() : null;
+        final int i = find(key);
+        if (i < 0) return null;
+        final {vp} old = values[i];
+        removeAt(i);
+        return old;
+    }
+#else
+#if vobj
+    @Override
+    public V get(final Object key) {
+        return key instanceof {kb} ? get((({kb}) key).{kp}Value()) : null;
+    }
+
+    @Override
+    public V put(final {kb} key, final V value) {
+        return put(key.{kp}Value(), value);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        return key instanceof {kb} ? remove((({kb}) key).{kp}Value()) : null;
+    }
+#else
+    @Override
+    public {vb} get(final Object key) {
+        return containsKey(key) ? ({vb}) get((({kb}) key).{kp}Value()) : null;
+    }
+
+    @Override
+    public {vb} put(final {kb} key, final {vb} value) {
+        final boolean had = containsKey(key);
+        final {vp} old = put(key.{kp}Value(), value.{vp}Value());
+        return had ? ({vb}) old : null;
+    }
+
+    @Override
+    public {vb} remove(final Object key) {
+        return containsKey(key) ? ({vb}) remove((({kb}) key).{kp}Value()) : null;
+    }
+#endif
+#endif
+
+    @Override
+    public Set<Entry<{kb}, {vb}>> entrySet() {
+        return new AbstractSet<Entry<{kb}, {vb}>>() {
+            @Override
+            public Iterator<Entry<{kb}, {vb}>> iterator() {
+                return new Slots();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                {Raw}.this.clear();
+            }
+        };
+    }
+
+    /**
+     * An entry in a table slot, or one looked up by key if slot is -1.
+     */
+    private final class Slot implements Entry<{kb}, {vb}> {
+        final {kelem} key;
+        final int slot;
+
+        Slot(final {kelem} key, final int slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+
+#if kobj
+        @SuppressWarnings("unchecked")
+#endif
+        @Override
+        public {kb} getKey() {
+            return {kread};
+        }
+
+#if vobj
+        @SuppressWarnings("unchecked")
+#endif
+        @Override
+        public {vb} getValue() {
+            if (slot < 0) return get(getKey());
+            return {vslot};
+        }
+
+        @Override
+        public {vb} setValue(final {vb} value) {
+            if (slot < 0) return put(getKey(), value);
+            final {vb} old = getValue();
+            values[slot] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Entry)) return false;
+            final Entry<?, ?> e = (Entry<?, ?>) o;
+            return eq(getKey(), e.getKey()) && eq(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(getKey()) ^ hash(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Visits the slots downward, so that removing an entry only shifts back entries already
+     * visited, except one that may wrap around from the start of the table. Those are saved
+     * to visit at the end.
+     */
+    private final class Slots implements Iterator<Entry<{kb}, {vb}>> {
+        private boolean free = hasFree;
+        private int next = keys.length;//the next slot is the first used one below this
+        private List<Slot> wrapped;
+        private Slot last;
+
+        @Override
+        public boolean hasNext() {
+            if (free) return true;
+            while (next > 0 && keys[next - 1] == {FREE}) next--;
+            return next > 0 || wrapped != null && !wrapped.isEmpty();
+        }
+
+        @Override
+        public Entry<{kb}, {vb}> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (free) {
+                free = false;
+                return last = new Slot({FREE}, -1);
+            }
+            if (next > 0) {
+                next--;
+                return last = new Slot(keys[next], next);
+            }
+            return last = wrapped.remove(wrapped.size() - 1);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) throw new IllegalStateException();
+            if (last.slot < 0) {
+                {Raw}.this.remove({removekey});
+            } else {
+                final int moved = removeAt(last.slot);
+                if (moved >= 0) {
+                    if (wrapped == null) wrapped = new ArrayList<Slot>();
+                    wrapped.add(new Slot(keys[moved], -1));
+                }
+            }
+            last = null;
+        }
+    }
+}
+'''
+
+def pre(text, flags):
+    out = []
+    stack = []
+    for line in text.split('\n'):
+        s = line.strip()
+        if s.startswith('#if '):
+            c = s[4:]
+            val = not flags[c[1:]] if c.startswith('!') else flags[c]
+            stack.append([val, False])
+        elif s == '#else':
+            stack[-1][1] = True
+        elif s == '#endif':
+            stack.pop()
+        else:
+            if all((v if not e else not v) for v, e in stack):
+                out.append(line)
+    return '\n'.join(out)
+
+PRIM = {'int': ('Integer', 'Int', '0', 'ints'), 'long': ('Long', 'Long', '0L', 'longs'),
+        'double': ('Double', 'Double', '0.0', 'doubles')}
+EX = {'int': ('1', '2'), 'long': ('1L', '2L'), 'double': ('0.5', '1.5')}
+OUT = os.path.normpath(os.path.join(os.path.dirname(os.path.abspath(__file__)), os.pardir,
+                                   'src', 'com', 'github', 'gilch', 'saccharin', 'associative'))
+
+specs = []
+for k in ['int', 'long']:
+    for v in ['obj', 'int', 'long', 'double']:
+        specs.append((k, v))
+for v in ['int', 'long', 'double']:
+    specs.append(('obj', v))
+
+for k, v in specs:
+    kobj, vobj = k == 'obj', v == 'obj'
+    kn = 'Obj' if kobj else PRIM[k][1]
+    vn = 'Obj' if vobj else PRIM[v][1]
+    raw = kn + vn + 'Map'
+    tp = '<K>' if kobj else '<V>' if vobj else ''
+    d = {}
+    d['Raw'] = raw
+    d['Full'] = raw + tp
+    d['tp'] = tp + ' ' if tp else ''
+    d['kp'] = 'K' if kobj else k
+    d['kb'] = 'K' if kobj else PRIM[k][0]
+    d['vp'] = 'V' if vobj else v
+    d['vb'] = 'V' if vobj else PRIM[v][0]
+    d['Vn'] = '' if vobj else PRIM[v][1]
+    d['karr'] = 'Object[]' if kobj else k + '[]'
+    d['varr'] = 'Object[]' if vobj else v + '[]'
+    d['kalloc'] = 'Object' if kobj else k
+    d['valloc'] = 'Object' if vobj else v
+    d['kelem'] = 'Object' if kobj else k
+    d['kzero'] = 'null' if kobj else PRIM[k][2]
+    d['vzero'] = 'null' if vobj else PRIM[v][2]
+    d['FREE'] = 'null' if kobj else 'FREE'
+    d['eq'] = 'key.equals(k)' if kobj else 'k == key'
+    d['vread'] = '(V) values[i]' if vobj else 'values[i]'
+    d['vslot'] = '(V) values[slot]' if vobj else 'values[slot]'
+    d['kread'] = '(K) key' if kobj else 'key'
+    d['removekey'] = 'last.key'
+    d['kdesc'] = 'objects' if kobj else PRIM[k][3]
+    d['vdesc'] = 'objects' if vobj else PRIM[v][3]
+    d['slotdesc'] = ('a reference' if kobj else 'an ' + k if k == 'int' else 'a ' + k) + \
+        ' and ' + ('a reference' if vobj else 'an ' + v if v == 'int' else 'a ' + v)
+    ke = ('"one"', '"two"') if kobj else EX[k]
+    ve = ('"one"', '"two"') if vobj else EX[v]
+    d['ex1'] = ke[0] + ', ' + ve[0]
+    d['ex2'] = ke[1] + ', ' + ve[1]
+    body = pre(T, {'kobj': kobj, 'vobj': vobj})
+    body = re.sub(r'\{(\w+)\}', lambda m: d.get(m.group(1), m.group(0)), body)
+    path = os.path.join(OUT, raw + '.java')
+    open(path, 'w').write(HEADER + GENERATED + body.rstrip('\n') + '\n')
+    print(path)
@@ -16,9 +16,15 @@ package com.github.gilch.saccharin;
 
 import com.github.gilch.saccharin.functional.Effect;
 import com.github.gilch.saccharin.functional.Function;
+import com.github.gilch.saccharin.functional.Function2;
 import com.github.gilch.saccharin.functional.Predicate;
+import com.github.gilch.saccharin.persistent.PersistentMap;
+import com.github.gilch.saccharin.persistent.PersistentSet;
+import com.github.gilch.saccharin.persistent.PersistentVector;
 import com.github.gilch.saccharin.sequential.*;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
 
@@ -123,6 +129,52 @@ public final class BuiltIn {
         };
     }
 
+    /**
+     * Counting generator of unboxed ints. Wraps around on overflow.
+     *
+     * @param start -
+     *              the first number of the sequence
+     * @param step  -
+     *              the number to count by; the number added each step.
+     * @return an infinite counting IntSequence starting from <b>start</b> and
+     * incrementing by <b>step</b>
+     */
+    public static IntSequence intCount(final int start, final int step) {
+        return new IntSequence.Infinite() {
+            private int count = start - step;
+
+            @Override
+            public int nextInt() {
+                return count += step;
+            }
+        };
+    }
+
+    /**
+     * Counting generator of unboxed longs, for counts past Integer.MAX_VALUE.
+     *
+     * @param start -
+     *              the first number of the sequence
+     * @param step  -
+     *              the number to count by; the number added each step.
+     * @return an infinite counting LongSequence starting from <b>start</b> and
+     * incrementing by <b>step</b>
+     */
+    public static LongSequence longCount(final long start, final long step) {
+        return new LongSequence.Infinite() {
+            private long count = start - step;
+
+            @Override
+            public long nextLong() {
+                return count += step;
+            }
+        };
+    }
+
+    public static LongSequence longCount(final long start) {
+        return longCount(start, 1);
+    }
+
     /**
      * Convert a Function to a Predicate. The function must
      * return Boolean.
@@ -271,6 +323,43 @@ public final class BuiltIn {
         return out;
     }
 
+    /**
+     * Applies func cumulatively to initial with the items from iterable, like
+     * {@link #reduce(Function, Object, Iterable)}, but passes both arguments directly instead of
+     * allocating a pair for every item.
+     *
+     * @param func     - the function to reduce the iterable
+     * @param initial  - the first argument to the first call of func
+     * @param iterable - provides the second arguments to func
+     * @return a single value produced by cumulatively applying all items
+     * from iterable to initial through func
+     */
+    public static <T, R> R reduce(
+            final Function2<? super R, ? super T, ? extends R> func,
+            final R initial, final Iterable<? extends T> iterable) {
+        R out = initial;
+        for (final T t : iterable) out = func.apply(out, t);
+        return out;
+    }
+
+    /**
+     * Applies operator cumulatively to the previous result with every item
+     * from iterable, starting with the first item as the first "result". Allocates nothing per
+     * item.
+     *
+     * @param operator - a binary operator
+     * @param iterable - provides the operands
+     * @return the cumulative value.
+     */
+    public static <R> R reduce(
+            final Function2<? super R, ? super R, ? extends R> operator,
+            final Iterable<? extends R> iterable) {
+        final Iterator<? extends R> it = iterable.iterator();
+        R out = it.next();
+        while (it.hasNext()) out = operator.apply(out, it.next());
+        return out;
+    }
+
     /**
      * if all true
      *
@@ -360,13 +449,29 @@ public final class BuiltIn {
         return o == null ? 0 : o.hashCode();
     }
 
+    /**
+     * Safely closes the Object if it is Closeable, for example an Iterator that might be a
+     * {@link CloseableSequence}.
+     *
+     * @param o the Object to close, may be null.
+     * @throws RuntimeException wrapping an IOException from close()
+     */
+    public static void close(final Object o) {
+        if (o instanceof Closeable) {
+            try {
+                ((Closeable) o).close();
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     public static <R> Iterator<R> iter(final Effect<R> generator, final R sentinel) {
         return new LookAheadSequence<R>() {
             @Override
             protected R getNext() throws NoSuchElementException {
                 final R out = generator.call();
-                if (out == sentinel) throw new NoSuchElementException();
-                return out;
+                return out == sentinel ? done() : out;
             }
         };
     }
@@ -459,6 +564,32 @@ public final class BuiltIn {
         };
     }
 
+    /**
+     * Combines elements in order given, without allocating a pair for each.
+     *
+     * @param func - combines an element of a with the element of b in the same position
+     * @param a    - Iterator producing the first arguments
+     * @param b    - Iterator producing the second arguments
+     * @return an Iterator producing the results.
+     * Results are produced until a or b runs out of elements.
+     */
+    public static <A, B, R> Iterator<R> zipWith(
+            final Function2<? super A, ? super B, ? extends R> func,
+            final Iterator<? extends A> a, final Iterator<? extends B> b) {
+        return new SequenceAdapter<R>() {
+            @Override
+            public boolean hasNext() {
+                return a.hasNext() && b.hasNext();
+            }
+
+            @Override
+            public R next() {
+                return func.apply(a.next(), b.next());
+            }
+
+        };
+    }
+
     /**
      * @param collection - collection to freeze
      * @return unmodifiable view of c
@@ -513,6 +644,68 @@ public final class BuiltIn {
         return Collections.unmodifiableSortedSet(set);
     }
 
+    /**
+     * A PersistentVector is already immutable, so freezing it keeps its type, and its plus and
+     * with methods.
+     *
+     * @param vector - vector to freeze
+     * @return vector
+     */
+    public static <E> PersistentVector<E> freeze(final PersistentVector<E> vector) {
+        return vector;
+    }
+
+    /**
+     * @param map - map to freeze
+     * @return map, which is already immutable
+     * @see #freeze(PersistentVector)
+     */
+    public static <K, V> PersistentMap<K, V> freeze(final PersistentMap<K, V> map) {
+        return map;
+    }
+
+    /**
+     * @param set - set to freeze
+     * @return set, which is already immutable
+     * @see #freeze(PersistentVector)
+     */
+    public static <E> PersistentSet<E> freeze(final PersistentSet<E> set) {
+        return set;
+    }
+
+    /**
+     * Like freeze, but makes modified copies cheap. Good for snapshots updated by
+     * copy-and-swap. Example: {@code persist(_a(1,2,3)).plus(4)}
+     *
+     * @param list - elements to copy
+     * @return an immutable copy of list that shares structure with its modified copies
+     */
+    public static <E> PersistentVector<E> persist(final List<? extends E> list) {
+        return PersistentVector.copyOf(list);
+    }
+
+    /**
+     * Example: {@code persist(_x("a",1)._("b",2)).plus("c",3)}
+     *
+     * @param map - entries to copy
+     * @return an immutable copy of map that shares structure with its modified copies
+     * @see #persist(List)
+     */
+    public static <K, V> PersistentMap<K, V> persist(final Map<? extends K, ? extends V> map) {
+        return PersistentMap.copyOf(map);
+    }
+
+    /**
+     * Example: {@code persist(_s(1,2,3)).minus(2)}
+     *
+     * @param set - elements to copy
+     * @return an immutable copy of set that shares structure with its modified copies
+     * @see #persist(List)
+     */
+    public static <E> PersistentSet<E> persist(final Set<? extends E> set) {
+        return PersistentSet.copyOf(set);
+    }
+
     /**
      * Number sequence generator.
      *
@@ -524,9 +717,11 @@ public final class BuiltIn {
      *              the increment length. Must be negative to decrement. Cannot
      *              be zero.
      * @return Range instance
+     * @throws IllegalArgumentException if it would have more than Integer.MAX_VALUE elements.
+     *                                  {@link #longRange(long, long, long)} has no such limit.
      */
     public static Range range(final int start, final int stop, final int step) {
-        return new Range(start, stop, step);
+        return new Range(start, step, Range.lengthOf(start, stop, step));
     }
 
     /**
@@ -537,9 +732,11 @@ public final class BuiltIn {
      * @param stop  -
      *              the first number you don't want
      * @return Range instance
+     * @throws IllegalArgumentException if it would have more than Integer.MAX_VALUE elements.
+     *                                  {@link #longRange(long, long)} has no such limit.
      */
     public static Range range(final int start, final int stop) {
-        return new Range(start, stop, 1);
+        return new Range(start, 1, Range.lengthOf(start, stop, 1));
     }
 
     /**
@@ -551,7 +748,32 @@ public final class BuiltIn {
      * @return Range instance
      */
     public static Range range(final int stop) {
-        return new Range(0, stop, 1);
+        return new Range(0, 1, Range.lengthOf(0, stop, 1));
+    }
+
+    /**
+     * Number sequence generator for long indices, like range(start, stop, step).
+     *
+     * @param start -
+     *              the first number you want
+     * @param stop  -
+     *              the first number you don't want
+     * @param step  -
+     *              the increment length. Must be negative to decrement. Cannot
+     *              be zero.
+     * @return LongRange instance
+     * @throws IllegalArgumentException if it would have more than Long.MAX_VALUE elements.
+     */
+    public static LongRange longRange(final long start, final long stop, final long step) {
+        return new LongRange(start, step, LongRange.lengthOf(start, stop, step));
+    }
+
+    public static LongRange longRange(final long start, final long stop) {
+        return longRange(start, stop, 1);
+    }
+
+    public static LongRange longRange(final long stop) {
+        return longRange(0, stop, 1);
     }
 
     /**
@@ -592,7 +814,7 @@ public final class BuiltIn {
      *
      * @author Matthew Odendahl
      */
-    public static class Range extends AbstractList<Integer> {
+    public static class Range extends AbstractList<Integer> implements RandomAccess {
         // generator fields.
         private final int offset;
         private final int step;
@@ -601,18 +823,23 @@ public final class BuiltIn {
          */
         public final int length;
 
-        private Range(final int start, final int stop, final int step) {
-            offset = start;
+        private Range(final int offset, final int step, final int length) {
+            this.offset = offset;
             this.step = step;
+            this.length = length;
+        }
 
-            // may need to be scaled.
-            int size = (step < 0) ? start - stop : stop - start;
-            // add step if there's a remainder
-            final int scale = Math.abs(step);
-            size += size % scale > 0 ? scale : 0;
-            // integer divide should scale properly now
-            size /= scale;
-            length = (size > 0) ? size : 0;
+        private static int lengthOf(final int start, final int stop, final int step) {
+            if (step == 0) throw new IllegalArgumentException("step == 0");
+            // in long, so spans wider than Integer.MAX_VALUE don't overflow.
+            final long span = (step < 0) ? (long) start - stop : (long) stop - start;
+            final long scale = Math.abs((long) step);
+            final long length = span > 0 ? (span + scale - 1) / scale : 0;
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(
+                        "more than Integer.MAX_VALUE elements, use longRange");
+            }
+            return (int) length;
         }
 
         /**
@@ -630,6 +857,8 @@ public final class BuiltIn {
 
         @Override
         public Integer get(final int i) {
+            if (i < 0 || i >= length)
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + length);
             return sub(i);
         }
 
@@ -637,6 +866,277 @@ public final class BuiltIn {
         public int size() {
             return length;
         }
+
+        /**
+         * @return an IntSequence, so the elements can be read with nextInt() without boxing.
+         */
+        @Override
+        public IntSequence iterator() {
+            return new IntSequence() {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return i < length;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (i >= length) throw new NoSuchElementException();
+                    return sub(i++);
+                }
+            };
+        }
+
+        /**
+         * @param x
+         * @return the index of x in this Range, or -1 if it isn't in it. Constant time.
+         */
+        public int indexOf(final int x) {
+            if (length == 0) return -1;
+            final long distance = (long) x - offset;
+            if (distance % step != 0) return -1;
+            final long i = distance / step;
+            return i >= 0 && i < length ? (int) i : -1;
+        }
+
+        public boolean contains(final int x) {
+            return indexOf(x) >= 0;
+        }
+
+        @Override
+        public int indexOf(final Object o) {
+            return o instanceof Integer ? indexOf((int) (Integer) o) : -1;
+        }
+
+        /**
+         * Same as indexOf, since the elements of a Range are distinct.
+         */
+        @Override
+        public int lastIndexOf(final Object o) {
+            return indexOf(o);
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        /**
+         * A view of the elements from index from (inclusive) to to (exclusive).
+         */
+        @Override
+        public Range subList(final int from, final int to) {
+            if (from < 0 || to > length || from > to)
+                throw new IndexOutOfBoundsException(
+                        "from: " + from + ", to: " + to + ", Size: " + length);
+            return new Range(sub(from), step, to - from);
+        }
+
+        /**
+         * @return the same elements in the opposite order.
+         */
+        public Range reversed() {
+            return new Range(sub(length - 1), -step, length);
+        }
+
+        /**
+         * Like a Python slice with a step, but every index must be in bounds after clamping.
+         * <code>r.slice(0, r.length, 2)</code> is every other element, and
+         * <code>r.slice(r.length - 1, -1, -1)</code> is r.reversed().
+         *
+         * @param start the first index, clamped to the Range
+         * @param stop  the index to stop before, clamped to just outside the Range
+         * @param step  the distance between indices, negative to go backwards
+         * @return the selected elements, as a Range
+         */
+        public Range slice(final int start, final int stop, final int step) {
+            final Range indices = step > 0
+                    ? range(Math.max(start, 0), Math.min(stop, length), step)
+                    : range(Math.min(start, length - 1), Math.max(stop, -1), step);
+            return new Range(
+                    indices.length > 0 ? sub(indices.offset) : offset,
+                    this.step * step, indices.length);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Range)) return super.equals(o);
+            final Range that = (Range) o;
+            return length == that.length && (length == 0
+                    || offset == that.offset && (length == 1 || step == that.step));
+        }
+
+        /**
+         * Same as the List hashCode, but in logarithmic time. The List hash is the recurrence
+         * h = 31h + e, over elements e that grow by step. So (h, e, 1) is multiplied by the
+         * matrix {{31, 1, 0}, {0, 1, step}, {0, 0, 1}} once per element, and the power of the
+         * matrix is found by repeated squaring. int overflow wraps the same way it does in the
+         * loop.
+         */
+        @Override
+        public int hashCode() {
+            int[] power = {31, 1, 0, 0, 1, step, 0, 0, 1};
+            int[] m = {1, 0, 0, 0, 1, 0, 0, 0, 1};//identity
+            for (int n = length; n > 0; n >>>= 1) {
+                if ((n & 1) != 0) m = times(m, power);
+                power = times(power, power);
+            }
+            // m times the column (1, offset, 1)
+            return m[0] + m[1] * offset + m[2];
+        }
+
+        private static int[] times(final int[] a, final int[] b) {
+            final int[] c = new int[9];
+            for (int i = 0; i < 3; i++)
+                for (int j = 0; j < 3; j++)
+                    c[3 * i + j] = a[3 * i] * b[j] + a[3 * i + 1] * b[3 + j]
+                            + a[3 * i + 2] * b[6 + j];
+            return c;
+        }
+    }
+
+    /**
+     * A Range of long numbers, for counts past Integer.MAX_VALUE such as file offsets or row
+     * ids. Too long to be a List, but has the same constant-time indexing and queries, and
+     * iterates without boxing. split(int) divides it into contiguous parts for parallel work.
+     */
+    public static class LongRange implements Iterable<Long> {
+        private final long offset;
+        private final long step;
+        /**
+         * The number of elements in this LongRange
+         */
+        public final long length;
+
+        private LongRange(final long offset, final long step, final long length) {
+            this.offset = offset;
+            this.step = step;
+            this.length = length;
+        }
+
+        private static long lengthOf(final long start, final long stop, final long step) {
+            if (step == 0) throw new IllegalArgumentException("step == 0");
+            if (step > 0 ? stop <= start : stop >= start) return 0;
+            // the span and the magnitude of step may not fit in a signed long.
+            final long span = step > 0 ? stop - start : start - stop;
+            final long length = divideUnsigned(span - 1, step > 0 ? step : -step) + 1;
+            if (length <= 0) throw new IllegalArgumentException("more than Long.MAX_VALUE");
+            return length;
+        }
+
+        private static long divideUnsigned(final long a, final long b) {
+            if (b < 0) return a + Long.MIN_VALUE < b + Long.MIN_VALUE ? 0 : 1;
+            if (a >= 0) return a / b;
+            final long q = ((a >>> 1) / b) << 1;
+            final long r = a - q * b;
+            return q + (r + Long.MIN_VALUE >= b + Long.MIN_VALUE ? 1 : 0);
+        }
+
+        /**
+         * sub is short for subscript. Like Range.sub, it doesn't check bounds.
+         *
+         * @param i
+         * @return the element at index i
+         */
+        public long sub(final long i) {
+            return i * step + offset;
+        }
+
+        public long get(final long i) {
+            if (i < 0 || i >= length)
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + length);
+            return sub(i);
+        }
+
+        /**
+         * @param x
+         * @return the index of x in this LongRange, or -1 if it isn't in it. Constant time.
+         */
+        public long indexOf(final long x) {
+            if (length == 0 || (step > 0 ? x < offset : x > offset)) return -1;
+            final long distance = step > 0 ? x - offset : offset - x;
+            final long scale = step > 0 ? step : -step;
+            final long i = divideUnsigned(distance, scale);
+            return i * scale == distance && i >= 0 && i < length ? i : -1;
+        }
+
+        public boolean contains(final long x) {
+            return indexOf(x) >= 0;
+        }
+
+        /**
+         * @return the elements from index from (inclusive) to to (exclusive).
+         */
+        public LongRange subRange(final long from, final long to) {
+            if (from < 0 || to > length || from > to)
+                throw new IndexOutOfBoundsException(
+                        "from: " + from + ", to: " + to + ", Size: " + length);
+            return new LongRange(sub(from), step, to - from);
+        }
+
+        /**
+         * Divides this LongRange into contiguous pieces that differ in length by at most one,
+         * in order.
+         *
+         * @param parts the most pieces wanted
+         * @return min(parts, length) non-empty LongRanges that together make this one.
+         */
+        public List<LongRange> split(final int parts) {
+            if (parts < 1) throw new IllegalArgumentException("parts < 1");
+            final int n = (int) Math.min(parts, length);
+            final List<LongRange> out = new ArrayList<LongRange>(n);
+            long from = 0;
+            for (int k = 0; k < n; k++) {
+                final long to = from + length / n + (k < length % n ? 1 : 0);
+                out.add(subRange(from, to));
+                from = to;
+            }
+            return out;
+        }
+
+        /**
+         * @return a LongSequence, so the elements can be read with nextLong() without boxing.
+         */
+        @Override
+        public LongSequence iterator() {
+            return new LongSequence() {
+                private long i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return i < length;
+                }
+
+                @Override
+                public long nextLong() {
+                    if (i >= length) throw new NoSuchElementException();
+                    return sub(i++);
+                }
+            };
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof LongRange)) return false;
+            final LongRange that = (LongRange) o;
+            return length == that.length && (length == 0
+                    || offset == that.offset && (length == 1 || step == that.step));
+        }
+
+        @Override
+        public int hashCode() {
+            if (length == 0) return 0;
+            long h = 31 * offset + length;
+            if (length > 1) h = 31 * h + step;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public String toString() {
+            if (length == 0) return "LongRange[]";
+            return "LongRange[first=" + offset + ", step=" + step + ", length=" + length + "]";
+        }
     }
 
 //    // j-like verb trains?
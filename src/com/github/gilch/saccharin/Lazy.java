@@ -14,20 +14,25 @@
 
 package com.github.gilch.saccharin;
 
+import com.github.gilch.saccharin.functional.Function2;
 import com.github.gilch.saccharin.functional.Predicate;
 import com.github.gilch.saccharin.sequential.*;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
-import static com.github.gilch.saccharin.BuiltIn.in;
 import static com.github.gilch.saccharin.BuiltIn.range;
 import static com.github.gilch.saccharin.Literal._;
 import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
 
 /**
  * Created by gilch on 12/9/2015.
+ * <p/>
+ * Combinators that read from other Iterators return a {@link CloseableSequence}. Closing it
+ * also closes the Iterators it reads from, if they are Closeable.
  */
 public final class Lazy {
     private Lazy() {
@@ -50,16 +55,23 @@ public final class Lazy {
      * @return The an Iterator that produces the Cartesian product set (in lexicographic order
      * assuming the inputs are in order).
      */
-    public static <I, J> Iterator<Literal._<I, J>> lexCart(
+    public static <I, J> CloseableSequence<Literal._<I, J>> lexCart(
             final Iterator<? extends I> iIt, final Iterable<? extends J> js) {
-        return new Generator<_<I, J>>() {
+        return new StateMachine<_<I, J>>() {
+            I i;
+            Iterator<? extends J> jIt;
+
             @Override
-            protected void generate() throws InterruptedException {
-                for (final I i : in(iIt))
-                    for (final J j : js)
-                        yield(_(i, j));
+            protected void resume() {
+                while (jIt == null || !jIt.hasNext()) {
+                    if (!iIt.hasNext()) return;
+                    i = iIt.next();
+                    jIt = js.iterator();
+                }
+                final J j = jIt.next();
+                yield(_(i, j));
             }
-        }.start();
+        }.closing(iIt);
     }
 
     /**
@@ -78,19 +90,59 @@ public final class Lazy {
      * @return The an Iterator that produces the Cartesian product set (in colexicographic order
      * assuming the inputs are in order).
      */
-    public static <J, I> Iterator<_<J, I>> colexCart(
+    public static <J, I> CloseableSequence<_<J, I>> colexCart(
             final Iterable<? extends J> js, final Iterator<? extends I> iIt) {
-        return new Generator<_<J, I>>() {
+        return new StateMachine<_<J, I>>() {
+            I i;
+            Iterator<? extends J> jIt;
+
             @Override
-            protected void generate() throws InterruptedException {
-                for (final I i : in(iIt))
-                    for (final J j : js)
-                        yield(_(j, i));
+            protected void resume() {
+                while (jIt == null || !jIt.hasNext()) {
+                    if (!iIt.hasNext()) return;
+                    i = iIt.next();
+                    jIt = js.iterator();
+                }
+                final J j = jIt.next();
+                yield(_(j, i));
             }
-        }.start();
+        }.closing(iIt);
     }
 
 
+    /**
+     * Combines every pair of the Cartesian product with func, in lexicographic order like
+     * {@link #lexCart(Iterator, Iterable)}, but without allocating the pairs. For colexicographic
+     * order, swap the roles of the arguments in func.
+     *
+     * @param func combines an element of iIt with an element of js
+     * @param iIt  Iterator for the outer loop. It is only used once.
+     * @param js   Iterable for the inner loop. The js must be reusable if iIt has more than one
+     *             element. Do not create with in().
+     * @param <I>
+     * @param <J>
+     * @param <R>
+     * @return an Iterator of the results
+     */
+    public static <I, J, R> CloseableSequence<R> cartWith(
+            final Function2<? super I, ? super J, ? extends R> func,
+            final Iterator<? extends I> iIt, final Iterable<? extends J> js) {
+        return new StateMachine<R>() {
+            I i;
+            Iterator<? extends J> jIt;
+
+            @Override
+            protected void resume() {
+                while (jIt == null || !jIt.hasNext()) {
+                    if (!iIt.hasNext()) return;
+                    i = iIt.next();
+                    jIt = js.iterator();
+                }
+                yield(func.apply(i, jIt.next()));
+            }
+        }.closing(iIt);
+    }
+
     /**
      * Repeats an iterator, by saving an internal list.
      *
@@ -98,20 +150,27 @@ public final class Lazy {
      * @param <E>
      * @return
      */
-    public static <E> Iterator<E> cycle(final Iterator<? extends E> it) {
-        return new Generator<E>() {
+    public static <E> CloseableSequence<E> cycle(final Iterator<? extends E> it) {
+        return new StateMachine<E>() {
+            final List<E> saved = _a();
+            int index;
+
             @Override
-            protected void generate() throws InterruptedException {
-                final List<E> saved = _a();
-                for (final E e : in(it)) {
-                    yield(e);
-                    saved.add(e);
-                }
-                while (saved.size() > 0) {
-                    for (final E e : saved) yield(e);
+            protected void resume() {
+                if (label == 0) {
+                    if (it.hasNext()) {
+                        final E e = it.next();
+                        saved.add(e);
+                        yield(e);
+                        return;
+                    }
+                    label = 1;//replay the saved elements from here on.
                 }
+                if (saved.isEmpty()) return;
+                yield(saved.get(index));
+                index = (index + 1) % saved.size();
             }
-        }.start();
+        }.closing(it);
     }
 
     public static <E> Iterator<E> repeat(final E e) {
@@ -148,77 +207,469 @@ public final class Lazy {
      * @param <E>
      * @return
      */
-    public static <E> Iterator<E> chain(final Iterator<? extends Iterator<? extends E>> links) {
-        return new Generator<E>() {
+    public static <E> CloseableSequence<E> chain(
+            final Iterator<? extends Iterator<? extends E>> links) {
+        return new StateMachine<E>() {
+            Iterator<? extends E> link;
+
             @Override
-            protected void generate() throws InterruptedException {
-                for (final Iterator<? extends E> link : in(links))
-                    for (final E e : in(link))
-                        yield(e);
+            protected void resume() {
+                while (link == null || !link.hasNext()) {
+                    BuiltIn.close(link);
+                    link = null;
+                    if (!links.hasNext()) return;
+                    link = links.next();
+                }
+                yield(link.next());
+            }
+
+            @Override
+            public void close() {
+                final Iterator<? extends E> current = link;
+                link = null;
+                try {
+                    BuiltIn.close(current);//in case this chain is closed early.
+                } finally {
+                    super.close();
+                }
             }
-        }.start();
+        }.closing(links);
     }
 
-    public static <E> Iterator<E> compress(
+    public static <E> CloseableSequence<E> compress(
             final Iterator<? extends E> data, final Iterator<Boolean> selectors) {
-        return new LookAheadSequence<E>() {
+        return new CloseableSequence<E>() {
             @Override
             protected E getNext() throws NoSuchElementException {
-                final E out = data.next();
-                if (selectors.next()) return (out);
-                else return getNext();
+                while (data.hasNext() && selectors.hasNext()) {
+                    final E out = data.next();
+                    if (selectors.next()) return out;
+                }
+                return done();
             }
-        };
+        }.closing(data, selectors);
     }
 
-    public static <E> Iterator<E> dropWhile(
+    public static <E> CloseableSequence<E> dropWhile(
             final Predicate<? super E> tester, final Iterator<? extends E> it) {
-        return new Generator<E>() {
+        return new StateMachine<E>() {
             @Override
-            protected void generate() throws InterruptedException {
-                final Iterable<? extends E> iter = in(it);//only consumed once.
-                for (final E e : iter) {
-                    if (!tester.test(e)) {
-                        yield(e);
-                        break;//didn't finish iter!
+            protected void resume() {
+                if (label == 0) {
+                    label = 1;
+                    while (it.hasNext()) {
+                        final E e = it.next();
+                        if (!tester.test(e)) {
+                            yield(e);
+                            return;
+                        }
                     }
+                    return;
                 }
-                for (final E e : iter) yield(e); //finishes iter
+                if (it.hasNext()) yield(it.next());
             }
-        }.start();
+        }.closing(it);
     }
 
-    public static <E> Iterator<E> takeWhile(
+    public static <E> CloseableSequence<E> takeWhile(
             final Predicate<? super E> tester, final Iterator<? extends E> it) {
-        return new LookAheadSequence<E>() {
+        return new CloseableSequence<E>() {
             @Override
             protected E getNext() throws NoSuchElementException {
+                if (!it.hasNext()) return done();
                 final E e = it.next();
-                if (tester.test(e)) return e;
-                throw new NoSuchElementException();
+                return tester.test(e) ? e : done();
             }
-        };
+        }.closing(it);
     }
 
-    public static <E> Iterator<E> iSlice(
+    /**
+     * Selects elements by index, like a slice of a List, but lazily and from any Iterator.
+     * Stops pulling from it as soon as the last selected index is reached.
+     *
+     * @param it    the source
+     * @param start the first index, default 0
+     * @param stop  one past the last index, default unbounded
+     * @param step  the distance between indices, default 1
+     * @param <E>
+     * @return the selected elements
+     */
+    public static <E> CloseableSequence<E> iSlice(
             final Iterator<? extends E> it,
             final Integer start, final Integer stop, final Integer step) {
-        return new Generator<E>() {
-            @Override
-            protected void generate() throws InterruptedException {
-                final Iterator<Integer> slice = range(
-                        start != null ? start : 0,
-                        stop != null ? stop : Integer.MAX_VALUE,
-                        step != null ? step : 1).iterator();
-                int i = 0;
-                int targetIndex = slice.next();
-                for (final E e : in(it)) {
+        final BuiltIn.Range slice = range(
+                start != null ? start : 0,
+                stop != null ? stop : Integer.MAX_VALUE,
+                step != null ? step : 1);
+        return new StateMachine<E>() {
+            int i = 0;
+            int k = 0;//index into slice.
+
+            @Override
+            protected void resume() {
+                if (k == slice.length) return;
+                final int targetIndex = slice.sub(k);
+                while (it.hasNext()) {
+                    final E e = it.next();
                     if (i++ == targetIndex) {
+                        k++;
                         yield(e);
-                        targetIndex = slice.next();
+                        return;
+                    }
+                }
+            }
+        }.closing(it);
+    }
+
+    /**
+     * As {@link #iSlice(Iterator, Integer, Integer, Integer)}, but jumps straight to the
+     * selected indices when the source is a {@link RandomAccess} List, such as a
+     * {@link BuiltIn.Range} or {@link Literal.Primitives}. Then the cost depends only on the
+     * number of elements selected. Other Lists are walked like any Iterator.
+     *
+     * @param list  the source
+     * @param start the first index, default 0
+     * @param stop  one past the last index, default unbounded
+     * @param step  the distance between indices, default 1
+     * @param <E>
+     * @return the selected elements
+     */
+    public static <E> CloseableSequence<E> iSliceList(
+            final List<? extends E> list,
+            final Integer start, final Integer stop, final Integer step) {
+        if (!(list instanceof RandomAccess)
+                || start != null && start < 0 || step != null && step < 1)
+            return iSlice(list.iterator(), start, stop, step);
+        final BuiltIn.Range slice = range(
+                start != null ? start : 0,
+                stop != null ? Math.min(stop, list.size()) : list.size(),
+                step != null ? step : 1);
+        return new CloseableSequence<E>() {
+            int k = 0;//index into slice.
+
+            @Override
+            protected E getNext() throws NoSuchElementException {
+                if (k == slice.length) return done();
+                return list.get(slice.sub(k++));
+            }
+        }.closing(list);
+    }
+
+    public static IntSequence intRepeat(final int e) {
+        return new IntSequence.Infinite() {
+            @Override
+            public int nextInt() {
+                return e;
+            }
+        };
+    }
+
+    public static IntSequence intRepeat(final int e, final int times) {
+        return new IntSequence() {
+            int remaining = times;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                remaining--;
+                return e;
+            }
+        };
+    }
+
+    /**
+     * Concatenates IntSequences without boxing.
+     *
+     * @param links
+     * @return
+     */
+    public static IntSequence.Closing intChain(
+            final Iterator<? extends IntSequence> links) {
+        return new IntSequence.Closing() {
+            IntSequence link;
+
+            @Override
+            protected int getNextInt() {
+                while (link == null || !link.hasNext()) {
+                    BuiltIn.close(link);
+                    link = null;
+                    if (!links.hasNext()) return done();
+                    link = links.next();
+                }
+                return link.nextInt();
+            }
+
+            @Override
+            public void close() {
+                final IntSequence current = link;
+                link = null;
+                try {
+                    BuiltIn.close(current);//in case this chain is closed early.
+                } finally {
+                    super.close();
+                }
+            }
+        }.closing(links);
+    }
+
+    /**
+     * As {@link #iSlice(Iterator, Integer, Integer, Integer)}, without boxing.
+     */
+    public static IntSequence.Closing iSlice(
+            final IntSequence it, final Integer start, final Integer stop, final Integer step) {
+        final BuiltIn.Range slice = range(
+                start != null ? start : 0,
+                stop != null ? stop : Integer.MAX_VALUE,
+                step != null ? step : 1);
+        return new IntSequence.Closing() {
+            int i = 0;
+            int k = 0;//index into slice.
+
+            @Override
+            protected int getNextInt() {
+                if (k == slice.length) return done();
+                final int targetIndex = slice.sub(k);
+                while (it.hasNext()) {
+                    final int e = it.nextInt();
+                    if (i++ == targetIndex) {
+                        k++;
+                        return e;
+                    }
+                }
+                return done();
+            }
+        }.closing(it);
+    }
+
+    public static LongSequence longRepeat(final long e) {
+        return new LongSequence.Infinite() {
+            @Override
+            public long nextLong() {
+                return e;
+            }
+        };
+    }
+
+    public static LongSequence longRepeat(final long e, final int times) {
+        return new LongSequence() {
+            int remaining = times;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) throw new NoSuchElementException();
+                remaining--;
+                return e;
+            }
+        };
+    }
+
+    /**
+     * Concatenates LongSequences without boxing.
+     *
+     * @param links
+     * @return
+     */
+    public static LongSequence.Closing longChain(
+            final Iterator<? extends LongSequence> links) {
+        return new LongSequence.Closing() {
+            LongSequence link;
+
+            @Override
+            protected long getNextLong() {
+                while (link == null || !link.hasNext()) {
+                    BuiltIn.close(link);
+                    link = null;
+                    if (!links.hasNext()) return done();
+                    link = links.next();
+                }
+                return link.nextLong();
+            }
+
+            @Override
+            public void close() {
+                final LongSequence current = link;
+                link = null;
+                try {
+                    BuiltIn.close(current);//in case this chain is closed early.
+                } finally {
+                    super.close();
+                }
+            }
+        }.closing(links);
+    }
+
+    /**
+     * As {@link #iSlice(Iterator, Integer, Integer, Integer)}, without boxing.
+     */
+    public static LongSequence.Closing iSlice(
+            final LongSequence it, final Integer start, final Integer stop, final Integer step) {
+        final BuiltIn.Range slice = range(
+                start != null ? start : 0,
+                stop != null ? stop : Integer.MAX_VALUE,
+                step != null ? step : 1);
+        return new LongSequence.Closing() {
+            int i = 0;
+            int k = 0;//index into slice.
+
+            @Override
+            protected long getNextLong() {
+                if (k == slice.length) return done();
+                final int targetIndex = slice.sub(k);
+                while (it.hasNext()) {
+                    final long e = it.nextLong();
+                    if (i++ == targetIndex) {
+                        k++;
+                        return e;
+                    }
+                }
+                return done();
+            }
+        }.closing(it);
+    }
+
+    public static DoubleSequence doubleRepeat(final double e) {
+        return new DoubleSequence.Infinite() {
+            @Override
+            public double nextDouble() {
+                return e;
+            }
+        };
+    }
+
+    public static DoubleSequence doubleRepeat(final double e, final int times) {
+        return new DoubleSequence() {
+            int remaining = times;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (!hasNext()) throw new NoSuchElementException();
+                remaining--;
+                return e;
+            }
+        };
+    }
+
+    /**
+     * Concatenates DoubleSequences without boxing.
+     *
+     * @param links
+     * @return
+     */
+    public static DoubleSequence.Closing doubleChain(
+            final Iterator<? extends DoubleSequence> links) {
+        return new DoubleSequence.Closing() {
+            DoubleSequence link;
+
+            @Override
+            protected double getNextDouble() {
+                while (link == null || !link.hasNext()) {
+                    BuiltIn.close(link);
+                    link = null;
+                    if (!links.hasNext()) return done();
+                    link = links.next();
+                }
+                return link.nextDouble();
+            }
+
+            @Override
+            public void close() {
+                final DoubleSequence current = link;
+                link = null;
+                try {
+                    BuiltIn.close(current);//in case this chain is closed early.
+                } finally {
+                    super.close();
+                }
+            }
+        }.closing(links);
+    }
+
+    /**
+     * As {@link #iSlice(Iterator, Integer, Integer, Integer)}, without boxing.
+     */
+    public static DoubleSequence.Closing iSlice(
+            final DoubleSequence it, final Integer start, final Integer stop, final Integer step) {
+        final BuiltIn.Range slice = range(
+                start != null ? start : 0,
+                stop != null ? stop : Integer.MAX_VALUE,
+                step != null ? step : 1);
+        return new DoubleSequence.Closing() {
+            int i = 0;
+            int k = 0;//index into slice.
+
+            @Override
+            protected double getNextDouble() {
+                if (k == slice.length) return done();
+                final int targetIndex = slice.sub(k);
+                while (it.hasNext()) {
+                    final double e = it.nextDouble();
+                    if (i++ == targetIndex) {
+                        k++;
+                        return e;
                     }
                 }
+                return done();
             }
-        }.start();
+        }.closing(it);
+    }
+
+    public static abstract class MergeRx<E> extends Rx<CloseableSequence<E>, MergeRx<E>> {
+        @Override
+        protected MergeRx<E> getThis() {
+            return this;
+        }
+
+        /**
+         * Take the sources in strict turns instead of first come, first served.
+         */
+        public final Term<Boolean> ordered = is(false);
+        /**
+         * How many elements each source may run ahead of the consumer.
+         */
+        public final Term<Integer> bufferSize = is(64);
+        /**
+         * Runs one task per source for the life of the merge.
+         */
+        public final Term<GeneratorExecutor> executor = is(Generator.getDefaultExecutor());
+    }
+
+    /**
+     * Pulls from every source in parallel, each on its own thread, and interleaves the
+     * elements. Useful when the sources are expensive to compute, like parsers or
+     * {@link StateMachine}s. A source that throws ends the merge with its exception.
+     *
+     * @param sources the Iterators to merge. They are read from other threads.
+     * @param <E>
+     * @return a recipe for the merge. Call go() to start it.
+     * @see MergedSequence
+     */
+    public static <E> MergeRx<E> mergeRx(final List<? extends Iterator<? extends E>> sources) {
+        return new MergeRx<E>() {
+            @Override
+            public CloseableSequence<E> go() {
+                return new MergedSequence<E>(sources, ordered._, bufferSize._, executor._);
+            }
+        };
+    }
+
+    //@SafeVarargs
+    @SuppressWarnings("unchecked")
+    public static <E> CloseableSequence<E> merge(final Iterator<? extends E>... sources) {
+        return Lazy.<E>mergeRx(_t(sources)).go();
     }
 }
@@ -14,10 +14,20 @@
 
 package com.github.gilch.saccharin;
 
+import com.github.gilch.saccharin.associative.CompactMap;
 import com.github.gilch.saccharin.functional.Function;
+import com.github.gilch.saccharin.sequential.DoubleSequence;
+import com.github.gilch.saccharin.sequential.IntSequence;
+import com.github.gilch.saccharin.sequential.LongSequence;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.github.gilch.saccharin.BuiltIn.*;
 
@@ -33,6 +43,7 @@ import static com.github.gilch.saccharin.BuiltIn.*;
  * <code>
  * _(1,"one") //cons cell<br />
  * _(1f,_(2d,_('3',VOID))) //cons linked list<br />
+ * intern(1,intern(2,null)) //shared canonical cons cells<br />
  * _0b("1010"+"0100") // binary (long)<br />
  * _t(1,2,3) //tuple (array as List)<br />
  * _f(1,2,3) //frozen tuple (array as unmodifiable List)<br />
@@ -41,6 +52,7 @@ import static com.github.gilch.saccharin.BuiltIn.*;
  * items("foo","bar") //reference array<br />
  * _s(1,2,3) //linked hash set<br />
  * _x("one",1)._("two",2)._("three",3) //Map<br />
+ * new IntList()._(1)._(2)._(3) //growable int[]<br />
  * </code>
  * Primitives arrays are also available, except for byte[] and short[], which
  * are arguably better created with Java's native syntax, since a
@@ -98,6 +110,33 @@ public final class Literal {
         return new _<Void, Void>(head, tail);
     }
 
+    /**
+     * Interning cons cell fake literal. Like _(head, tail), but returns a canonical shared
+     * cell if an equal one is already in use, so repetitive data takes less memory and equal
+     * cells compare by identity. Nest interned cells to share whole stacks:
+     * {@code intern(symbol, intern(exchange, null))}
+     * <p/>
+     * Only deeply immutable cells are interned, since changing a mutable element would change
+     * the cell's equality. Others are returned as new cells.
+     *
+     * @param head - object to store in head
+     * @param tail - object to store in tail
+     * @return a canonical construct _(head, tail)
+     * @see Intern
+     */
+    public static <H, T> _<H, T> intern(final H head, final T tail) {
+        return Intern.intern(new _<H, T>(head, tail));
+    }
+
+    /**
+     * Terminating version of intern(head, tail).
+     *
+     * @see #_(Object, Void)
+     */
+    public static <H> _<H, Void> intern(final H head, final Void tail) {
+        return Intern.intern(new _<H, Void>(head, tail));
+    }
+
     /**
      * Out fake literal.
      *
@@ -374,6 +413,9 @@ public final class Literal {
      * {@link Map} fake literal. Use this to apply the
      * chain-initialization syntax to any existing Map instance. Example:
      * {@code _x(new TreeMap<String,String>())._("foo","bar")._("too","bar")}
+     * <br />
+     * This includes the primitive maps in the associative package, such as
+     * {@code _x(new IntObjMap<String>())._(1,"one")}, which unbox the keys.
      *
      * @param m - an existing Map
      * @return a _X instance wrapping m
@@ -518,13 +560,40 @@ public final class Literal {
          */
         public final T tail;
 
-        //prevents cycles in toString(). Cycles are possible with mutable elements like Thru<_<?,?>>
-        private boolean seen = false;
+        // Cells whose hashCode, toString or equals is in progress on this thread. These break
+        // cycles, which are possible with mutable elements like Thru<_<?,?>>
+        private static final ThreadLocal<Map<Object, Object>> HASHING = newGuard();
+        private static final ThreadLocal<Map<Object, Object>> PRINTING = newGuard();
+        private static final ThreadLocal<Map<Object, Object>> COMPARING = newGuard();
+
+        // head and tail are deeply immutable, so the hash code can be cached, and no cycles.
+        // Every cell along the tail of an immutable cell is immutable too, so the mutable cells
+        // of a spine always come first.
+        private final boolean immutable;
+        private int hash;//cached if immutable; 0 if not yet computed
 
 
         _(final H head, final T tail) {
             this.head = head;
             this.tail = tail;
+            immutable = isImmutable(head) && isImmutable(tail);
+        }
+
+        private static ThreadLocal<Map<Object, Object>> newGuard() {
+            return new ThreadLocal<Map<Object, Object>>() {
+                @Override
+                protected Map<Object, Object> initialValue() {
+                    return new IdentityHashMap<Object, Object>();
+                }
+            };
+        }
+
+        private static boolean isImmutable(final Object o) {
+            if (o instanceof _<?, ?>) return ((_<?, ?>) o).immutable;
+            return o == null || o instanceof String || o instanceof Integer || o instanceof Long
+                    || o instanceof Character || o instanceof Boolean || o instanceof Double
+                    || o instanceof Byte || o instanceof Short || o instanceof Float
+                    || o instanceof Enum<?>;
         }
 
         /**
@@ -560,52 +629,124 @@ public final class Literal {
             return new _<T, H>(tail, head);
         }
 
+        /**
+         * Prints nested cells along the tail without recursion, so long stacks can't overflow.
+         * Deeply immutable cells can't be in a cycle, so they skip the guard.
+         */
         @Override
-        public synchronized String toString() {
-            // breaks cycles
-            if (seen) return String.format("_(@%s...)", Integer.toHexString(super.hashCode()));
-            seen = true;
-            final String out = String.format("_(%s,%s)", str(head), str(tail));
-            seen = false;
-            return out;
+        public String toString() {
+            final Map<Object, Object> printing = immutable ? null : PRINTING.get();
+            if (printing != null && printing.containsKey(this)) return marker(this);
+            final StringBuilder out = new StringBuilder();
+            int depth = 0;
+            int marked = 0;//the mutable prefix of the spine.
+            Object o = this;
+            try {
+                for (; o instanceof _<?, ?>; depth++) {
+                    final _<?, ?> cell = (_<?, ?>) o;
+                    if (!cell.immutable) {
+                        if (printing.containsKey(cell)) break;
+                        printing.put(cell, cell);
+                        marked++;
+                    }
+                    out.append("_(").append(str(cell.head)).append(',');
+                    o = cell.tail;
+                }
+                out.append(o instanceof _<?, ?> ? marker(o) : str(o));
+                for (int i = 0; i < depth; i++) out.append(')');
+                return out.toString();
+            } finally {
+                o = this;
+                for (int i = 0; i < marked; i++, o = ((_<?, ?>) o).tail) printing.remove(o);
+            }
+        }
+
+        // stands in for a cell already being printed
+        private static String marker(final Object cell) {
+            return String.format("_(@%s...)", Integer.toHexString(System.identityHashCode(cell)));
         }
 
         /**
+         * Compares along the tail without recursion, so long stacks can't overflow. Cells with
+         * different hash codes are never equal, so two deeply immutable cells with cached hash
+         * codes can usually be told apart at once.
+         * <p/>
          * Comparing constructs with cycles is not recommended. It's still guaranteed to be
          * consistent, even with hashCode(), but the results are not always intuitive.
-         * The equality check is recursive, so there is a (small) risk of stack overflow.
          */
         @Override
-        public synchronized boolean equals(final Object o) {
-            if (o == null) return false;//"this" is never null
+        public boolean equals(final Object o) {
             if (o == this) return true;//reflexive
-            if (o instanceof _<?, ?>) {
-                // cycles could produce different hash codes with technically the same structure
-                if (hashCode() != o.hashCode()) return false;//consistent with hashCode()
-                // with such cycles, hash codes might just so happen to be the same
-                if (toString().equals(o.toString())) return false;
-                // now the chances of cycles not caught by the reflexive check are remote
-                // the worst that could happen is a stack overflow
-                final _<?, ?> cell = (_<?, ?>) o;
-                return (eq(head, cell.head) && eq(tail, cell.tail));
+            if (!(o instanceof _<?, ?>)) return false;
+            if (hashCode() != o.hashCode()) return false;//consistent with hashCode()
+            final Map<Object, Object> comparing = immutable ? null : COMPARING.get();
+            int marked = 0;//the mutable prefix of this spine.
+            try {
+                Object a = this;
+                Object b = o;
+                while (true) {
+                    final _<?, ?> x = (_<?, ?>) a;
+                    final _<?, ?> y = (_<?, ?>) b;
+                    if (!x.immutable) {
+                        if (comparing.containsKey(x)) return comparing.get(x) == y;//a cycle
+                        comparing.put(x, y);
+                        marked++;
+                    }
+                    if (!eq(x.head, y.head)) return false;
+                    a = x.tail;
+                    b = y.tail;
+                    if (a == b) return true;
+                    if (!(a instanceof _<?, ?> && b instanceof _<?, ?>)) return eq(a, b);
+                    final int ha = ((_<?, ?>) a).hash;
+                    final int hb = ((_<?, ?>) b).hash;
+                    if (ha != 0 && hb != 0 && ha != hb) return false;
+                }
+            } finally {
+                Object x = this;
+                for (int i = 0; i < marked; i++, x = ((_<?, ?>) x).tail) comparing.remove(x);
             }
-            return false;
         }
 
         /**
-         * Using mutable data structures as hash keys is ill-advised. Changing the contents changes
-         * equality, so the hash code must also change. This means it must be re-calculated for
-         * every call, which may adversely impact the performance of the hash table.
+         * Hashes along the tail without recursion, so long stacks can't overflow. No locks are
+         * taken.
+         * <p/>
+         * If the head and tail are deeply immutable, for example Strings, boxed primitives,
+         * enums, null, or other such cells, then the hash code is cached. Otherwise, it must be
+         * re-calculated for every call, since changing the contents changes equality. Using
+         * mutable data structures as hash keys is ill-advised.
          */
         @Override
-        public synchronized int hashCode() {
-            if (seen) return super.hashCode(); // breaks cycles
-            int out = -1;
-            seen = true;
-            out = 31 * out + (head.hashCode());
-            out = 31 * out + (tail.hashCode());
-            seen = false;
-            return out;
+        public int hashCode() {
+            if (hash != 0) return hash;
+            if (immutable) return hashSpine(null);
+            final Map<Object, Object> hashing = HASHING.get();
+            if (hashing.containsKey(this)) return System.identityHashCode(this);//breaks cycles
+            return hashSpine(hashing);
+        }
+
+        // guard is null if this is immutable, which also means there can't be cycles.
+        private int hashSpine(final Map<Object, Object> guard) {
+            final List<_<?, ?>> spine = new ArrayList<_<?, ?>>();
+            Object o = this;
+            try {
+                while (o instanceof _<?, ?> && ((_<?, ?>) o).hash == 0
+                        && (guard == null || !guard.containsKey(o))) {
+                    final _<?, ?> cell = (_<?, ?>) o;
+                    spine.add(cell);
+                    if (guard != null && !cell.immutable) guard.put(cell, cell);
+                    o = cell.tail;
+                }
+                int out = hash(o);
+                for (int i = spine.size() - 1; i >= 0; i--) {
+                    final _<?, ?> cell = spine.get(i);
+                    out = 31 * (31 * -1 + hash(cell.head)) + out;
+                    if (cell.immutable) cell.hash = out;
+                }
+                return out;
+            } finally {
+                if (guard != null) for (final _<?, ?> cell : spine) guard.remove(cell);
+            }
         }
 
 
@@ -670,6 +811,87 @@ public final class Literal {
 
     }
 
+    /**
+     * The weak table behind Literal.intern, with its hit statistics. A cell stays canonical
+     * while anything else refers to it; after that the garbage collector may drop it.
+     * <p/>
+     * The table is split into stripes by hash code, each locked separately, so threads
+     * interning different cells rarely wait for each other.
+     */
+    public static final class Intern {
+        private static final int STRIPES = 16;
+
+        private static final AtomicLong hits = new AtomicLong();
+        private static final AtomicLong misses = new AtomicLong();
+        private static final List<Map<_<?, ?>, WeakReference<_<?, ?>>>> table =
+                new ArrayList<Map<_<?, ?>, WeakReference<_<?, ?>>>>(STRIPES);
+
+        static {
+            for (int i = 0; i < STRIPES; i++)
+                table.add(new WeakHashMap<_<?, ?>, WeakReference<_<?, ?>>>());
+        }
+
+        private Intern() {
+            throw new UnsupportedOperationException();
+        }
+
+        @SuppressWarnings("unchecked")
+        static <H, T> _<H, T> intern(final _<H, T> cell) {
+            if (!cell.immutable) return cell;
+            final int h = cell.hashCode();
+            final Map<_<?, ?>, WeakReference<_<?, ?>>> stripe =
+                    table.get((h ^ (h >>> 16)) & (STRIPES - 1));
+            synchronized (stripe) {
+                final WeakReference<_<?, ?>> ref = stripe.get(cell);
+                final _<?, ?> found = ref == null ? null : ref.get();
+                if (found != null) {
+                    hits.incrementAndGet();
+                    return (_<H, T>) found;
+                }
+                stripe.put(cell, new WeakReference<_<?, ?>>(cell));
+            }
+            misses.incrementAndGet();
+            return cell;
+        }
+
+        /**
+         * @return how many interned cells were found in the table.
+         */
+        public static long hits() {
+            return hits.get();
+        }
+
+        /**
+         * @return how many interned cells were new, and added to the table.
+         */
+        public static long misses() {
+            return misses.get();
+        }
+
+        /**
+         * @return hits / (hits + misses), or 0 if nothing was interned yet.
+         */
+        public static double hitRate() {
+            final long h = hits.get();
+            final long total = h + misses.get();
+            return total == 0 ? 0 : (double) h / total;
+        }
+
+        /**
+         * @return how many canonical cells the table holds now, including any the garbage
+         * collector has yet to drop.
+         */
+        public static int size() {
+            int out = 0;
+            for (final Map<_<?, ?>, WeakReference<_<?, ?>>> stripe : table) {
+                synchronized (stripe) {
+                    out += stripe.size();
+                }
+            }
+            return out;
+        }
+    }
+
     /**
      * A mutable reference. Used to get output through parameters.
      * Out starts with a null referent. Methods with Out parameters should
@@ -792,346 +1014,1962 @@ public final class Literal {
     }
 
     /**
-     * Extends ArrayDeque with chain syntax.
-     * Chain pop with next(Out). Chain push with ahead(E).
-     * Chain append with and(E). Chain pop from the last with last(Out).
+     * A growable array of ints, for accumulating without boxing. Like _A, it has chained
+     * ._(x) and ._(a,b,c,d,e) adders. The capacity grows by half each time it runs out, so
+     * adding is amortized constant time.
+     * <p/>
+     * view() wraps the used prefix of the backing array as a Primitives, without copying.
      *
-     * @param <E>
+     * @see _A
      */
-    public static class _Q<E> extends ArrayDeque<E> {
-        public _Q() {
-            super();
+    public static final class IntList {
+        private int[] elements;
+        private int size;
+
+        public IntList() {
+            this(10);
         }
 
-        public _Q(final int numElements) {
-            super(numElements);
+        public IntList(final int initialCapacity) {
+            if (initialCapacity < 0)
+                throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+            elements = new int[initialCapacity];
         }
 
-        public _Q(final Collection<? extends E> c) {
-            super(c);
+        /**
+         * Adds another element to the list.
+         *
+         * @return this
+         */
+        public IntList _(final int x) {
+            if (size == elements.length) ensureCapacity(size + 1);
+            elements[size++] = x;
+            return this;
         }
 
         /**
-         * pops Out the element at head and returns this deque (now the
-         * remaining tail).
+         * Adds five elements to the list.
          *
-         * @param e
-         * @return
+         * @return this
+         * @see _A#_(Object, Object, Object, Object, Object)
          */
-        public _Q<E> next(final Out<? super E> e) {
-            e._ = pop();//removeFirst();
+        public IntList _(final int a, final int b, final int c, final int d, final int e) {
+            ensureCapacity(size + 5);
+            elements[size] = a;
+            elements[size + 1] = b;
+            elements[size + 2] = c;
+            elements[size + 3] = d;
+            elements[size + 4] = e;
+            size += 5;
             return this;
         }
 
         /**
-         * pushes the element ahead of the deque and returns this deque
-         * (now with a new head).
+         * @return this
+         */
+        public IntList addAll(final int... xs) {
+            return addAll(xs, 0, xs.length);
+        }
+
+        /**
+         * Adds the elements of xs from index from (inclusive) to to (exclusive).
          *
-         * @param e
-         * @return
+         * @return this
          */
-        public _Q<E> ahead(final E e) {
-            push(e);//addFirst
+        public IntList addAll(final int[] xs, final int from, final int to) {
+            ensureCapacity(size + (to - from));
+            System.arraycopy(xs, from, elements, size, to - from);
+            size += to - from;
             return this;
         }
 
         /**
-         * takes Out the last element and returns this deque (now the
-         * remaining init).
+         * Adds the rest of the sequence, without boxing.
          *
-         * @param e
-         * @return
+         * @return this
          */
-        public _Q<E> last(final Out<? super E> e) {
-            e._ = removeLast();
+        public IntList addAll(final IntSequence it) {
+            while (it.hasNext()) _(it.nextInt());
             return this;
         }
 
+        public int get(final int i) {
+            checkIndex(i, size);
+            return elements[i];
+        }
+
         /**
-         * appends element as the last element in the deque.
+         * @return the element previously at i
+         */
+        public int set(final int i, final int x) {
+            checkIndex(i, size);
+            final int old = elements[i];
+            elements[i] = x;
+            return old;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Empties the list, keeping its capacity.
+         */
+        public void clear() {
+            size = 0;
+        }
+
+        public void ensureCapacity(final int minCapacity) {
+            if (minCapacity > elements.length)
+                elements = Arrays.copyOf(elements, grow(elements.length, minCapacity));
+        }
+
+        /**
+         * Shrinks the backing array to the size of the list.
          *
-         * @param e
-         * @return
+         * @return this
          */
-        public _Q<E> and(final E e) {
-            add(e);//addLast
+        public IntList trimToSize() {
+            if (size < elements.length) elements = Arrays.copyOf(elements, size);
             return this;
         }
+
+        /**
+         * The elements as a Primitives, without copying. Changes write through both ways, until
+         * the list grows or is trimmed into a new backing array. The view does not see elements
+         * added later. Its _ is the backing array itself, so it may be longer than the view; use
+         * only its first length elements, or trimToSize() before taking the view.
+         */
+        public Primitives<int[], Integer> view() {
+            return new Primitives<int[], Integer>(elements, size, Primitives.INTS);
+        }
+
+        /**
+         * @return a new array of the elements.
+         */
+        public int[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+
+        @Override
+        public String toString() {
+            return view().toString();
+        }
     }
 
     /**
-     * Map wrapper "_X" class. Adds the chain-put method {@code _(K,V)} to
-     * any {@link Map} type. Unwrap the map by getting the public {@code map}
-     * field.
+     * A growable array of longs, for accumulating without boxing. Like _A, it has chained
+     * ._(x) and ._(a,b,c,d,e) adders. The capacity grows by half each time it runs out, so
+     * adding is amortized constant time.
+     * <p/>
+     * view() wraps the used prefix of the backing array as a Primitives, without copying.
      *
-     * @param <K> key type of the backing map
-     * @param <V> value type of the backing map
-     * @param <T> type of the backing map. Additional methods not in the
-     *            {@code Map<K,V>} interface will still be accessible in the
-     *            {@code public final T} field {@code map}
-     * @author Matthew Odendahl
+     * @see _A
      */
-    public static class _X<K, V, T extends Map<K, V>> extends AbstractMap<K, V> {
-        /**
-         * The map backing the _X. _X implements the Map interface for
-         * convenience, but the backing map may have better implementations for
-         * some methods. Access to the backing map allows the use of any extra
-         * methods not in the interface.
-         */
-        public final T _;
+    public static final class LongList {
+        private long[] elements;
+        private int size;
 
-        private _X(final T m) {
-            _ = m;
+        public LongList() {
+            this(10);
         }
 
-        // implementations of map fake literals
-        static <K, V, S extends Map<K, V>> _X<K, V, S> map(final S m) {
-            return new _X<K, V, S>(m);
+        public LongList(final int initialCapacity) {
+            if (initialCapacity < 0)
+                throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+            elements = new long[initialCapacity];
         }
 
-        static <K extends Enum<K>, V> _X<K, V, EnumMap<K, V>>
-        map(final K key, final V value) {
-            return new _X<K, V, EnumMap<K, V>>
-                    (new EnumMap<K, V>(key.getDeclaringClass()))._(key, value);
+        /**
+         * Adds another element to the list.
+         *
+         * @return this
+         */
+        public LongList _(final long x) {
+            if (size == elements.length) ensureCapacity(size + 1);
+            elements[size++] = x;
+            return this;
         }
 
-        static <K, V> _X<K, V, HashMap<K, V>> map(
-                final K key, final V value) {
-            return new _X<K, V, HashMap<K, V>>
-                    (new HashMap<K, V>())._(key, value);
+        /**
+         * Adds five elements to the list.
+         *
+         * @return this
+         * @see _A#_(Object, Object, Object, Object, Object)
+         */
+        public LongList _(final long a, final long b, final long c, final long d, final long e) {
+            ensureCapacity(size + 5);
+            elements[size] = a;
+            elements[size + 1] = b;
+            elements[size + 2] = c;
+            elements[size + 3] = d;
+            elements[size + 4] = e;
+            size += 5;
+            return this;
         }
 
         /**
-         * Map fake literal chain. Adds another pair to the map.
-         * Hint: copy and paste ")._(" when building long chains.
+         * @return this
+         */
+        public LongList addAll(final long... xs) {
+            return addAll(xs, 0, xs.length);
+        }
+
+        /**
+         * Adds the elements of xs from index from (inclusive) to to (exclusive).
          *
-         * @param key
-         * @param value
          * @return this
          */
-        public _X<K, V, T> _(final K key, final V value) {
-            _.put(key, value);
+        public LongList addAll(final long[] xs, final int from, final int to) {
+            ensureCapacity(size + (to - from));
+            System.arraycopy(xs, from, elements, size, to - from);
+            size += to - from;
             return this;
         }
 
         /**
-         * Puts all returned key/value pairs into the map.
-         * Example usage: myMwrap.and(zip(_t('a','b','c'),_t(1,2,3)))
-         * results in map('a',1)._('b',2)._('c',3)
+         * Adds the rest of the sequence, without boxing.
          *
-         * @param pairs - a list of _(key,value) cons pairs.
          * @return this
          */
-        public _X<K, V, T> and(final Iterator<? extends _<? extends K, ? extends V>> pairs) {
-            for (final _<? extends K, ? extends V> pair : in(pairs)) {
-                _.put(pair.head, pair.tail);
-            }
+        public LongList addAll(final LongSequence it) {
+            while (it.hasNext()) _(it.nextLong());
             return this;
         }
 
-        @Override
-        public Set<Entry<K, V>> entrySet() {
-            return _.entrySet();
+        public long get(final int i) {
+            checkIndex(i, size);
+            return elements[i];
         }
 
-        @Override
-        public V put(final K key, final V value) {
-            return _.put(key, value);
+        /**
+         * @return the element previously at i
+         */
+        public long set(final int i, final long x) {
+            checkIndex(i, size);
+            final long old = elements[i];
+            elements[i] = x;
+            return old;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
         }
 
         /**
-         * return map.containsKey(key);
+         * Empties the list, keeping its capacity.
          */
-        @Override
-        public boolean containsKey(final Object key) {
-            return _.containsKey(key);
+        public void clear() {
+            size = 0;
+        }
+
+        public void ensureCapacity(final int minCapacity) {
+            if (minCapacity > elements.length)
+                elements = Arrays.copyOf(elements, grow(elements.length, minCapacity));
         }
 
         /**
-         * return map.containsValue(value);
+         * Shrinks the backing array to the size of the list.
+         *
+         * @return this
          */
-        @Override
-        public boolean containsValue(final Object value) {
-            return _.containsValue(value);
+        public LongList trimToSize() {
+            if (size < elements.length) elements = Arrays.copyOf(elements, size);
+            return this;
         }
 
         /**
-         * return map.get(key);
+         * The elements as a Primitives, without copying. Changes write through both ways, until
+         * the list grows or is trimmed into a new backing array. The view does not see elements
+         * added later. Its _ is the backing array itself, so it may be longer than the view; use
+         * only its first length elements, or trimToSize() before taking the view.
          */
-        @Override
-        public V get(final Object key) {
-            return _.get(key);
+        public Primitives<long[], Long> view() {
+            return new Primitives<long[], Long>(elements, size, Primitives.LONGS);
         }
 
         /**
-         * return map.remove(key);
+         * @return a new array of the elements.
          */
-        @Override
-        public V remove(final Object key) {
-            return _.remove(key);
+        public long[] toArray() {
+            return Arrays.copyOf(elements, size);
         }
 
+        @Override
+        public String toString() {
+            return view().toString();
+        }
     }
 
     /**
-     * The Primitives class wraps an array of a primitive type in an object. An object of type
-     * Primitives contains a public field which is the primitive array. Primitives also implements
-     * the List interface for the equivalent boxed type, which can effectively make a primitive
-     * array generic. However, using the List methods has an overhead due to boxing of primitives,
-     * so is generally preferable to directly access the array.
-     * It is possible to make an array of boxes, but arrays of primitives take less memory.
-     * There will be considerable overhead in converting an array of primitives to an array
-     * of objects (because they must be boxed element-by element), but wrapping an entire primitive
-     * array in the Primitives class is trivial. The valueOf methods store the reference to the
-     * array; the array is not copied; changes write through.
+     * A growable array of doubles, for accumulating without boxing. Like _A, it has chained
+     * ._(x) and ._(a,b,c,d,e) adders. The capacity grows by half each time it runs out, so
+     * adding is amortized constant time.
+     * <p/>
+     * view() wraps the used prefix of the backing array as a Primitives, without copying.
+     *
+     * @see _A
+     */
+    public static final class DoubleList {
+        private double[] elements;
+        private int size;
+
+        public DoubleList() {
+            this(10);
+        }
+
+        public DoubleList(final int initialCapacity) {
+            if (initialCapacity < 0)
+                throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+            elements = new double[initialCapacity];
+        }
+
+        /**
+         * Adds another element to the list.
+         *
+         * @return this
+         */
+        public DoubleList _(final double x) {
+            if (size == elements.length) ensureCapacity(size + 1);
+            elements[size++] = x;
+            return this;
+        }
+
+        /**
+         * Adds five elements to the list.
+         *
+         * @return this
+         * @see _A#_(Object, Object, Object, Object, Object)
+         */
+        public DoubleList _(
+                final double a, final double b, final double c, final double d, final double e) {
+            ensureCapacity(size + 5);
+            elements[size] = a;
+            elements[size + 1] = b;
+            elements[size + 2] = c;
+            elements[size + 3] = d;
+            elements[size + 4] = e;
+            size += 5;
+            return this;
+        }
+
+        /**
+         * @return this
+         */
+        public DoubleList addAll(final double... xs) {
+            return addAll(xs, 0, xs.length);
+        }
+
+        /**
+         * Adds the elements of xs from index from (inclusive) to to (exclusive).
+         *
+         * @return this
+         */
+        public DoubleList addAll(final double[] xs, final int from, final int to) {
+            ensureCapacity(size + (to - from));
+            System.arraycopy(xs, from, elements, size, to - from);
+            size += to - from;
+            return this;
+        }
+
+        /**
+         * Adds the rest of the sequence, without boxing.
+         *
+         * @return this
+         */
+        public DoubleList addAll(final DoubleSequence it) {
+            while (it.hasNext()) _(it.nextDouble());
+            return this;
+        }
+
+        public double get(final int i) {
+            checkIndex(i, size);
+            return elements[i];
+        }
+
+        /**
+         * @return the element previously at i
+         */
+        public double set(final int i, final double x) {
+            checkIndex(i, size);
+            final double old = elements[i];
+            elements[i] = x;
+            return old;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Empties the list, keeping its capacity.
+         */
+        public void clear() {
+            size = 0;
+        }
+
+        public void ensureCapacity(final int minCapacity) {
+            if (minCapacity > elements.length)
+                elements = Arrays.copyOf(elements, grow(elements.length, minCapacity));
+        }
+
+        /**
+         * Shrinks the backing array to the size of the list.
+         *
+         * @return this
+         */
+        public DoubleList trimToSize() {
+            if (size < elements.length) elements = Arrays.copyOf(elements, size);
+            return this;
+        }
+
+        /**
+         * The elements as a Primitives, without copying. Changes write through both ways, until
+         * the list grows or is trimmed into a new backing array. The view does not see elements
+         * added later. Its _ is the backing array itself, so it may be longer than the view; use
+         * only its first length elements, or trimToSize() before taking the view.
+         */
+        public Primitives<double[], Double> view() {
+            return new Primitives<double[], Double>(elements, size, Primitives.DOUBLES);
+        }
+
+        /**
+         * @return a new array of the elements.
+         */
+        public double[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+
+        @Override
+        public String toString() {
+            return view().toString();
+        }
+    }
+
+    // A capacity at least needed, growing old by half when possible.
+    private static int grow(final int old, final int needed) {
+        if (needed < 0) throw new OutOfMemoryError("Required array size too large");
+        final int capacity = old + (old >> 1);
+        return capacity - needed < 0 || capacity > Integer.MAX_VALUE - 8 ? needed : capacity;
+    }
+
+    private static void checkIndex(final int i, final int size) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+    }
+
+    /**
+     * Extends ArrayDeque with chain syntax.
+     * Chain pop with next(Out). Chain push with ahead(E).
+     * Chain append with and(E). Chain pop from the last with last(Out).
      *
-     * @param <A>
      * @param <E>
      */
-    public static final class Primitives<A, E> extends AbstractList<E> {
-        public final A _;
-        public final int length;
+    public static class _Q<E> extends ArrayDeque<E> {
+        public _Q() {
+            super();
+        }
 
-        private final Strategy<A, E> strategy;
+        public _Q(final int numElements) {
+            super(numElements);
+        }
 
-        private static abstract class Strategy<A, E> {
-            abstract E get(A a, int i);
+        public _Q(final Collection<? extends E> c) {
+            super(c);
+        }
 
-            abstract E set(A a, int i, E e);
+        /**
+         * pops Out the element at head and returns this deque (now the
+         * remaining tail).
+         *
+         * @param e
+         * @return
+         */
+        public _Q<E> next(final Out<? super E> e) {
+            e._ = pop();//removeFirst();
+            return this;
+        }
+
+        /**
+         * pushes the element ahead of the deque and returns this deque
+         * (now with a new head).
+         *
+         * @param e
+         * @return
+         */
+        public _Q<E> ahead(final E e) {
+            push(e);//addFirst
+            return this;
         }
 
-        private static final Strategy<byte[], Byte> BYTES = new Strategy<byte[], Byte>() {
+        /**
+         * takes Out the last element and returns this deque (now the
+         * remaining init).
+         *
+         * @param e
+         * @return
+         */
+        public _Q<E> last(final Out<? super E> e) {
+            e._ = removeLast();
+            return this;
+        }
+
+        /**
+         * appends element as the last element in the deque.
+         *
+         * @param e
+         * @return
+         */
+        public _Q<E> and(final E e) {
+            add(e);//addLast
+            return this;
+        }
+    }
+
+    /**
+     * Map wrapper "_X" class. Adds the chain-put method {@code _(K,V)} to
+     * any {@link Map} type. Unwrap the map by getting the public {@code map}
+     * field.
+     *
+     * @param <K> key type of the backing map
+     * @param <V> value type of the backing map
+     * @param <T> type of the backing map. Additional methods not in the
+     *            {@code Map<K,V>} interface will still be accessible in the
+     *            {@code public final T} field {@code map}
+     * @author Matthew Odendahl
+     */
+    public static class _X<K, V, T extends Map<K, V>> extends AbstractMap<K, V> {
+        /**
+         * The map backing the _X. _X implements the Map interface for
+         * convenience, but the backing map may have better implementations for
+         * some methods. Access to the backing map allows the use of any extra
+         * methods not in the interface.
+         */
+        public final T _;
+
+        private _X(final T m) {
+            _ = m;
+        }
+
+        // implementations of map fake literals
+        static <K, V, S extends Map<K, V>> _X<K, V, S> map(final S m) {
+            return new _X<K, V, S>(m);
+        }
+
+        static <K extends Enum<K>, V> _X<K, V, EnumMap<K, V>>
+        map(final K key, final V value) {
+            return new _X<K, V, EnumMap<K, V>>
+                    (new EnumMap<K, V>(key.getDeclaringClass()))._(key, value);
+        }
+
+        static <K, V> _X<K, V, HashMap<K, V>> map(
+                final K key, final V value) {
+            return new _X<K, V, HashMap<K, V>>
+                    (new HashMap<K, V>())._(key, value);
+        }
+
+        /**
+         * Map fake literal chain. Adds another pair to the map.
+         * Hint: copy and paste ")._(" when building long chains.
+         *
+         * @param key
+         * @param value
+         * @return this
+         */
+        public _X<K, V, T> _(final K key, final V value) {
+            _.put(key, value);
+            return this;
+        }
+
+        /**
+         * Puts all returned key/value pairs into the map.
+         * Example usage: myMwrap.and(zip(_t('a','b','c'),_t(1,2,3)))
+         * results in map('a',1)._('b',2)._('c',3)
+         *
+         * @param pairs - a list of _(key,value) cons pairs.
+         * @return this
+         */
+        public _X<K, V, T> and(final Iterator<? extends _<? extends K, ? extends V>> pairs) {
+            for (final _<? extends K, ? extends V> pair : in(pairs)) {
+                _.put(pair.head, pair.tail);
+            }
+            return this;
+        }
+
+        /**
+         * Freezes a copy of the map into a form built for fast lookups. Use this instead of
+         * BuiltIn.freeze for constant tables that are read often.
+         *
+         * @return an immutable copy, in the iteration order of this map
+         * @see CompactMap
+         */
+        public CompactMap<K, V> compact() {
+            return CompactMap.copyOf(_);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return _.entrySet();
+        }
+
+        @Override
+        public V put(final K key, final V value) {
+            return _.put(key, value);
+        }
+
+        /**
+         * return map.containsKey(key);
+         */
+        @Override
+        public boolean containsKey(final Object key) {
+            return _.containsKey(key);
+        }
+
+        /**
+         * return map.containsValue(value);
+         */
+        @Override
+        public boolean containsValue(final Object value) {
+            return _.containsValue(value);
+        }
+
+        /**
+         * return map.get(key);
+         */
+        @Override
+        public V get(final Object key) {
+            return _.get(key);
+        }
+
+        /**
+         * return map.remove(key);
+         */
+        @Override
+        public V remove(final Object key) {
+            return _.remove(key);
+        }
+
+    }
+
+    /**
+     * The Primitives class wraps an array of a primitive type in an object. An object of type
+     * Primitives contains a public field which is the primitive array. Primitives also implements
+     * the List interface for the equivalent boxed type, which can effectively make a primitive
+     * array generic. However, using the List methods has an overhead due to boxing of primitives,
+     * so is generally preferable to directly access the array.
+     * It is possible to make an array of boxes, but arrays of primitives take less memory.
+     * There will be considerable overhead in converting an array of primitives to an array
+     * of objects (because they must be boxed element-by element), but wrapping an entire primitive
+     * array in the Primitives class is trivial. The valueOf methods store the reference to the
+     * array; the array is not copied; changes write through.
+     * <p/>
+     * The view holds the first length elements of the array. That is the whole array, except in
+     * the view() of an IntList, LongList or DoubleList, where _ is the list's backing array and
+     * may be longer, with spare capacity past length.
+     * <p/>
+     * A Primitives may also wrap a Buffer, such as a direct or memory-mapped one, to keep large
+     * tables off the Java heap. Then the public field is the Buffer, and the List view and bulk
+     * methods work on it the same way.
+     *
+     * @param <A>
+     * @param <E>
+     */
+    public static final class Primitives<A, E> extends AbstractList<E> implements RandomAccess {
+        /**
+         * The primitive array, or Buffer, holding the elements in [0, length).
+         */
+        public final A _;
+        /**
+         * The number of elements, which may be less than the length of _.
+         */
+        public final int length;
+
+        private final Strategy<A, E> strategy;
+
+        // equality and hashing consistent with the boxed equals and hashCode.
+        private static boolean same(final float a, final float b) {
+            return Float.floatToIntBits(a) == Float.floatToIntBits(b);
+        }
+
+        private static boolean same(final double a, final double b) {
+            return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+        }
+
+        private static int hashOf(final long x) {
+            return (int) (x ^ (x >>> 32));
+        }
+
+        private static int hashOf(final double x) {
+            return hashOf(Double.doubleToLongBits(x));
+        }
+
+        /**
+         * Type-specific operations on a range [from, to) of the backing array. Each works on
+         * the primitives directly, boxing at most the one argument or result.
+         */
+        private static abstract class Strategy<A, E> {
+            int length(final A a) {
+                return Array.getLength(a);
+            }
+
+            abstract E get(A a, int i);
+
+            abstract E set(A a, int i, E e);
+
+            abstract void sort(A a, int from, int to);
+
+            abstract int binarySearch(A a, int from, int to, E key);
+
+            abstract void fill(A a, int from, int to, E e);
+
+            abstract A copyRange(A a, int from, int to);
+
+            abstract int indexOf(A a, int from, int to, Object o);
+
+            abstract int lastIndexOf(A a, int from, int to, Object o);
+
+            abstract boolean equals(A a, A b, int length);
+
+            abstract int hashCode(A a, int from, int to);
+
+            abstract E min(A a, int from, int to);
+
+            abstract E max(A a, int from, int to);
+
+            abstract Number sum(A a, int from, int to);
+        }
+
+        private static final Strategy<byte[], Byte> BYTES = new Strategy<byte[], Byte>() {
+            @Override
+            Byte get(final byte[] bytes, final int i) {
+                return bytes[i];
+            }
+
+            @Override
+            Byte set(final byte[] bytes, final int i, final Byte element) {
+                try {
+                    return bytes[i];
+                } finally {
+                    bytes[i] = element;
+                }
+            }
+
+            @Override
+            void sort(final byte[] a, final int from, final int to) {
+                Arrays.sort(a, from, to);
+            }
+
+            @Override
+            int binarySearch(final byte[] a, final int from, final int to, final Byte key) {
+                return Arrays.binarySearch(a, from, to, key);
+            }
+
+            @Override
+            void fill(final byte[] a, final int from, final int to, final Byte element) {
+                Arrays.fill(a, from, to, element);
+            }
+
+            @Override
+            byte[] copyRange(final byte[] a, final int from, final int to) {
+                return Arrays.copyOfRange(a, from, to);
+            }
+
+            @Override
+            int indexOf(final byte[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Byte)) return -1;
+                final byte x = (Byte) o;
+                for (int i = from; i < to; i++) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final byte[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Byte)) return -1;
+                final byte x = (Byte) o;
+                for (int i = to - 1; i >= from; i--) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final byte[] a, final byte[] others, final int length) {
+                for (int i = 0; i < length; i++) if (a[i] != others[i]) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final byte[] a, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + a[i];
+                return h;
+            }
+
+            @Override
+            Byte min(final byte[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                byte m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] < m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Byte max(final byte[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                byte m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] > m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Number sum(final byte[] a, final int from, final int to) {
+                long sum = 0;
+                for (int i = from; i < to; i++) sum += a[i];
+                return sum;
+            }
+        };
+
+        private static final Strategy<short[], Short> SHORTS = new Strategy<short[], Short>() {
+            @Override
+            Short get(final short[] shorts, final int i) {
+                return shorts[i];
+            }
+
+            @Override
+            Short set(final short[] shorts, final int i, final Short element) {
+                try {
+                    return shorts[i];
+                } finally {
+                    shorts[i] = element;
+                }
+            }
+
+            @Override
+            void sort(final short[] a, final int from, final int to) {
+                Arrays.sort(a, from, to);
+            }
+
+            @Override
+            int binarySearch(final short[] a, final int from, final int to, final Short key) {
+                return Arrays.binarySearch(a, from, to, key);
+            }
+
+            @Override
+            void fill(final short[] a, final int from, final int to, final Short element) {
+                Arrays.fill(a, from, to, element);
+            }
+
+            @Override
+            short[] copyRange(final short[] a, final int from, final int to) {
+                return Arrays.copyOfRange(a, from, to);
+            }
+
+            @Override
+            int indexOf(final short[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Short)) return -1;
+                final short x = (Short) o;
+                for (int i = from; i < to; i++) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final short[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Short)) return -1;
+                final short x = (Short) o;
+                for (int i = to - 1; i >= from; i--) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final short[] a, final short[] others, final int length) {
+                for (int i = 0; i < length; i++) if (a[i] != others[i]) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final short[] a, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + a[i];
+                return h;
+            }
+
+            @Override
+            Short min(final short[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                short m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] < m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Short max(final short[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                short m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] > m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Number sum(final short[] a, final int from, final int to) {
+                long sum = 0;
+                for (int i = from; i < to; i++) sum += a[i];
+                return sum;
+            }
+        };
+
+        private static final Strategy<int[], Integer> INTS = new Strategy<int[], Integer>() {
+            @Override
+            Integer get(final int[] ints, final int i) {
+                return ints[i];
+            }
+
+            @Override
+            Integer set(final int[] ints, final int i, final Integer element) {
+                try {
+                    return ints[i];
+                } finally {
+                    ints[i] = element;
+                }
+            }
+
+            @Override
+            void sort(final int[] a, final int from, final int to) {
+                Arrays.sort(a, from, to);
+            }
+
+            @Override
+            int binarySearch(final int[] a, final int from, final int to, final Integer key) {
+                return Arrays.binarySearch(a, from, to, key);
+            }
+
+            @Override
+            void fill(final int[] a, final int from, final int to, final Integer element) {
+                Arrays.fill(a, from, to, element);
+            }
+
+            @Override
+            int[] copyRange(final int[] a, final int from, final int to) {
+                return Arrays.copyOfRange(a, from, to);
+            }
+
+            @Override
+            int indexOf(final int[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Integer)) return -1;
+                final int x = (Integer) o;
+                for (int i = from; i < to; i++) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final int[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Integer)) return -1;
+                final int x = (Integer) o;
+                for (int i = to - 1; i >= from; i--) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final int[] a, final int[] others, final int length) {
+                for (int i = 0; i < length; i++) if (a[i] != others[i]) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final int[] a, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + a[i];
+                return h;
+            }
+
+            @Override
+            Integer min(final int[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                int m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] < m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Integer max(final int[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                int m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] > m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Number sum(final int[] a, final int from, final int to) {
+                long sum = 0;
+                for (int i = from; i < to; i++) sum += a[i];
+                return sum;
+            }
+        };
+
+        private static final Strategy<long[], Long> LONGS = new Strategy<long[], Long>() {
+            @Override
+            Long get(final long[] longs, final int i) {
+                return longs[i];
+            }
+
+            @Override
+            Long set(final long[] longs, final int i, final Long element) {
+                try {
+                    return longs[i];
+                } finally {
+                    longs[i] = element;
+                }
+            }
+
+            @Override
+            void sort(final long[] a, final int from, final int to) {
+                Arrays.sort(a, from, to);
+            }
+
+            @Override
+            int binarySearch(final long[] a, final int from, final int to, final Long key) {
+                return Arrays.binarySearch(a, from, to, key);
+            }
+
+            @Override
+            void fill(final long[] a, final int from, final int to, final Long element) {
+                Arrays.fill(a, from, to, element);
+            }
+
+            @Override
+            long[] copyRange(final long[] a, final int from, final int to) {
+                return Arrays.copyOfRange(a, from, to);
+            }
+
+            @Override
+            int indexOf(final long[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Long)) return -1;
+                final long x = (Long) o;
+                for (int i = from; i < to; i++) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final long[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Long)) return -1;
+                final long x = (Long) o;
+                for (int i = to - 1; i >= from; i--) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final long[] a, final long[] others, final int length) {
+                for (int i = 0; i < length; i++) if (a[i] != others[i]) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final long[] a, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + hashOf(a[i]);
+                return h;
+            }
+
+            @Override
+            Long min(final long[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                long m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] < m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Long max(final long[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                long m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] > m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Number sum(final long[] a, final int from, final int to) {
+                long sum = 0;
+                for (int i = from; i < to; i++) sum += a[i];
+                return sum;
+            }
+        };
+
+        private static final Strategy<float[], Float> FLOATS = new Strategy<float[], Float>() {
+            @Override
+            Float get(final float[] floats, final int i) {
+                return floats[i];
+            }
+
+            @Override
+            Float set(final float[] floats, final int i, final Float element) {
+                try {
+                    return floats[i];
+                } finally {
+                    floats[i] = element;
+                }
+            }
+
+            @Override
+            void sort(final float[] a, final int from, final int to) {
+                Arrays.sort(a, from, to);
+            }
+
+            @Override
+            int binarySearch(final float[] a, final int from, final int to, final Float key) {
+                return Arrays.binarySearch(a, from, to, key);
+            }
+
+            @Override
+            void fill(final float[] a, final int from, final int to, final Float element) {
+                Arrays.fill(a, from, to, element);
+            }
+
+            @Override
+            float[] copyRange(final float[] a, final int from, final int to) {
+                return Arrays.copyOfRange(a, from, to);
+            }
+
+            @Override
+            int indexOf(final float[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Float)) return -1;
+                final float x = (Float) o;
+                for (int i = from; i < to; i++) if (same(a[i], x)) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final float[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Float)) return -1;
+                final float x = (Float) o;
+                for (int i = to - 1; i >= from; i--) if (same(a[i], x)) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final float[] a, final float[] others, final int length) {
+                for (int i = 0; i < length; i++) if (!same(a[i], others[i])) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final float[] a, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + Float.floatToIntBits(a[i]);
+                return h;
+            }
+
+            @Override
+            Float min(final float[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                float m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (Float.compare(a[i], m) < 0) m = a[i];
+                return m;
+            }
+
+            @Override
+            Float max(final float[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                float m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (Float.compare(a[i], m) > 0) m = a[i];
+                return m;
+            }
+
+            @Override
+            Number sum(final float[] a, final int from, final int to) {
+                double sum = 0;
+                for (int i = from; i < to; i++) sum += a[i];
+                return sum;
+            }
+        };
+
+        private static final Strategy<double[], Double> DOUBLES = new Strategy<double[], Double>() {
+            @Override
+            Double get(final double[] doubles, final int i) {
+                return doubles[i];
+            }
+
+            @Override
+            Double set(final double[] doubles, final int i, final Double element) {
+                try {
+                    return doubles[i];
+                } finally {
+                    doubles[i] = element;
+                }
+            }
+
+            @Override
+            void sort(final double[] a, final int from, final int to) {
+                Arrays.sort(a, from, to);
+            }
+
+            @Override
+            int binarySearch(final double[] a, final int from, final int to, final Double key) {
+                return Arrays.binarySearch(a, from, to, key);
+            }
+
+            @Override
+            void fill(final double[] a, final int from, final int to, final Double element) {
+                Arrays.fill(a, from, to, element);
+            }
+
+            @Override
+            double[] copyRange(final double[] a, final int from, final int to) {
+                return Arrays.copyOfRange(a, from, to);
+            }
+
+            @Override
+            int indexOf(final double[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Double)) return -1;
+                final double x = (Double) o;
+                for (int i = from; i < to; i++) if (same(a[i], x)) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final double[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Double)) return -1;
+                final double x = (Double) o;
+                for (int i = to - 1; i >= from; i--) if (same(a[i], x)) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final double[] a, final double[] others, final int length) {
+                for (int i = 0; i < length; i++) if (!same(a[i], others[i])) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final double[] a, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + hashOf(a[i]);
+                return h;
+            }
+
+            @Override
+            Double min(final double[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                double m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (Double.compare(a[i], m) < 0) m = a[i];
+                return m;
+            }
+
+            @Override
+            Double max(final double[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                double m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (Double.compare(a[i], m) > 0) m = a[i];
+                return m;
+            }
+
+            @Override
+            Number sum(final double[] a, final int from, final int to) {
+                double sum = 0;
+                for (int i = from; i < to; i++) sum += a[i];
+                return sum;
+            }
+        };
+
+        private static final Strategy<char[], Character> CHARS = new Strategy<char[], Character>() {
+            @Override
+            Character get(final char[] chars, final int i) {
+                return chars[i];
+            }
+
+            @Override
+            Character set(final char[] chars, final int i, final Character element) {
+                try {
+                    return chars[i];
+                } finally {
+                    chars[i] = element;
+                }
+            }
+
+            @Override
+            void sort(final char[] a, final int from, final int to) {
+                Arrays.sort(a, from, to);
+            }
+
+            @Override
+            int binarySearch(final char[] a, final int from, final int to, final Character key) {
+                return Arrays.binarySearch(a, from, to, key);
+            }
+
+            @Override
+            void fill(final char[] a, final int from, final int to, final Character element) {
+                Arrays.fill(a, from, to, element);
+            }
+
+            @Override
+            char[] copyRange(final char[] a, final int from, final int to) {
+                return Arrays.copyOfRange(a, from, to);
+            }
+
+            @Override
+            int indexOf(final char[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Character)) return -1;
+                final char x = (Character) o;
+                for (int i = from; i < to; i++) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final char[] a, final int from, final int to, final Object o) {
+                if (!(o instanceof Character)) return -1;
+                final char x = (Character) o;
+                for (int i = to - 1; i >= from; i--) if (a[i] == x) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final char[] a, final char[] others, final int length) {
+                for (int i = 0; i < length; i++) if (a[i] != others[i]) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final char[] a, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + a[i];
+                return h;
+            }
+
+            @Override
+            Character min(final char[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                char m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] < m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Character max(final char[] a, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                char m = a[from];
+                for (int i = from + 1; i < to; i++)
+                    if (a[i] > m) m = a[i];
+                return m;
+            }
+
+            @Override
+            Number sum(final char[] a, final int from, final int to) {
+                long sum = 0;
+                for (int i = from; i < to; i++) sum += a[i];
+                return sum;
+            }
+        };
+
+        private static final Strategy<boolean[], Boolean> BOOLEANS =
+                new Strategy<boolean[], Boolean>() {
+                    @Override
+                    Boolean get(final boolean[] booleans, final int i) {
+                        return booleans[i];
+                    }
+
+                    @Override
+                    Boolean set(final boolean[] booleans, final int i, final Boolean element) {
+                        try {
+                            return booleans[i];
+                        } finally {
+                            booleans[i] = element;
+                        }
+                    }
+
+                    @Override
+                    void sort(final boolean[] a, final int from, final int to) {
+                        int falses = 0;
+                        for (int i = from; i < to; i++) if (!a[i]) falses++;
+                        Arrays.fill(a, from, from + falses, false);
+                        Arrays.fill(a, from + falses, to, true);
+                    }
+
+                    @Override
+                    int binarySearch(
+                            final boolean[] a, final int from, final int to, final Boolean key) {
+                        int lo = from;
+                        int hi = to - 1;
+                        while (lo <= hi) {
+                            final int mid = (lo + hi) >>> 1;
+                            // false comes before true.
+                            if (a[mid] == key) return mid;
+                            if (key) lo = mid + 1;
+                            else hi = mid - 1;
+                        }
+                        return -(lo + 1);
+                    }
+
+                    @Override
+                    void fill(
+                            final boolean[] a, final int from, final int to,
+                            final Boolean element) {
+                        Arrays.fill(a, from, to, element);
+                    }
+
+                    @Override
+                    boolean[] copyRange(final boolean[] a, final int from, final int to) {
+                        return Arrays.copyOfRange(a, from, to);
+                    }
+
+                    @Override
+                    int indexOf(final boolean[] a, final int from, final int to, final Object o) {
+                        if (!(o instanceof Boolean)) return -1;
+                        final boolean x = (Boolean) o;
+                        for (int i = from; i < to; i++) if (a[i] == x) return i;
+                        return -1;
+                    }
+
+                    @Override
+                    int lastIndexOf(
+                            final boolean[] a, final int from, final int to, final Object o) {
+                        if (!(o instanceof Boolean)) return -1;
+                        final boolean x = (Boolean) o;
+                        for (int i = to - 1; i >= from; i--) if (a[i] == x) return i;
+                        return -1;
+                    }
+
+                    @Override
+                    boolean equals(final boolean[] a, final boolean[] others, final int length) {
+                        for (int i = 0; i < length; i++) if (a[i] != others[i]) return false;
+                        return true;
+                    }
+
+                    @Override
+                    int hashCode(final boolean[] a, final int from, final int to) {
+                        int h = 1;
+                        for (int i = from; i < to; i++) h = 31 * h + (a[i] ? 1231 : 1237);
+                        return h;
+                    }
+
+                    @Override
+                    Boolean min(final boolean[] a, final int from, final int to) {
+                        if (from >= to) throw new NoSuchElementException();
+                        boolean m = a[from];
+                        for (int i = from + 1; i < to; i++)
+                            if (m && !a[i]) m = false;
+                        return m;
+                    }
+
+                    @Override
+                    Boolean max(final boolean[] a, final int from, final int to) {
+                        if (from >= to) throw new NoSuchElementException();
+                        boolean m = a[from];
+                        for (int i = from + 1; i < to; i++)
+                            if (!m && a[i]) m = true;
+                        return m;
+                    }
+
+                    @Override
+                    Number sum(final boolean[] a, final int from, final int to) {
+                        throw new UnsupportedOperationException("sum of booleans");
+                    }
+                };
+
+        private static final Strategy<ByteBuffer, Byte> BYTE_BUFFER =
+                new Strategy<ByteBuffer, Byte>() {
+            @Override
+            int length(final ByteBuffer b) {
+                return b.limit();
+            }
+
+            @Override
+            Byte get(final ByteBuffer b, final int i) {
+                return b.get(i);
+            }
+
+            @Override
+            Byte set(final ByteBuffer b, final int i, final Byte element) {
+                try {
+                    return b.get(i);
+                } finally {
+                    b.put(i, element);
+                }
+            }
+
+            @Override
+            void sort(final ByteBuffer b, final int from, final int to) {
+                // buffers can't be sorted in place, so sort a copy and write it back.
+                final byte[] a = new byte[to - from];
+                final ByteBuffer d = b.duplicate();
+                d.position(from);
+                d.get(a);
+                Arrays.sort(a);
+                d.position(from);
+                d.put(a);
+            }
+
+            @Override
+            int binarySearch(final ByteBuffer b, final int from, final int to, final Byte key) {
+                int lo = from;
+                int hi = to - 1;
+                while (lo <= hi) {
+                    final int mid = (lo + hi) >>> 1;
+                    final byte x = b.get(mid);
+                    if (x < key) lo = mid + 1;
+                    else if (x > key) hi = mid - 1;
+                    else return mid;
+                }
+                return -(lo + 1);
+            }
+
+            @Override
+            void fill(final ByteBuffer b, final int from, final int to, final Byte element) {
+                final byte x = element;
+                for (int i = from; i < to; i++) b.put(i, x);
+            }
+
+            @Override
+            ByteBuffer copyRange(final ByteBuffer b, final int from, final int to) {
+                final ByteBuffer d = b.duplicate();
+                d.limit(to);
+                d.position(from);
+                final ByteBuffer out = ByteBuffer.allocate(to - from);
+                out.put(d);
+                out.clear();
+                return out;
+            }
+
+            @Override
+            int indexOf(final ByteBuffer b, final int from, final int to, final Object o) {
+                if (!(o instanceof Byte)) return -1;
+                final byte x = (Byte) o;
+                for (int i = from; i < to; i++) if (b.get(i) == x) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final ByteBuffer b, final int from, final int to, final Object o) {
+                if (!(o instanceof Byte)) return -1;
+                final byte x = (Byte) o;
+                for (int i = to - 1; i >= from; i--) if (b.get(i) == x) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final ByteBuffer b, final ByteBuffer others, final int length) {
+                for (int i = 0; i < length; i++) if (b.get(i) != others.get(i)) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final ByteBuffer b, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + b.get(i);
+                return h;
+            }
+
+            @Override
+            Byte min(final ByteBuffer b, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                byte m = b.get(from);
+                for (int i = from + 1; i < to; i++)
+                    if (b.get(i) < m) m = b.get(i);
+                return m;
+            }
+
+            @Override
+            Byte max(final ByteBuffer b, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                byte m = b.get(from);
+                for (int i = from + 1; i < to; i++)
+                    if (b.get(i) > m) m = b.get(i);
+                return m;
+            }
+
+            @Override
+            Number sum(final ByteBuffer b, final int from, final int to) {
+                long sum = 0;
+                for (int i = from; i < to; i++) sum += b.get(i);
+                return sum;
+            }
+        };
+
+        private static final Strategy<IntBuffer, Integer> INT_BUFFER =
+                new Strategy<IntBuffer, Integer>() {
             @Override
-            Byte get(final byte[] bytes, final int i) {
-                return bytes[i];
+            int length(final IntBuffer b) {
+                return b.limit();
             }
 
             @Override
-            Byte set(final byte[] bytes, final int i, final Byte element) {
+            Integer get(final IntBuffer b, final int i) {
+                return b.get(i);
+            }
+
+            @Override
+            Integer set(final IntBuffer b, final int i, final Integer element) {
                 try {
-                    return bytes[i];
+                    return b.get(i);
                 } finally {
-                    bytes[i] = element;
+                    b.put(i, element);
                 }
             }
-        };
 
-        private static final Strategy<short[], Short> SHORTS = new Strategy<short[], Short>() {
             @Override
-            Short get(final short[] shorts, final int i) {
-                return shorts[i];
+            void sort(final IntBuffer b, final int from, final int to) {
+                // buffers can't be sorted in place, so sort a copy and write it back.
+                final int[] a = new int[to - from];
+                final IntBuffer d = b.duplicate();
+                d.position(from);
+                d.get(a);
+                Arrays.sort(a);
+                d.position(from);
+                d.put(a);
             }
 
             @Override
-            Short set(final short[] shorts, final int i, final Short element) {
-                try {
-                    return shorts[i];
-                } finally {
-                    shorts[i] = element;
+            int binarySearch(final IntBuffer b, final int from, final int to, final Integer key) {
+                int lo = from;
+                int hi = to - 1;
+                while (lo <= hi) {
+                    final int mid = (lo + hi) >>> 1;
+                    final int x = b.get(mid);
+                    if (x < key) lo = mid + 1;
+                    else if (x > key) hi = mid - 1;
+                    else return mid;
                 }
+                return -(lo + 1);
             }
-        };
 
-        private static final Strategy<int[], Integer> INTS = new Strategy<int[], Integer>() {
             @Override
-            Integer get(final int[] ints, final int i) {
-                return ints[i];
+            void fill(final IntBuffer b, final int from, final int to, final Integer element) {
+                final int x = element;
+                for (int i = from; i < to; i++) b.put(i, x);
             }
 
             @Override
-            Integer set(final int[] ints, final int i, final Integer element) {
-                try {
-                    return ints[i];
-                } finally {
-                    ints[i] = element;
-                }
+            IntBuffer copyRange(final IntBuffer b, final int from, final int to) {
+                final IntBuffer d = b.duplicate();
+                d.limit(to);
+                d.position(from);
+                final IntBuffer out = IntBuffer.allocate(to - from);
+                out.put(d);
+                out.clear();
+                return out;
+            }
+
+            @Override
+            int indexOf(final IntBuffer b, final int from, final int to, final Object o) {
+                if (!(o instanceof Integer)) return -1;
+                final int x = (Integer) o;
+                for (int i = from; i < to; i++) if (b.get(i) == x) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final IntBuffer b, final int from, final int to, final Object o) {
+                if (!(o instanceof Integer)) return -1;
+                final int x = (Integer) o;
+                for (int i = to - 1; i >= from; i--) if (b.get(i) == x) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final IntBuffer b, final IntBuffer others, final int length) {
+                for (int i = 0; i < length; i++) if (b.get(i) != others.get(i)) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final IntBuffer b, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + b.get(i);
+                return h;
+            }
+
+            @Override
+            Integer min(final IntBuffer b, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                int m = b.get(from);
+                for (int i = from + 1; i < to; i++)
+                    if (b.get(i) < m) m = b.get(i);
+                return m;
+            }
+
+            @Override
+            Integer max(final IntBuffer b, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                int m = b.get(from);
+                for (int i = from + 1; i < to; i++)
+                    if (b.get(i) > m) m = b.get(i);
+                return m;
+            }
+
+            @Override
+            Number sum(final IntBuffer b, final int from, final int to) {
+                long sum = 0;
+                for (int i = from; i < to; i++) sum += b.get(i);
+                return sum;
             }
         };
 
-        private static final Strategy<long[], Long> LONGS = new Strategy<long[], Long>() {
+        private static final Strategy<LongBuffer, Long> LONG_BUFFER =
+                new Strategy<LongBuffer, Long>() {
             @Override
-            Long get(final long[] longs, final int i) {
-                return longs[i];
+            int length(final LongBuffer b) {
+                return b.limit();
             }
 
             @Override
-            Long set(final long[] longs, final int i, final Long element) {
+            Long get(final LongBuffer b, final int i) {
+                return b.get(i);
+            }
+
+            @Override
+            Long set(final LongBuffer b, final int i, final Long element) {
                 try {
-                    return longs[i];
+                    return b.get(i);
                 } finally {
-                    longs[i] = element;
+                    b.put(i, element);
                 }
             }
-        };
 
-        private static final Strategy<float[], Float> FLOATS = new Strategy<float[], Float>() {
             @Override
-            Float get(final float[] floats, final int i) {
-                return floats[i];
+            void sort(final LongBuffer b, final int from, final int to) {
+                // buffers can't be sorted in place, so sort a copy and write it back.
+                final long[] a = new long[to - from];
+                final LongBuffer d = b.duplicate();
+                d.position(from);
+                d.get(a);
+                Arrays.sort(a);
+                d.position(from);
+                d.put(a);
             }
 
             @Override
-            Float set(final float[] floats, final int i, final Float element) {
-                try {
-                    return floats[i];
-                } finally {
-                    floats[i] = element;
+            int binarySearch(final LongBuffer b, final int from, final int to, final Long key) {
+                int lo = from;
+                int hi = to - 1;
+                while (lo <= hi) {
+                    final int mid = (lo + hi) >>> 1;
+                    final long x = b.get(mid);
+                    if (x < key) lo = mid + 1;
+                    else if (x > key) hi = mid - 1;
+                    else return mid;
                 }
+                return -(lo + 1);
+            }
+
+            @Override
+            void fill(final LongBuffer b, final int from, final int to, final Long element) {
+                final long x = element;
+                for (int i = from; i < to; i++) b.put(i, x);
+            }
+
+            @Override
+            LongBuffer copyRange(final LongBuffer b, final int from, final int to) {
+                final LongBuffer d = b.duplicate();
+                d.limit(to);
+                d.position(from);
+                final LongBuffer out = LongBuffer.allocate(to - from);
+                out.put(d);
+                out.clear();
+                return out;
+            }
+
+            @Override
+            int indexOf(final LongBuffer b, final int from, final int to, final Object o) {
+                if (!(o instanceof Long)) return -1;
+                final long x = (Long) o;
+                for (int i = from; i < to; i++) if (b.get(i) == x) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final LongBuffer b, final int from, final int to, final Object o) {
+                if (!(o instanceof Long)) return -1;
+                final long x = (Long) o;
+                for (int i = to - 1; i >= from; i--) if (b.get(i) == x) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final LongBuffer b, final LongBuffer others, final int length) {
+                for (int i = 0; i < length; i++) if (b.get(i) != others.get(i)) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final LongBuffer b, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + hashOf(b.get(i));
+                return h;
+            }
+
+            @Override
+            Long min(final LongBuffer b, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                long m = b.get(from);
+                for (int i = from + 1; i < to; i++)
+                    if (b.get(i) < m) m = b.get(i);
+                return m;
+            }
+
+            @Override
+            Long max(final LongBuffer b, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                long m = b.get(from);
+                for (int i = from + 1; i < to; i++)
+                    if (b.get(i) > m) m = b.get(i);
+                return m;
+            }
+
+            @Override
+            Number sum(final LongBuffer b, final int from, final int to) {
+                long sum = 0;
+                for (int i = from; i < to; i++) sum += b.get(i);
+                return sum;
             }
         };
 
-        private static final Strategy<double[], Double> DOUBLES = new Strategy<double[], Double>() {
+        private static final Strategy<DoubleBuffer, Double> DOUBLE_BUFFER =
+                new Strategy<DoubleBuffer, Double>() {
             @Override
-            Double get(final double[] doubles, final int i) {
-                return doubles[i];
+            int length(final DoubleBuffer b) {
+                return b.limit();
             }
 
             @Override
-            Double set(final double[] doubles, final int i, final Double element) {
+            Double get(final DoubleBuffer b, final int i) {
+                return b.get(i);
+            }
+
+            @Override
+            Double set(final DoubleBuffer b, final int i, final Double element) {
                 try {
-                    return doubles[i];
+                    return b.get(i);
                 } finally {
-                    doubles[i] = element;
+                    b.put(i, element);
                 }
             }
-        };
 
-        private static final Strategy<char[], Character> CHARS = new Strategy<char[], Character>() {
             @Override
-            Character get(final char[] chars, final int i) {
-                return chars[i];
+            void sort(final DoubleBuffer b, final int from, final int to) {
+                // buffers can't be sorted in place, so sort a copy and write it back.
+                final double[] a = new double[to - from];
+                final DoubleBuffer d = b.duplicate();
+                d.position(from);
+                d.get(a);
+                Arrays.sort(a);
+                d.position(from);
+                d.put(a);
             }
 
             @Override
-            Character set(final char[] chars, final int i, final Character element) {
-                try {
-                    return chars[i];
-                } finally {
-                    chars[i] = element;
+            int binarySearch(final DoubleBuffer b, final int from, final int to, final Double key) {
+                int lo = from;
+                int hi = to - 1;
+                while (lo <= hi) {
+                    final int mid = (lo + hi) >>> 1;
+                    final int c = Double.compare(b.get(mid), key);
+                    if (c < 0) lo = mid + 1;
+                    else if (c > 0) hi = mid - 1;
+                    else return mid;
                 }
+                return -(lo + 1);
             }
-        };
 
-        private static final Strategy<boolean[], Boolean> BOOLEANS =
-                new Strategy<boolean[], Boolean>() {
-                    @Override
-                    Boolean get(final boolean[] booleans, final int i) {
-                        return booleans[i];
-                    }
+            @Override
+            void fill(final DoubleBuffer b, final int from, final int to, final Double element) {
+                final double x = element;
+                for (int i = from; i < to; i++) b.put(i, x);
+            }
 
-                    @Override
-                    Boolean set(final boolean[] booleans, final int i, final Boolean element) {
-                        try {
-                            return booleans[i];
-                        } finally {
-                            booleans[i] = element;
-                        }
-                    }
-                };
+            @Override
+            DoubleBuffer copyRange(final DoubleBuffer b, final int from, final int to) {
+                final DoubleBuffer d = b.duplicate();
+                d.limit(to);
+                d.position(from);
+                final DoubleBuffer out = DoubleBuffer.allocate(to - from);
+                out.put(d);
+                out.clear();
+                return out;
+            }
+
+            @Override
+            int indexOf(final DoubleBuffer b, final int from, final int to, final Object o) {
+                if (!(o instanceof Double)) return -1;
+                final double x = (Double) o;
+                for (int i = from; i < to; i++) if (same(b.get(i), x)) return i;
+                return -1;
+            }
+
+            @Override
+            int lastIndexOf(final DoubleBuffer b, final int from, final int to, final Object o) {
+                if (!(o instanceof Double)) return -1;
+                final double x = (Double) o;
+                for (int i = to - 1; i >= from; i--) if (same(b.get(i), x)) return i;
+                return -1;
+            }
+
+            @Override
+            boolean equals(final DoubleBuffer b, final DoubleBuffer others, final int length) {
+                for (int i = 0; i < length; i++) if (!same(b.get(i), others.get(i))) return false;
+                return true;
+            }
+
+            @Override
+            int hashCode(final DoubleBuffer b, final int from, final int to) {
+                int h = 1;
+                for (int i = from; i < to; i++) h = 31 * h + hashOf(b.get(i));
+                return h;
+            }
+
+            @Override
+            Double min(final DoubleBuffer b, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                double m = b.get(from);
+                for (int i = from + 1; i < to; i++)
+                    if (Double.compare(b.get(i), m) < 0) m = b.get(i);
+                return m;
+            }
+
+            @Override
+            Double max(final DoubleBuffer b, final int from, final int to) {
+                if (from >= to) throw new NoSuchElementException();
+                double m = b.get(from);
+                for (int i = from + 1; i < to; i++)
+                    if (Double.compare(b.get(i), m) > 0) m = b.get(i);
+                return m;
+            }
+
+            @Override
+            Number sum(final DoubleBuffer b, final int from, final int to) {
+                double sum = 0;
+                for (int i = from; i < to; i++) sum += b.get(i);
+                return sum;
+            }
+        };
 
         // Constructor is private. Use the static methods to wrap an array.
         private Primitives(final A array, final Strategy<A, E> s) {
-            length = Array.getLength(array);
+            this(array, s.length(array), s);
+        }
+
+        // A view of the first length elements only, for the growable lists.
+        private Primitives(final A array, final int length, final Strategy<A, E> s) {
+            this.length = length;
             _ = array;
             this.strategy = s;
         }
@@ -1171,10 +3009,95 @@ public final class Literal {
             return new Primitives<boolean[], Boolean>(array, BOOLEANS);
         }
 
+        // Buffer overloads. Indices are absolute, from 0 to the limit of the buffer. The buffer
+        // may be direct or memory-mapped, keeping the data off the Java heap.
+
+        public static Primitives<ByteBuffer, Byte> valueOf(final ByteBuffer buffer) {
+            return new Primitives<ByteBuffer, Byte>(buffer, BYTE_BUFFER);
+        }
+
+        public static Primitives<IntBuffer, Integer> valueOf(final IntBuffer buffer) {
+            return new Primitives<IntBuffer, Integer>(buffer, INT_BUFFER);
+        }
+
+        public static Primitives<LongBuffer, Long> valueOf(final LongBuffer buffer) {
+            return new Primitives<LongBuffer, Long>(buffer, LONG_BUFFER);
+        }
+
+        public static Primitives<DoubleBuffer, Double> valueOf(final DoubleBuffer buffer) {
+            return new Primitives<DoubleBuffer, Double>(buffer, DOUBLE_BUFFER);
+        }
+
+        /**
+         * Maps a region of a file into memory, without copying. Changes write through to the
+         * file if the channel is writable. A single mapping is limited to Integer.MAX_VALUE
+         * bytes.
+         *
+         * @param channel the file
+         * @param offset  the first byte of the region
+         * @param length  the number of bytes in the region
+         * @return the bytes of the region
+         * @throws IOException from mapping the file
+         */
+        public static Primitives<ByteBuffer, Byte> valueOf(
+                final FileChannel channel, final long offset, final long length)
+                throws IOException {
+            return valueOf(map(channel, offset, length));
+        }
+
+        /**
+         * Maps a region of a file as ints, without copying.
+         *
+         * @param channel the file
+         * @param offset  the first byte of the region
+         * @param count   the number of ints in the region
+         * @param order   the byte order of the ints in the file
+         * @return the ints of the region
+         * @throws IOException from mapping the file
+         */
+        public static Primitives<IntBuffer, Integer> mapInts(
+                final FileChannel channel, final long offset, final int count,
+                final ByteOrder order) throws IOException {
+            return valueOf(map(channel, offset, 4L * count).order(order).asIntBuffer());
+        }
+
+        /**
+         * Maps a region of a file as longs, without copying.
+         *
+         * @see #mapInts(FileChannel, long, int, ByteOrder)
+         */
+        public static Primitives<LongBuffer, Long> mapLongs(
+                final FileChannel channel, final long offset, final int count,
+                final ByteOrder order) throws IOException {
+            return valueOf(map(channel, offset, 8L * count).order(order).asLongBuffer());
+        }
+
+        /**
+         * Maps a region of a file as doubles, without copying.
+         *
+         * @see #mapInts(FileChannel, long, int, ByteOrder)
+         */
+        public static Primitives<DoubleBuffer, Double> mapDoubles(
+                final FileChannel channel, final long offset, final int count,
+                final ByteOrder order) throws IOException {
+            return valueOf(map(channel, offset, 8L * count).order(order).asDoubleBuffer());
+        }
+
+        private static MappedByteBuffer map(
+                final FileChannel channel, final long offset, final long length)
+                throws IOException {
+            try {
+                return channel.map(FileChannel.MapMode.READ_WRITE, offset, length);
+            } catch (final NonWritableChannelException e) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            }
+        }
+
         // AbstractList methods
 
         @Override
         public E get(final int i) {
+            checkIndex(i, length);
             return strategy.get(_, i);
         }
 
@@ -1185,7 +3108,138 @@ public final class Literal {
 
         @Override
         public E set(final int i, final E e) {
+            checkIndex(i, length);
             return strategy.set(_, i, e);
         }
+
+        /**
+         * Compares the primitives directly, if o is a Primitives of the same type.
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean equals(final Object o) {
+            if (o == this) return true;
+            if (!(o instanceof Primitives) || ((Primitives<?, ?>) o).strategy != strategy)
+                return super.equals(o);
+            final Primitives<A, E> that = (Primitives<A, E>) o;
+            return length == that.length && strategy.equals(_, that._, length);
+        }
+
+        /**
+         * Same as the List hashCode, without boxing.
+         */
+        @Override
+        public int hashCode() {
+            return strategy.hashCode(_, 0, length);
+        }
+
+        @Override
+        public int indexOf(final Object o) {
+            return strategy.indexOf(_, 0, length, o);
+        }
+
+        @Override
+        public int lastIndexOf(final Object o) {
+            return strategy.lastIndexOf(_, 0, length, o);
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public Object[] toArray() {
+            final Object[] out = new Object[length];
+            for (int i = 0; i < length; i++) out[i] = strategy.get(_, i);
+            return out;
+        }
+
+        // bulk methods
+
+        /**
+         * Sorts the backing array in ascending order. Booleans sort false first.
+         */
+        public void sort() {
+            strategy.sort(_, 0, length);
+        }
+
+        /**
+         * Sorts the elements from index from (inclusive) to to (exclusive).
+         */
+        public void sort(final int from, final int to) {
+            checkRange(from, to);
+            strategy.sort(_, from, to);
+        }
+
+        /**
+         * Searches a sorted Primitives for key.
+         *
+         * @return the index of key, or (-(insertion point) - 1) if it isn't there.
+         * @see Arrays#binarySearch(int[], int)
+         */
+        public int binarySearch(final E key) {
+            return strategy.binarySearch(_, 0, length, key);
+        }
+
+        public int binarySearch(final int from, final int to, final E key) {
+            checkRange(from, to);
+            return strategy.binarySearch(_, from, to, key);
+        }
+
+        public void fill(final E e) {
+            strategy.fill(_, 0, length, e);
+        }
+
+        public void fill(final int from, final int to, final E e) {
+            checkRange(from, to);
+            strategy.fill(_, from, to, e);
+        }
+
+        /**
+         * @return a copy of the backing array.
+         */
+        public A copy() {
+            return strategy.copyRange(_, 0, length);
+        }
+
+        /**
+         * @return a new array of the elements from index from (inclusive) to to (exclusive).
+         */
+        public A copyRange(final int from, final int to) {
+            checkRange(from, to);
+            return strategy.copyRange(_, from, to);
+        }
+
+        /**
+         * @return the least element, in the order of sort().
+         * @throws NoSuchElementException if empty
+         */
+        public E min() {
+            return strategy.min(_, 0, length);
+        }
+
+        /**
+         * @return the greatest element, in the order of sort().
+         * @throws NoSuchElementException if empty
+         */
+        public E max() {
+            return strategy.max(_, 0, length);
+        }
+
+        /**
+         * @return the total, as a Long for integral types and chars, or a Double for float
+         * types.
+         * @throws UnsupportedOperationException for booleans
+         */
+        public Number sum() {
+            return strategy.sum(_, 0, length);
+        }
+
+        private void checkRange(final int from, final int to) {
+            if (from < 0 || to > length || from > to)
+                throw new IndexOutOfBoundsException(
+                        "from: " + from + ", to: " + to + ", Size: " + length);
+        }
     }
 }
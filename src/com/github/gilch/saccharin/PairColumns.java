@@ -0,0 +1,316 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.github.gilch.saccharin;
+
+import com.github.gilch.saccharin.Literal.DoubleList;
+import com.github.gilch.saccharin.Literal.IntList;
+import com.github.gilch.saccharin.Literal.LongList;
+import com.github.gilch.saccharin.Literal._;
+import com.github.gilch.saccharin.Literal._A;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.RandomAccess;
+
+import static com.github.gilch.saccharin.BuiltIn.in;
+
+/**
+ * A list of pairs stored as two columns, one of heads and one of tails, instead of as cons
+ * cells. A column of ints, longs or doubles is a primitive array, so a pair costs only its
+ * two values: 12 bytes for an int and a double, against about 70 for a _A of _(Integer,
+ * Double) cells on a 64-bit JVM. The cells of the List view are made only as they are read.
+ * <p/>
+ * The columns are public, like the backing map of _X, for bulk numeric work that never
+ * boxes. After adding to them directly, make sure both are the same size again.
+ * <p/>
+ * <code>
+ * PairColumns.of(INTS, DOUBLES).and(zip(ids, prices)).tails.view().sum()
+ * </code>
+ *
+ * @param <H> head type
+ * @param <T> tail type
+ * @param <A> head column type
+ * @param <B> tail column type
+ */
+public final class PairColumns<H, T, A, B> extends AbstractList<_<H, T>>
+        implements RandomAccess {
+    /**
+     * The heads, in order.
+     */
+    public final A heads;
+    /**
+     * The tails, in order.
+     */
+    public final B tails;
+
+    private final Column<A, H> headColumn;
+    private final Column<B, T> tailColumn;
+
+    private PairColumns(final Column<A, H> headColumn, final Column<B, T> tailColumn) {
+        this.headColumn = headColumn;
+        this.tailColumn = tailColumn;
+        heads = headColumn.create();
+        tails = tailColumn.create();
+    }
+
+    /**
+     * @param heads the kind of column for the heads, such as INTS or objects()
+     * @param tails the kind of column for the tails
+     * @return a new empty PairColumns
+     */
+    public static <H, T, A, B> PairColumns<H, T, A, B> of(
+            final Column<A, H> heads, final Column<B, T> tails) {
+        return new PairColumns<H, T, A, B>(heads, tails);
+    }
+
+    /**
+     * Fake literal chain. Adds another pair.
+     *
+     * @return this
+     */
+    public PairColumns<H, T, A, B> _(final H head, final T tail) {
+        headColumn.check(head);
+        tailColumn.check(tail);//before either column changes.
+        headColumn.add(heads, head);
+        tailColumn.add(tails, tail);
+        return this;
+    }
+
+    /**
+     * Adds all the pairs, such as the output of BuiltIn.zip.
+     *
+     * @param pairs - _(head,tail) cons pairs
+     * @return this
+     */
+    public PairColumns<H, T, A, B> and(
+            final Iterator<? extends _<? extends H, ? extends T>> pairs) {
+        for (final _<? extends H, ? extends T> pair : in(pairs)) _(pair.head, pair.tail);
+        return this;
+    }
+
+    /**
+     * Shrinks both columns to their size.
+     *
+     * @return this
+     */
+    public PairColumns<H, T, A, B> trimToSize() {
+        headColumn.trimToSize(heads);
+        tailColumn.trimToSize(tails);
+        return this;
+    }
+
+    /**
+     * @return a new cell of the pair at i. Changes to the cell don't write through.
+     */
+    @Override
+    public _<H, T> get(final int i) {
+        return Literal._(headColumn.get(heads, i), tailColumn.get(tails, i));
+    }
+
+    @Override
+    public _<H, T> set(final int i, final _<H, T> pair) {
+        final _<H, T> old = get(i);
+        headColumn.check(pair.head);
+        tailColumn.check(pair.tail);
+        headColumn.set(heads, i, pair.head);
+        tailColumn.set(tails, i, pair.tail);
+        return old;
+    }
+
+    @Override
+    public boolean add(final _<H, T> pair) {
+        _(pair.head, pair.tail);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return headColumn.size(heads);
+    }
+
+    /**
+     * How a column is stored. Use INTS, LONGS, DOUBLES or objects().
+     *
+     * @param <C> the column type
+     * @param <E> the element type, boxed
+     */
+    public static abstract class Column<C, E> {
+        Column() {
+            // only the kinds below.
+        }
+
+        abstract C create();
+
+        abstract int size(C c);
+
+        abstract E get(C c, int i);
+
+        abstract void set(C c, int i, E e);
+
+        abstract void add(C c, E e);
+
+        abstract void trimToSize(C c);
+
+        /**
+         * Throws if e can't be stored. A primitive column can't store null.
+         */
+        void check(final E e) {
+            if (e == null) throw new NullPointerException("null in a primitive column");
+        }
+    }
+
+    public static final Column<IntList, Integer> INTS = new Column<IntList, Integer>() {
+        @Override
+        IntList create() {
+            return new IntList();
+        }
+
+        @Override
+        int size(final IntList c) {
+            return c.size();
+        }
+
+        @Override
+        Integer get(final IntList c, final int i) {
+            return c.get(i);
+        }
+
+        @Override
+        void set(final IntList c, final int i, final Integer e) {
+            c.set(i, e);
+        }
+
+        @Override
+        void add(final IntList c, final Integer e) {
+            c._(e);
+        }
+
+        @Override
+        void trimToSize(final IntList c) {
+            c.trimToSize();
+        }
+    };
+
+    public static final Column<LongList, Long> LONGS = new Column<LongList, Long>() {
+        @Override
+        LongList create() {
+            return new LongList();
+        }
+
+        @Override
+        int size(final LongList c) {
+            return c.size();
+        }
+
+        @Override
+        Long get(final LongList c, final int i) {
+            return c.get(i);
+        }
+
+        @Override
+        void set(final LongList c, final int i, final Long e) {
+            c.set(i, e);
+        }
+
+        @Override
+        void add(final LongList c, final Long e) {
+            c._(e);
+        }
+
+        @Override
+        void trimToSize(final LongList c) {
+            c.trimToSize();
+        }
+    };
+
+    public static final Column<DoubleList, Double> DOUBLES = new Column<DoubleList, Double>() {
+        @Override
+        DoubleList create() {
+            return new DoubleList();
+        }
+
+        @Override
+        int size(final DoubleList c) {
+            return c.size();
+        }
+
+        @Override
+        Double get(final DoubleList c, final int i) {
+            return c.get(i);
+        }
+
+        @Override
+        void set(final DoubleList c, final int i, final Double e) {
+            c.set(i, e);
+        }
+
+        @Override
+        void add(final DoubleList c, final Double e) {
+            c._(e);
+        }
+
+        @Override
+        void trimToSize(final DoubleList c) {
+            c.trimToSize();
+        }
+    };
+
+    private static final Column<_A<Object>, Object> OBJECTS = new Column<_A<Object>, Object>() {
+        @Override
+        _A<Object> create() {
+            return new _A<Object>();
+        }
+
+        @Override
+        int size(final _A<Object> c) {
+            return c.size();
+        }
+
+        @Override
+        Object get(final _A<Object> c, final int i) {
+            return c.get(i);
+        }
+
+        @Override
+        void set(final _A<Object> c, final int i, final Object e) {
+            c.set(i, e);
+        }
+
+        @Override
+        void add(final _A<Object> c, final Object e) {
+            c.add(e);
+        }
+
+        @Override
+        void trimToSize(final _A<Object> c) {
+            c.trimToSize();
+        }
+
+        @Override
+        void check(final Object e) {
+            // anything goes.
+        }
+    };
+
+    /**
+     * @return the kind of column for any other type, stored in a _A.
+     */
+    // OBJECTS has no state, and works the same for any element type.
+    @SuppressWarnings("unchecked")
+    public static <E> Column<_A<E>, E> objects() {
+        return (Column<_A<E>, E>) (Column<?, ?>) OBJECTS;
+    }
+}
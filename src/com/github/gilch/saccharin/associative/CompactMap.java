@@ -0,0 +1,148 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.github.gilch.saccharin.associative;
+
+import java.util.*;
+
+/**
+ * An immutable map for hot lookup tables. The keys, values and their precomputed hashes are
+ * kept in flat arrays in the order of the source map, with no entry objects. A map of up to
+ * LINEAR_MAX entries is searched by a linear scan that compares hashes before keys. A larger
+ * one adds an open-addressing index table of ints, at most half full, so misses end quickly.
+ * <p/>
+ * Null keys and values are allowed. The mutating Map methods throw
+ * UnsupportedOperationException.
+ *
+ * @see com.github.gilch.saccharin.Literal._X#compact()
+ */
+public final class CompactMap<K, V> extends AbstractMap<K, V> {
+    /**
+     * The most entries searched linearly.
+     */
+    public static final int LINEAR_MAX = 8;
+
+    private static final Object NULL = new Object();//stands in for a null key
+
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] hashes;
+    private final int[] table;//index + 1 of each entry, or 0 for a free slot. Null if linear.
+    private final int mask;
+
+    private CompactMap(final Map<? extends K, ? extends V> m) {
+        final int n = m.size();
+        keys = new Object[n];
+        values = new Object[n];
+        hashes = new int[n];
+        int i = 0;
+        for (final Entry<? extends K, ? extends V> e : m.entrySet()) {
+            final Object k = e.getKey() == null ? NULL : e.getKey();
+            keys[i] = k;
+            values[i] = e.getValue();
+            hashes[i] = Hashing.mix(k);
+            i++;
+        }
+        if (n <= LINEAR_MAX) {
+            table = null;
+            mask = 0;
+            return;
+        }
+        table = new int[Integer.highestOneBit(n - 1) << 2];
+        mask = table.length - 1;
+        for (int j = 0; j < n; j++) {
+            int slot = hashes[j] & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = j + 1;
+        }
+    }
+
+    /**
+     * @param m the entries to copy, which must not change during the copy
+     * @return an immutable copy of m, or m itself if it is already a CompactMap.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> CompactMap<K, V> copyOf(final Map<? extends K, ? extends V> m) {
+        if (m instanceof CompactMap) return (CompactMap<K, V>) m;
+        return new CompactMap<K, V>(m);
+    }
+
+    // The index of key, or -1.
+    private int indexOf(final Object key) {
+        final Object k = key == null ? NULL : key;
+        final int h = Hashing.mix(k);
+        if (table == null) {
+            for (int i = 0; i < keys.length; i++)
+                if (hashes[i] == h && (keys[i] == k || k.equals(keys[i]))) return i;
+            return -1;
+        }
+        for (int slot = h & mask, j; (j = table[slot] - 1) >= 0; slot = (slot + 1) & mask)
+            if (hashes[j] == h && (keys[j] == k || k.equals(keys[j]))) return j;
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(final Object key) {
+        final int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int i;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < keys.length;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public Entry<K, V> next() {
+                        if (i >= keys.length) throw new NoSuchElementException();
+                        final Object k = keys[i];
+                        return new SimpleImmutableEntry<K, V>(
+                                k == NULL ? null : (K) k, (V) values[i++]);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
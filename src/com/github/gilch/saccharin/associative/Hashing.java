@@ -0,0 +1,68 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.github.gilch.saccharin.associative;
+
+/**
+ * Table sizing and hash spreading shared by the open-addressing maps.
+ */
+final class Hashing {
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private Hashing() {
+        throw new UnsupportedOperationException();
+    }
+
+    // Multiplicative hashing, folded so the low bits used for the index depend on every bit.
+
+    static int mix(final int x) {
+        final int h = x * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(final long x) {
+        final long h = x * 0x9E3779B97F4A7C15L;
+        return mix((int) (h ^ (h >>> 32)));
+    }
+
+    static int mix(final Object o) {
+        return mix(o.hashCode());
+    }
+
+    /**
+     * @return how many entries a table of this capacity holds before it grows, 3/4 of it.
+     */
+    static int maxFill(final int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    /**
+     * @return the smallest power of two capacity that holds expectedSize entries.
+     */
+    static int tableSize(final int expectedSize) {
+        int capacity = 4;
+        while (maxFill(capacity) < expectedSize) {
+            if (capacity == MAX_CAPACITY)
+                throw new IllegalArgumentException("Too many entries: " + expectedSize);
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int grow(final int capacity) {
+        if (capacity == MAX_CAPACITY) throw new IllegalStateException("Map too large");
+        return capacity << 1;
+    }
+}
@@ -0,0 +1,355 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+// Generated by gen/maps.py. Edit the template there, not this file.
+
+package com.github.gilch.saccharin.associative;
+
+import java.util.*;
+
+import static com.github.gilch.saccharin.BuiltIn.eq;
+import static com.github.gilch.saccharin.BuiltIn.hash;
+
+/**
+ * A map from ints to objects, using open addressing with linear probing. The keys and values
+ * live in two parallel arrays, so there are no entry objects, and the primitive methods never
+ * box. Each slot holds only an int and a reference. The table doubles once it is more than
+ * 3/4 full. Removals never shrink it.
+ * <p/>
+ * The Map methods also work, boxing as they go, so Literal._x(Map) can wrap it like any other
+ * map. Iterators are not fail-fast.
+ * <p/>
+ * <code>
+ * IntObjMap.of(1, "one")._(2, "two")
+ * </code>
+ *
+ * @see com.github.gilch.saccharin.Literal#_x(Map)
+ */
+public class IntObjMap<V> extends AbstractMap<Integer, V> {
+    private static final int FREE = 0;
+
+    private int[] keys;
+    private Object[] values;
+    private boolean hasFree;//whether FREE is a key. Its value is kept outside the table.
+    private V freeValue;
+    private int size;
+    private int mask;
+    private int maxFill;
+
+    public IntObjMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize how many entries to make room for before growing
+     */
+    public IntObjMap(final int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + expectedSize);
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    /**
+     * Map fake literal. Chain more pairs with ._(key, value)
+     *
+     * @param key   of the first pair
+     * @param value of the first pair
+     * @return a new map
+     */
+    public static <V> IntObjMap<V> of(final int key, final V value) {
+        return new IntObjMap<V>()._(key, value);
+    }
+
+    /**
+     * Map fake literal chain. Adds another pair to the map.
+     *
+     * @return this
+     */
+    public IntObjMap<V> _(final int key, final V value) {
+        put(key, value);
+        return this;
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        maxFill = Hashing.maxFill(capacity);
+    }
+
+    // The slot holding key, or -(the free slot where it would go) - 1.
+    private int find(final int key) {
+        int i = Hashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != FREE; i = (i + 1) & mask)
+            if (k == key) return i;
+        return -i - 1;
+    }
+
+    private void insert(final int slot, final int key, final V value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+    }
+
+    private void rehash(final int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            final int k = oldKeys[j];
+            if (k == FREE) continue;
+            int i = Hashing.mix(k) & mask;
+            while (keys[i] != FREE) i = (i + 1) & mask;
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+
+    /**
+     * Empties the slot, shifting back the later keys of its run so lookups still find them.
+     *
+     * @return the slot that a key moved into from the start of the table by wrapping around,
+     * or -1 if none did.
+     */
+    private int removeAt(int gap) {
+        int wrapped = -1;
+        size--;
+        for (int j = (gap + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            final int home = Hashing.mix(keys[j]) & mask;
+            if (((j - home) & mask) < ((j - gap) & mask)) continue;//gap is before its home
+            keys[gap] = keys[j];
+            values[gap] = values[j];
+            if (j < gap) wrapped = gap;
+            gap = j;
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+        return wrapped;
+    }
+
+    private V removeFree() {
+        final V old = freeValue;
+        if (hasFree) {
+            hasFree = false;
+            freeValue = null;
+            size--;
+        }
+        return old;
+    }
+
+    public boolean containsKey(final int key) {
+        return key == FREE ? hasFree : find(key) >= 0;
+    }
+
+    /**
+     * @return the value of key, or null if there isn't one.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final int key) {
+        if (key == FREE) return freeValue;
+        final int i = find(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * @return the previous value of key, or null if there wasn't one.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final int key, final V value) {
+        if (key == FREE) {
+            final V old = freeValue;
+            freeValue = value;
+            if (!hasFree) {
+                hasFree = true;
+                size++;
+            }
+            return old;
+        }
+        final int i = find(key);
+        if (i < 0) {
+            insert(-i - 1, key, value);
+            return null;
+        }
+        final V old = (V) values[i];
+        values[i] = value;
+        return old;
+    }
+
+    /**
+     * @return the removed value of key, or null if there wasn't one.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final int key) {
+        if (key == FREE) return removeFree();
+        final int i = find(key);
+        if (i < 0) return null;
+        final V old = (V) values[i];
+        removeAt(i);
+        return old;
+    }
+
+    // Map methods
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        hasFree = false;
+        freeValue = null;
+        size = 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof Integer && containsKey(((Integer) key).intValue());
+    }
+
+    @Override
+    public V get(final Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public V put(final Integer key, final V value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Entry<Integer, V>>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new Slots();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                IntObjMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * An entry in a table slot, or one looked up by key if slot is -1.
+     */
+    private final class Slot implements Entry<Integer, V> {
+        final int key;
+        final int slot;
+
+        Slot(final int key, final int slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+
+        @Override
+        public Integer getKey() {
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V getValue() {
+            if (slot < 0) return get(getKey());
+            return (V) values[slot];
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (slot < 0) return put(getKey(), value);
+            final V old = getValue();
+            values[slot] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Entry)) return false;
+            final Entry<?, ?> e = (Entry<?, ?>) o;
+            return eq(getKey(), e.getKey()) && eq(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(getKey()) ^ hash(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Visits the slots downward, so that removing an entry only shifts back entries already
+     * visited, except one that may wrap around from the start of the table. Those are saved
+     * to visit at the end.
+     */
+    private final class Slots implements Iterator<Entry<Integer, V>> {
+        private boolean free = hasFree;
+        private int next = keys.length;//the next slot is the first used one below this
+        private List<Slot> wrapped;
+        private Slot last;
+
+        @Override
+        public boolean hasNext() {
+            if (free) return true;
+            while (next > 0 && keys[next - 1] == FREE) next--;
+            return next > 0 || wrapped != null && !wrapped.isEmpty();
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (free) {
+                free = false;
+                return last = new Slot(FREE, -1);
+            }
+            if (next > 0) {
+                next--;
+                return last = new Slot(keys[next], next);
+            }
+            return last = wrapped.remove(wrapped.size() - 1);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) throw new IllegalStateException();
+            if (last.slot < 0) {
+                IntObjMap.this.remove(last.key);
+            } else {
+                final int moved = removeAt(last.slot);
+                if (moved >= 0) {
+                    if (wrapped == null) wrapped = new ArrayList<Slot>();
+                    wrapped.add(new Slot(keys[moved], -1));
+                }
+            }
+            last = null;
+        }
+    }
+}
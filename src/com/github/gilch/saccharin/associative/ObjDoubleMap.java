@@ -0,0 +1,367 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+// Generated by gen/maps.py. Edit the template there, not this file.
+
+package com.github.gilch.saccharin.associative;
+
+import java.util.*;
+
+import static com.github.gilch.saccharin.BuiltIn.eq;
+import static com.github.gilch.saccharin.BuiltIn.hash;
+
+/**
+ * A map from objects to doubles, using open addressing with linear probing. The keys and values
+ * live in two parallel arrays, so there are no entry objects, and the primitive methods never
+ * box. Each slot holds only a reference and a double. The table doubles once it is more than
+ * 3/4 full. Removals never shrink it.
+ * <p/>
+ * The Map methods also work, boxing as they go, so Literal._x(Map) can wrap it like any other
+ * map. Iterators are not fail-fast.
+ * <p/>
+ * <code>
+ * ObjDoubleMap.of("one", 0.5)._("two", 1.5)
+ * </code>
+ *
+ * @see com.github.gilch.saccharin.Literal#_x(Map)
+ */
+public class ObjDoubleMap<K> extends AbstractMap<K, Double> {
+    private Object[] keys;
+    private double[] values;
+    private boolean hasFree;//whether null is a key. Its value is kept outside the table.
+    private double freeValue;
+    private int size;
+    private int mask;
+    private int maxFill;
+
+    public ObjDoubleMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize how many entries to make room for before growing
+     */
+    public ObjDoubleMap(final int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + expectedSize);
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    /**
+     * Map fake literal. Chain more pairs with ._(key, value)
+     *
+     * @param key   of the first pair
+     * @param value of the first pair
+     * @return a new map
+     */
+    public static <K> ObjDoubleMap<K> of(final K key, final double value) {
+        return new ObjDoubleMap<K>()._(key, value);
+    }
+
+    /**
+     * Map fake literal chain. Adds another pair to the map.
+     *
+     * @return this
+     */
+    public ObjDoubleMap<K> _(final K key, final double value) {
+        put(key, value);
+        return this;
+    }
+
+    private void allocate(final int capacity) {
+        keys = new Object[capacity];
+        values = new double[capacity];
+        mask = capacity - 1;
+        maxFill = Hashing.maxFill(capacity);
+    }
+
+    // The slot holding key, or -(the free slot where it would go) - 1.
+    private int find(final Object key) {
+        int i = Hashing.mix(key) & mask;
+        for (Object k; (k = keys[i]) != null; i = (i + 1) & mask)
+            if (key.equals(k)) return i;
+        return -i - 1;
+    }
+
+    private void insert(final int slot, final Object key, final double value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > maxFill) rehash(Hashing.grow(keys.length));
+    }
+
+    private void rehash(final int capacity) {
+        final Object[] oldKeys = keys;
+        final double[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            final Object k = oldKeys[j];
+            if (k == null) continue;
+            int i = Hashing.mix(k) & mask;
+            while (keys[i] != null) i = (i + 1) & mask;
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+
+    /**
+     * Empties the slot, shifting back the later keys of its run so lookups still find them.
+     *
+     * @return the slot that a key moved into from the start of the table by wrapping around,
+     * or -1 if none did.
+     */
+    private int removeAt(int gap) {
+        int wrapped = -1;
+        size--;
+        for (int j = (gap + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            final int home = Hashing.mix(keys[j]) & mask;
+            if (((j - home) & mask) < ((j - gap) & mask)) continue;//gap is before its home
+            keys[gap] = keys[j];
+            values[gap] = values[j];
+            if (j < gap) wrapped = gap;
+            gap = j;
+        }
+        keys[gap] = null;
+        return wrapped;
+    }
+
+    private double removeFree() {
+        final double old = freeValue;
+        if (hasFree) {
+            hasFree = false;
+            freeValue = 0.0;
+            size--;
+        }
+        return old;
+    }
+
+    /**
+     * @return the value of key, or 0.0 if there isn't one.
+     */
+    public double getDouble(final Object key) {
+        return getOrDefault(key, 0.0);
+    }
+
+    /**
+     * @return the value of key, or missing if there isn't one.
+     */
+    public double getOrDefault(final Object key, final double missing) {
+        if (key == null) return hasFree ? freeValue : missing;
+        final int i = find(key);
+        return i < 0 ? missing : values[i];
+    }
+
+    /**
+     * @return the previous value of key, or 0.0 if there wasn't one.
+     */
+    public double put(final K key, final double value) {
+        if (key == null) {
+            final double old = freeValue;
+            freeValue = value;
+            if (!hasFree) {
+                hasFree = true;
+                size++;
+            }
+            return old;
+        }
+        final int i = find(key);
+        if (i < 0) {
+            insert(-i - 1, key, value);
+            return 0.0;
+        }
+        final double old = values[i];
+        values[i] = value;
+        return old;
+    }
+
+    /**
+     * Adds delta to the value of key, counting a missing value as 0.0.
+     *
+     * @return the new value
+     */
+    public double add(final K key, final double delta) {
+        if (key == null) {
+            if (!hasFree) {
+                hasFree = true;
+                size++;
+            }
+            return freeValue += delta;
+        }
+        final int i = find(key);
+        if (i >= 0) return values[i] += delta;
+        insert(-i - 1, key, delta);
+        return delta;
+    }
+
+    // Map methods
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        hasFree = false;
+        freeValue = 0.0;
+        size = 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key == null ? hasFree : find(key) >= 0;
+    }
+
+    @Override
+    public Double get(final Object key) {
+        if (key == null) return hasFree ? (Double) freeValue : null;
+        final int i = find(key);
+        return i < 0 ? null : (Double) values[i];
+    }
+
+    @Override
+    public Double put(final K key, final Double value) {
+        final boolean had = containsKey(key);
+        final double old = put(key, value.doubleValue());
+        return had ? (Double) old : null;
+    }
+
+    @Override
+    public Double remove(final Object key) {
+        if (key == null) return hasFree ? (Double) removeFree() : null;
+        final int i = find(key);
+        if (i < 0) return null;
+        final double old = values[i];
+        removeAt(i);
+        return old;
+    }
+
+    @Override
+    public Set<Entry<K, Double>> entrySet() {
+        return new AbstractSet<Entry<K, Double>>() {
+            @Override
+            public Iterator<Entry<K, Double>> iterator() {
+                return new Slots();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                ObjDoubleMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * An entry in a table slot, or one looked up by key if slot is -1.
+     */
+    private final class Slot implements Entry<K, Double> {
+        final Object key;
+        final int slot;
+
+        Slot(final Object key, final int slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public K getKey() {
+            return (K) key;
+        }
+
+        @Override
+        public Double getValue() {
+            if (slot < 0) return get(getKey());
+            return values[slot];
+        }
+
+        @Override
+        public Double setValue(final Double value) {
+            if (slot < 0) return put(getKey(), value);
+            final Double old = getValue();
+            values[slot] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Entry)) return false;
+            final Entry<?, ?> e = (Entry<?, ?>) o;
+            return eq(getKey(), e.getKey()) && eq(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(getKey()) ^ hash(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Visits the slots downward, so that removing an entry only shifts back entries already
+     * visited, except one that may wrap around from the start of the table. Those are saved
+     * to visit at the end.
+     */
+    private final class Slots implements Iterator<Entry<K, Double>> {
+        private boolean free = hasFree;
+        private int next = keys.length;//the next slot is the first used one below this
+        private List<Slot> wrapped;
+        private Slot last;
+
+        @Override
+        public boolean hasNext() {
+            if (free) return true;
+            while (next > 0 && keys[next - 1] == null) next--;
+            return next > 0 || wrapped != null && !wrapped.isEmpty();
+        }
+
+        @Override
+        public Entry<K, Double> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (free) {
+                free = false;
+                return last = new Slot(null, -1);
+            }
+            if (next > 0) {
+                next--;
+                return last = new Slot(keys[next], next);
+            }
+            return last = wrapped.remove(wrapped.size() - 1);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) throw new IllegalStateException();
+            if (last.slot < 0) {
+                ObjDoubleMap.this.remove(last.key);
+            } else {
+                final int moved = removeAt(last.slot);
+                if (moved >= 0) {
+                    if (wrapped == null) wrapped = new ArrayList<Slot>();
+                    wrapped.add(new Slot(keys[moved], -1));
+                }
+            }
+            last = null;
+        }
+    }
+}
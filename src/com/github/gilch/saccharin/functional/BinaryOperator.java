@@ -0,0 +1,25 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+/**
+ * A Function2 whose arguments and result are all the same type.
+ * Similar to the java.util.function.BinaryOperator interface from Java 8.
+ *
+ * @param <T> the operand and result type
+ * @see IntBinaryOperator
+ */
+public abstract class BinaryOperator<T> extends Function2<T, T, T> {
+}
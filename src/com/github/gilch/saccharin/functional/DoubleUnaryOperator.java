@@ -0,0 +1,122 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.DoubleSequence;
+
+/**
+ * A double to double function that never boxes. Similar to the
+ * java.util.function.DoubleUnaryOperator interface from Java 8.
+ * <p/>
+ * The bulk forEach methods read and write double arrays directly.
+ *
+ * @see Function
+ */
+public abstract class DoubleUnaryOperator {
+    private static final DoubleUnaryOperator IDENTITY = new DoubleUnaryOperator() {
+        @Override
+        public double apply(final double x) {
+            return x;
+        }
+    };
+
+    /**
+     * @return an operator that returns its argument.
+     */
+    public static DoubleUnaryOperator identity() {
+        return IDENTITY;
+    }
+
+    public abstract double apply(double x);
+
+    /**
+     * @param before the operator to apply before this one
+     * @return a composed operator that first applies before and then this
+     */
+    public final DoubleUnaryOperator compose(final DoubleUnaryOperator before) {
+        return new DoubleUnaryOperator() {
+            @Override
+            public double apply(final double x) {
+                return DoubleUnaryOperator.this.apply(before.apply(x));
+            }
+        };
+    }
+
+    /**
+     * @param after the operator to apply after this one
+     * @return a composed operator that first applies this and then after
+     */
+    public final DoubleUnaryOperator andThen(final DoubleUnaryOperator after) {
+        return new DoubleUnaryOperator() {
+            @Override
+            public double apply(final double x) {
+                return after.apply(DoubleUnaryOperator.this.apply(x));
+            }
+        };
+    }
+
+    /**
+     * Applies this operator to each element of src, writing the results to the same index of
+     * dest. Allocates nothing.
+     *
+     * @param src  the inputs
+     * @param dest at least as long as src. May be src itself, to update it in place.
+     * @return dest
+     */
+    public final double[] forEach(final double[] src, final double[] dest) {
+        for (int i = 0; i < src.length; i++) dest[i] = apply(src[i]);
+        return dest;
+    }
+
+    /**
+     * @param src the inputs
+     * @return a new array of the results, in order
+     */
+    public final double[] forEach(final double[] src) {
+        return forEach(src, new double[src.length]);
+    }
+
+    /**
+     * Lazy version of forEach, safe to use on infinite sequences.
+     *
+     * @param it
+     * @return a transformed view of it.
+     */
+    public final DoubleSequence forEach(final DoubleSequence it) {
+        return new DoubleSequence() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public double nextDouble() {
+                return apply(it.nextDouble());
+            }
+        };
+    }
+
+    /**
+     * A boxing Function view of this operator.
+     */
+    public final Function<Double, Double> toFunction() {
+        return new Function<Double, Double>() {
+            @Override
+            public Double apply(final Double x) {
+                return DoubleUnaryOperator.this.apply(x);
+            }
+        };
+    }
+}
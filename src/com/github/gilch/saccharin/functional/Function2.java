@@ -0,0 +1,67 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+/**
+ * A function of two arguments. Passing both directly saves allocating a pair per call, which
+ * matters in loops like reduce and zipWith.
+ * Similar to the java.util.function.BiFunction interface from Java 8.
+ *
+ * @param <A> first parameter type
+ * @param <B> second parameter type
+ * @param <R> return type. Use Void rather than Object for a null return.
+ * @see BinaryOperator
+ */
+public abstract class Function2<A, B, R> {
+    /**
+     * Applies this function to the given arguments.
+     *
+     * @param a - the first argument
+     * @param b - the second argument
+     * @return the function result
+     */
+    public abstract R apply(A a, B b);
+
+    /**
+     * Returns a composed function that first applies this function to its
+     * inputs, and then applies the after function to the result.
+     *
+     * @param after -
+     *              the function to apply after this function is applied
+     * @return a composed function that first applies this function and then
+     * applies the after function
+     */
+    public final <V> Function2<A, B, V> andThen(final Function<? super R, ? extends V> after) {
+        return new Function2<A, B, V>() {
+            @Override
+            public V apply(final A a, final B b) {
+                return after.apply(Function2.this.apply(a, b));
+            }
+        };
+    }
+
+    /**
+     * @param a - the first argument, fixed
+     * @return a Function of the second argument.
+     */
+    public final Function<B, R> bind(final A a) {
+        return new Function<B, R>() {
+            @Override
+            public R apply(final B b) {
+                return Function2.this.apply(a, b);
+            }
+        };
+    }
+}
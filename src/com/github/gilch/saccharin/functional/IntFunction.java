@@ -0,0 +1,89 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.IntSequence;
+import com.github.gilch.saccharin.sequential.SequenceAdapter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A function from an int that doesn't box its argument. Similar to the
+ * java.util.function.IntFunction interface from Java 8.
+ *
+ * @param <R> return type
+ * @see Function
+ */
+public abstract class IntFunction<R> {
+    public abstract R apply(int x);
+
+    /**
+     * @param before the operator to apply before this function
+     * @return a composed function that first applies before and then this
+     */
+    public final IntFunction<R> compose(final IntUnaryOperator before) {
+        return new IntFunction<R>() {
+            @Override
+            public R apply(final int x) {
+                return IntFunction.this.apply(before.apply(x));
+            }
+        };
+    }
+
+    /**
+     * @param after the function to apply to the result
+     * @return a composed function that first applies this and then after
+     */
+    public final <V> IntFunction<V> andThen(final Function<? super R, ? extends V> after) {
+        return new IntFunction<V>() {
+            @Override
+            public V apply(final int x) {
+                return after.apply(IntFunction.this.apply(x));
+            }
+        };
+    }
+
+    /**
+     * @param xs the inputs
+     * @return a list of the results, in order
+     */
+    public final List<R> forEach(final int[] xs) {
+        final ArrayList<R> out = new ArrayList<R>(xs.length);
+        for (final int x : xs) out.add(apply(x));
+        return out;
+    }
+
+    /**
+     * Lazy version of forEach, safe to use on infinite sequences.
+     *
+     * @param it
+     * @return a transformed view of it
+     */
+    public final Iterator<R> forEach(final IntSequence it) {
+        return new SequenceAdapter<R>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public R next() {
+                return apply(it.nextInt());
+            }
+        };
+    }
+}
@@ -0,0 +1,136 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.IntSequence;
+
+import java.util.Arrays;
+
+/**
+ * A Predicate of an int that never boxes. Similar to the java.util.function.IntPredicate
+ * interface from Java 8.
+ * <p/>
+ * The bulk filter methods read and write int arrays directly.
+ *
+ * @see Predicate
+ */
+public abstract class IntPredicate {
+    public abstract boolean test(int x);
+
+    /**
+     * @return an inverted view of this predicate
+     */
+    public final IntPredicate negate() {
+        return new IntPredicate() {
+            @Override
+            public boolean test(final int x) {
+                return !IntPredicate.this.test(x);
+            }
+        };
+    }
+
+    /**
+     * @param other tested only if this passes
+     * @return a predicate that passes if both do
+     */
+    public final IntPredicate and(final IntPredicate other) {
+        return new IntPredicate() {
+            @Override
+            public boolean test(final int x) {
+                return IntPredicate.this.test(x) && other.test(x);
+            }
+        };
+    }
+
+    /**
+     * @param other tested only if this fails
+     * @return a predicate that passes if either does
+     */
+    public final IntPredicate or(final IntPredicate other) {
+        return new IntPredicate() {
+            @Override
+            public boolean test(final int x) {
+                return IntPredicate.this.test(x) || other.test(x);
+            }
+        };
+    }
+
+    /**
+     * @param before applied to the argument before it is tested
+     * @return a predicate that tests the result of before
+     */
+    public final IntPredicate compose(final IntUnaryOperator before) {
+        return new IntPredicate() {
+            @Override
+            public boolean test(final int x) {
+                return IntPredicate.this.test(before.apply(x));
+            }
+        };
+    }
+
+    /**
+     * Copies the elements of src that pass to the front of dest, in order. Allocates nothing.
+     *
+     * @param src  items to filter
+     * @param dest at least as long as src. May be src itself, to filter it in place.
+     * @return the number of elements copied
+     */
+    public final int filter(final int[] src, final int[] dest) {
+        int n = 0;
+        for (final int x : src) if (test(x)) dest[n++] = x;
+        return n;
+    }
+
+    /**
+     * @param src items to filter
+     * @return a new array of the items that passed, in order
+     */
+    public final int[] filter(final int[] src) {
+        final int[] out = new int[src.length];
+        final int n = filter(src, out);
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Lazy version of filter, safe to use on infinite sequences.
+     *
+     * @param it
+     * @return a filtered view of it
+     */
+    public final IntSequence filter(final IntSequence it) {
+        return new IntSequence.LookAhead() {
+            @Override
+            protected int getNextInt() {
+                while (it.hasNext()) {
+                    final int x = it.nextInt();
+                    if (test(x)) return x;
+                }
+                return done();
+            }
+        };
+    }
+
+    /**
+     * A boxing Predicate view of this predicate.
+     */
+    public final Predicate<Integer> toPredicate() {
+        return new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer x) {
+                return IntPredicate.this.test(x);
+            }
+        };
+    }
+}
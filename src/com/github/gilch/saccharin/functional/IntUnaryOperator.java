@@ -0,0 +1,122 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.IntSequence;
+
+/**
+ * A int to int function that never boxes. Similar to the java.util.function.IntUnaryOperator
+ * interface from Java 8.
+ * <p/>
+ * The bulk forEach methods read and write int arrays directly.
+ *
+ * @see Function
+ */
+public abstract class IntUnaryOperator {
+    private static final IntUnaryOperator IDENTITY = new IntUnaryOperator() {
+        @Override
+        public int apply(final int x) {
+            return x;
+        }
+    };
+
+    /**
+     * @return an operator that returns its argument.
+     */
+    public static IntUnaryOperator identity() {
+        return IDENTITY;
+    }
+
+    public abstract int apply(int x);
+
+    /**
+     * @param before the operator to apply before this one
+     * @return a composed operator that first applies before and then this
+     */
+    public final IntUnaryOperator compose(final IntUnaryOperator before) {
+        return new IntUnaryOperator() {
+            @Override
+            public int apply(final int x) {
+                return IntUnaryOperator.this.apply(before.apply(x));
+            }
+        };
+    }
+
+    /**
+     * @param after the operator to apply after this one
+     * @return a composed operator that first applies this and then after
+     */
+    public final IntUnaryOperator andThen(final IntUnaryOperator after) {
+        return new IntUnaryOperator() {
+            @Override
+            public int apply(final int x) {
+                return after.apply(IntUnaryOperator.this.apply(x));
+            }
+        };
+    }
+
+    /**
+     * Applies this operator to each element of src, writing the results to the same index of
+     * dest. Allocates nothing.
+     *
+     * @param src  the inputs
+     * @param dest at least as long as src. May be src itself, to update it in place.
+     * @return dest
+     */
+    public final int[] forEach(final int[] src, final int[] dest) {
+        for (int i = 0; i < src.length; i++) dest[i] = apply(src[i]);
+        return dest;
+    }
+
+    /**
+     * @param src the inputs
+     * @return a new array of the results, in order
+     */
+    public final int[] forEach(final int[] src) {
+        return forEach(src, new int[src.length]);
+    }
+
+    /**
+     * Lazy version of forEach, safe to use on infinite sequences.
+     *
+     * @param it
+     * @return a transformed view of it.
+     */
+    public final IntSequence forEach(final IntSequence it) {
+        return new IntSequence() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return apply(it.nextInt());
+            }
+        };
+    }
+
+    /**
+     * A boxing Function view of this operator.
+     */
+    public final Function<Integer, Integer> toFunction() {
+        return new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer x) {
+                return IntUnaryOperator.this.apply(x);
+            }
+        };
+    }
+}
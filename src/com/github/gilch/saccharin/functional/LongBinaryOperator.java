@@ -0,0 +1,89 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.LongSequence;
+
+/**
+ * A function of two longs to a long that never boxes. Similar to the
+ * java.util.function.LongBinaryOperator interface from Java 8.
+ * <p/>
+ * The bulk methods read and write long arrays directly.
+ */
+public abstract class LongBinaryOperator {
+    public abstract long apply(long a, long b);
+
+    /**
+     * @param after the operator to apply to the result
+     * @return a composed operator that first applies this and then after
+     */
+    public final LongBinaryOperator andThen(final LongUnaryOperator after) {
+        return new LongBinaryOperator() {
+            @Override
+            public long apply(final long a, final long b) {
+                return after.apply(LongBinaryOperator.this.apply(a, b));
+            }
+        };
+    }
+
+    /**
+     * Left fold. For example, a sum is <code>plus.reduce(0, xs)</code>.
+     *
+     * @param identity the result for an empty array
+     * @param xs       the elements to combine
+     * @return apply(...apply(apply(identity, xs[0]), xs[1])..., xs[n-1])
+     */
+    public final long reduce(final long identity, final long[] xs) {
+        long out = identity;
+        for (final long x : xs) out = apply(out, x);
+        return out;
+    }
+
+    /**
+     * Left fold of a sequence. Doesn't return if it is infinite.
+     *
+     * @param identity the result for an empty sequence
+     * @param it       the elements to combine
+     * @return the accumulated result
+     */
+    public final long reduce(final long identity, final LongSequence it) {
+        long out = identity;
+        while (it.hasNext()) out = apply(out, it.nextLong());
+        return out;
+    }
+
+    /**
+     * Applies this to the elements at each index of as and bs, writing the results to the same
+     * index of dest. Allocates nothing.
+     *
+     * @param as   the first arguments
+     * @param bs   the second arguments, at least as long as as.
+     * @param dest at least as long as as. May be as or bs, to update in place.
+     * @return dest
+     */
+    public final long[] forEach(final long[] as, final long[] bs, final long[] dest) {
+        for (int i = 0; i < as.length; i++) dest[i] = apply(as[i], bs[i]);
+        return dest;
+    }
+
+    /**
+     * @param as the first arguments
+     * @param bs the second arguments, at least as long as as.
+     * @return a new array of the results
+     */
+    public final long[] forEach(final long[] as, final long[] bs) {
+        return forEach(as, bs, new long[as.length]);
+    }
+}
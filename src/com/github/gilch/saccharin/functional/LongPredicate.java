@@ -0,0 +1,136 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.LongSequence;
+
+import java.util.Arrays;
+
+/**
+ * A Predicate of a long that never boxes. Similar to the java.util.function.LongPredicate
+ * interface from Java 8.
+ * <p/>
+ * The bulk filter methods read and write long arrays directly.
+ *
+ * @see Predicate
+ */
+public abstract class LongPredicate {
+    public abstract boolean test(long x);
+
+    /**
+     * @return an inverted view of this predicate
+     */
+    public final LongPredicate negate() {
+        return new LongPredicate() {
+            @Override
+            public boolean test(final long x) {
+                return !LongPredicate.this.test(x);
+            }
+        };
+    }
+
+    /**
+     * @param other tested only if this passes
+     * @return a predicate that passes if both do
+     */
+    public final LongPredicate and(final LongPredicate other) {
+        return new LongPredicate() {
+            @Override
+            public boolean test(final long x) {
+                return LongPredicate.this.test(x) && other.test(x);
+            }
+        };
+    }
+
+    /**
+     * @param other tested only if this fails
+     * @return a predicate that passes if either does
+     */
+    public final LongPredicate or(final LongPredicate other) {
+        return new LongPredicate() {
+            @Override
+            public boolean test(final long x) {
+                return LongPredicate.this.test(x) || other.test(x);
+            }
+        };
+    }
+
+    /**
+     * @param before applied to the argument before it is tested
+     * @return a predicate that tests the result of before
+     */
+    public final LongPredicate compose(final LongUnaryOperator before) {
+        return new LongPredicate() {
+            @Override
+            public boolean test(final long x) {
+                return LongPredicate.this.test(before.apply(x));
+            }
+        };
+    }
+
+    /**
+     * Copies the elements of src that pass to the front of dest, in order. Allocates nothing.
+     *
+     * @param src  items to filter
+     * @param dest at least as long as src. May be src itself, to filter it in place.
+     * @return the number of elements copied
+     */
+    public final int filter(final long[] src, final long[] dest) {
+        int n = 0;
+        for (final long x : src) if (test(x)) dest[n++] = x;
+        return n;
+    }
+
+    /**
+     * @param src items to filter
+     * @return a new array of the items that passed, in order
+     */
+    public final long[] filter(final long[] src) {
+        final long[] out = new long[src.length];
+        final int n = filter(src, out);
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Lazy version of filter, safe to use on infinite sequences.
+     *
+     * @param it
+     * @return a filtered view of it
+     */
+    public final LongSequence filter(final LongSequence it) {
+        return new LongSequence.LookAhead() {
+            @Override
+            protected long getNextLong() {
+                while (it.hasNext()) {
+                    final long x = it.nextLong();
+                    if (test(x)) return x;
+                }
+                return done();
+            }
+        };
+    }
+
+    /**
+     * A boxing Predicate view of this predicate.
+     */
+    public final Predicate<Long> toPredicate() {
+        return new Predicate<Long>() {
+            @Override
+            public boolean test(final Long x) {
+                return LongPredicate.this.test(x);
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.LongSequence;
+
+/**
+ * A long to long function that never boxes. Similar to the java.util.function.LongUnaryOperator
+ * interface from Java 8.
+ * <p/>
+ * The bulk forEach methods read and write long arrays directly.
+ *
+ * @see Function
+ */
+public abstract class LongUnaryOperator {
+    private static final LongUnaryOperator IDENTITY = new LongUnaryOperator() {
+        @Override
+        public long apply(final long x) {
+            return x;
+        }
+    };
+
+    /**
+     * @return an operator that returns its argument.
+     */
+    public static LongUnaryOperator identity() {
+        return IDENTITY;
+    }
+
+    public abstract long apply(long x);
+
+    /**
+     * @param before the operator to apply before this one
+     * @return a composed operator that first applies before and then this
+     */
+    public final LongUnaryOperator compose(final LongUnaryOperator before) {
+        return new LongUnaryOperator() {
+            @Override
+            public long apply(final long x) {
+                return LongUnaryOperator.this.apply(before.apply(x));
+            }
+        };
+    }
+
+    /**
+     * @param after the operator to apply after this one
+     * @return a composed operator that first applies this and then after
+     */
+    public final LongUnaryOperator andThen(final LongUnaryOperator after) {
+        return new LongUnaryOperator() {
+            @Override
+            public long apply(final long x) {
+                return after.apply(LongUnaryOperator.this.apply(x));
+            }
+        };
+    }
+
+    /**
+     * Applies this operator to each element of src, writing the results to the same index of
+     * dest. Allocates nothing.
+     *
+     * @param src  the inputs
+     * @param dest at least as long as src. May be src itself, to update it in place.
+     * @return dest
+     */
+    public final long[] forEach(final long[] src, final long[] dest) {
+        for (int i = 0; i < src.length; i++) dest[i] = apply(src[i]);
+        return dest;
+    }
+
+    /**
+     * @param src the inputs
+     * @return a new array of the results, in order
+     */
+    public final long[] forEach(final long[] src) {
+        return forEach(src, new long[src.length]);
+    }
+
+    /**
+     * Lazy version of forEach, safe to use on infinite sequences.
+     *
+     * @param it
+     * @return a transformed view of it.
+     */
+    public final LongSequence forEach(final LongSequence it) {
+        return new LongSequence() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return apply(it.nextLong());
+            }
+        };
+    }
+
+    /**
+     * A boxing Function view of this operator.
+     */
+    public final Function<Long, Long> toFunction() {
+        return new Function<Long, Long>() {
+            @Override
+            public Long apply(final Long x) {
+                return LongUnaryOperator.this.apply(x);
+            }
+        };
+    }
+}
@@ -52,7 +52,7 @@ public abstract class Predicate<T> {
                     final T next = iterator.next();
                     if (test(next)) return next;
                 }
-                throw new NoSuchElementException();
+                return done();
             }
         };
     }
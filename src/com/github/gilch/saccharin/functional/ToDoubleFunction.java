@@ -0,0 +1,101 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.DoubleSequence;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A function to a double that doesn't box its result. Similar to the
+ * java.util.function.ToDoubleFunction interface from Java 8.
+ *
+ * @param <T> argument type
+ * @see Function
+ */
+public abstract class ToDoubleFunction<T> {
+    public abstract double apply(T t);
+
+    /**
+     * @param before the function to apply before this one
+     * @return a composed function that first applies before and then this
+     */
+    public final <V> ToDoubleFunction<V> compose(final Function<? super V, ? extends T> before) {
+        return new ToDoubleFunction<V>() {
+            @Override
+            public double apply(final V v) {
+                return ToDoubleFunction.this.apply(before.apply(v));
+            }
+        };
+    }
+
+    /**
+     * @param after the operator to apply to the result
+     * @return a composed function that first applies this and then after
+     */
+    public final ToDoubleFunction<T> andThen(final DoubleUnaryOperator after) {
+        return new ToDoubleFunction<T>() {
+            @Override
+            public double apply(final T t) {
+                return after.apply(ToDoubleFunction.this.apply(t));
+            }
+        };
+    }
+
+    /**
+     * @param after the function to apply to the result
+     * @return a composed function that first applies this and then after
+     */
+    public final <R> Function<T, R> andThen(final DoubleFunction<? extends R> after) {
+        return new Function<T, R>() {
+            @Override
+            public R apply(final T t) {
+                return after.apply(ToDoubleFunction.this.apply(t));
+            }
+        };
+    }
+
+    /**
+     * @param ts the inputs
+     * @return a new array of the results, in iteration order
+     */
+    public final double[] forEach(final Collection<? extends T> ts) {
+        final double[] out = new double[ts.size()];
+        int i = 0;
+        for (final T t : ts) out[i++] = apply(t);
+        return out;
+    }
+
+    /**
+     * Lazy version of forEach, safe to use on infinite Iterators.
+     *
+     * @param it
+     * @return a transformed view of it
+     */
+    public final DoubleSequence forEach(final Iterator<? extends T> it) {
+        return new DoubleSequence() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public double nextDouble() {
+                return apply(it.next());
+            }
+        };
+    }
+}
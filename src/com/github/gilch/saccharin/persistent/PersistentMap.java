@@ -0,0 +1,377 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.github.gilch.saccharin.persistent;
+
+import java.util.*;
+
+/**
+ * An immutable Map that makes modified copies in O(log32 n) time by sharing structure with the
+ * original. It is a hash array mapped trie: each level of the tree uses the next 5 bits of the
+ * key's hash to pick a branch, and a bitmap of the branches in use keeps the nodes small. Keys
+ * with the same full hash share a collision node.
+ * <p/>
+ * The Map mutators throw UnsupportedOperationException. Use plus and minus instead, which
+ * return a new map and leave this one as it was. Null keys and values are allowed.
+ * <p/>
+ * <code>
+ * PersistentMap.copyOf(_x("a", 1)._("b", 2)).plus("c", 3).minus("a")
+ * </code>
+ *
+ * @param <K>
+ * @param <V>
+ * @see com.github.gilch.saccharin.BuiltIn#persist(java.util.Map)
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+    private static final Object NOT_FOUND = new Object();
+    private static final PersistentMap<Object, Object> EMPTY =
+            new PersistentMap<Object, Object>(0, null, false, null);
+
+    private final int size;
+    private final Node root;//null if there are no non-null keys
+    private final boolean hasNull;
+    private final V nullValue;
+
+    private PersistentMap(
+            final int size, final Node root, final boolean hasNull, final V nullValue) {
+        this.size = size;
+        this.root = root;
+        this.hasNull = hasNull;
+        this.nullValue = nullValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * @return a persistent copy of m, or m itself if it is already a PersistentMap.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> copyOf(final Map<? extends K, ? extends V> m) {
+        if (m instanceof PersistentMap) return (PersistentMap<K, V>) m;
+        return PersistentMap.<K, V>empty().plusAll(m);
+    }
+
+    private static int hashOf(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return a copy that maps key to value
+     */
+    public PersistentMap<K, V> plus(final K key, final V value) {
+        if (key == null) {
+            if (hasNull && nullValue == value) return this;
+            return new PersistentMap<K, V>(hasNull ? size : size + 1, root, true, value);
+        }
+        final boolean[] added = {false};
+        final Node newRoot = (root == null ? BitmapNode.EMPTY : root)
+                .plus(0, hashOf(key), key, value, added);
+        if (newRoot == root) return this;
+        return new PersistentMap<K, V>(added[0] ? size + 1 : size, newRoot, hasNull, nullValue);
+    }
+
+    /**
+     * @return a copy with all the entries of m added
+     */
+    public PersistentMap<K, V> plusAll(final Map<? extends K, ? extends V> m) {
+        PersistentMap<K, V> out = this;
+        for (final Entry<? extends K, ? extends V> e : m.entrySet())
+            out = out.plus(e.getKey(), e.getValue());
+        return out;
+    }
+
+    /**
+     * @return a copy without key
+     */
+    public PersistentMap<K, V> minus(final Object key) {
+        if (key == null)
+            return hasNull ? new PersistentMap<K, V>(size - 1, root, false, null) : this;
+        if (root == null) return this;
+        final Node newRoot = root.minus(0, hashOf(key), key);
+        if (newRoot == root) return this;
+        return new PersistentMap<K, V>(size - 1, newRoot, hasNull, nullValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(final Object key) {
+        if (key == null) return nullValue;
+        if (root == null) return null;
+        final Object v = root.find(0, hashOf(key), key);
+        return v == NOT_FOUND ? null : (V) v;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        if (key == null) return hasNull;
+        return root != null && root.find(0, hashOf(key), key) != NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Entries();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Walks the trie depth first, with a stack of the node arrays being read.
+     */
+    private final class Entries implements Iterator<Entry<K, V>> {
+        private boolean nullKey = hasNull;
+        private final Object[][] arrays = new Object[8][];//more than the trie can be deep
+        private final int[] indexes = new int[8];
+        private int depth = -1;
+
+        Entries() {
+            if (root != null) push(root.array);
+        }
+
+        private void push(final Object[] array) {
+            arrays[++depth] = array;
+            indexes[depth] = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nullKey) return true;
+            while (depth >= 0) {
+                final Object[] array = arrays[depth];
+                final int i = indexes[depth];
+                if (i == array.length) {
+                    depth--;
+                } else if (array[i] == null) {//a branch
+                    indexes[depth] += 2;
+                    push(((Node) array[i + 1]).array);
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (nullKey) {
+                nullKey = false;
+                return new SimpleImmutableEntry<K, V>(null, nullValue);
+            }
+            final Object[] array = arrays[depth];
+            final int i = indexes[depth];
+            indexes[depth] += 2;
+            return new SimpleImmutableEntry<K, V>((K) array[i], (V) array[i + 1]);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A trie node. Its array holds pairs: a key and its value, or null and a child Node.
+     */
+    private static abstract class Node {
+        final Object[] array;
+
+        Node(final Object[] array) {
+            this.array = array;
+        }
+
+        /**
+         * @return the value of key, or NOT_FOUND.
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * @param added set to true if key was not already in the node
+         * @return this if nothing changed
+         */
+        abstract Node plus(int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * @return this if key was not in the node, or null if the node is left empty.
+         */
+        abstract Node minus(int shift, int hash, Object key);
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;//which of the 32 branches are in the array
+
+        BitmapNode(final int bitmap, final Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private static int bit(final int shift, final int hash) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+
+        // the pair index of the branch
+        private int index(final int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(final int shift, final int hash, final Object key) {
+            final int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) return NOT_FOUND;
+            final int i = 2 * index(bit);
+            final Object k = array[i];
+            if (k == null) return ((Node) array[i + 1]).find(shift + 5, hash, key);
+            return key.equals(k) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node plus(final int shift, final int hash, final Object key, final Object value,
+                  final boolean[] added) {
+            final int bit = bit(shift, hash);
+            final int i = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                final Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, i);
+                copy[i] = key;
+                copy[i + 1] = value;
+                System.arraycopy(array, i, copy, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            final Object k = array[i];
+            final Object v = array[i + 1];
+            if (k == null) {
+                final Node child = ((Node) v).plus(shift + 5, hash, key, value, added);
+                return child == v ? this : new BitmapNode(bitmap, with(array, i + 1, child));
+            }
+            if (key.equals(k))
+                return v == value ? this : new BitmapNode(bitmap, with(array, i + 1, value));
+            // two keys on one branch, so the branch becomes a child node.
+            added[0] = true;
+            final Object[] copy = with(array, i + 1, branch(shift + 5, k, v, hash, key, value));
+            copy[i] = null;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private static Node branch(final int shift, final Object k1, final Object v1,
+                                   final int hash2, final Object k2, final Object v2) {
+            final int hash1 = hashOf(k1);
+            if (hash1 == hash2) return new CollisionNode(hash1, new Object[]{k1, v1, k2, v2});
+            final boolean[] ignored = {false};
+            return EMPTY.plus(shift, hash1, k1, v1, ignored)
+                    .plus(shift, hash2, k2, v2, ignored);
+        }
+
+        @Override
+        Node minus(final int shift, final int hash, final Object key) {
+            final int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) return this;
+            final int i = 2 * index(bit);
+            final Object k = array[i];
+            if (k == null) {
+                final Node child = ((Node) array[i + 1]).minus(shift + 5, hash, key);
+                if (child == array[i + 1]) return this;
+                if (child != null) return new BitmapNode(bitmap, with(array, i + 1, child));
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (bitmap == bit) return null;
+            return new BitmapNode(bitmap ^ bit, withoutPair(array, i));
+        }
+    }
+
+    /**
+     * The keys that have the same hash, in no particular order.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(final int hash, final Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(final Object key) {
+            for (int i = 0; i < array.length; i += 2) if (key.equals(array[i])) return i;
+            return -1;
+        }
+
+        @Override
+        Object find(final int shift, final int hash, final Object key) {
+            final int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Node plus(final int shift, final int hash, final Object key, final Object value,
+                  final boolean[] added) {
+            if (hash != this.hash) {
+                // nest this in a bitmap node that can tell the hashes apart.
+                return new BitmapNode(BitmapNode.bit(shift, this.hash), new Object[]{null, this})
+                        .plus(shift, hash, key, value, added);
+            }
+            final int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) return this;
+                return new CollisionNode(hash, with(array, i + 1, value));
+            }
+            final Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Node minus(final int shift, final int hash, final Object key) {
+            final int i = indexOf(key);
+            if (i < 0) return this;
+            if (array.length == 2) return null;
+            return new CollisionNode(hash, withoutPair(array, i));
+        }
+    }
+
+    private static Object[] with(final Object[] array, final int i, final Object x) {
+        final Object[] copy = array.clone();
+        copy[i] = x;
+        return copy;
+    }
+
+    private static Object[] withoutPair(final Object[] array, final int i) {
+        final Object[] copy = new Object[array.length - 2];
+        System.arraycopy(array, 0, copy, 0, i);
+        System.arraycopy(array, i + 2, copy, i, copy.length - i);
+        return copy;
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.github.gilch.saccharin.persistent;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * An immutable Set that makes modified copies in O(log32 n) time, backed by a PersistentMap
+ * from each element to itself.
+ * <p/>
+ * The Set mutators throw UnsupportedOperationException. Use plus and minus instead, which
+ * return a new set and leave this one as it was.
+ *
+ * @param <E>
+ * @see com.github.gilch.saccharin.BuiltIn#persist(java.util.Set)
+ */
+public final class PersistentSet<E> extends AbstractSet<E> {
+    private static final PersistentSet<Object> EMPTY =
+            new PersistentSet<Object>(PersistentMap.empty());
+
+    private final PersistentMap<E, E> map;
+
+    private PersistentSet(final PersistentMap<E, E> map) {
+        this.map = map;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentSet<E> empty() {
+        return (PersistentSet<E>) EMPTY;
+    }
+
+    /**
+     * @return a set of the elements, or elements itself if it is already a PersistentSet.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentSet<E> copyOf(final Iterable<? extends E> elements) {
+        if (elements instanceof PersistentSet) return (PersistentSet<E>) elements;
+        PersistentSet<E> s = empty();
+        for (final E e : elements) s = s.plus(e);
+        return s;
+    }
+
+    /**
+     * @return a copy with e added
+     */
+    public PersistentSet<E> plus(final E e) {
+        final PersistentMap<E, E> m = map.plus(e, e);
+        return m == map ? this : new PersistentSet<E>(m);
+    }
+
+    /**
+     * @return a copy without o
+     */
+    public PersistentSet<E> minus(final Object o) {
+        final PersistentMap<E, E> m = map.minus(o);
+        return m == map ? this : new PersistentSet<E>(m);
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return map.containsKey(o);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return map.keySet().iterator();
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+}
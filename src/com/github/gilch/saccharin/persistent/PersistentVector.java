@@ -0,0 +1,203 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.github.gilch.saccharin.persistent;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * An immutable List that makes modified copies in O(log32 n) time by sharing structure with
+ * the original. The elements are kept in a tree of 32-element arrays, plus a tail array of up
+ * to 32 elements that isn't in the tree yet, so appending is usually just a short array copy.
+ * <p/>
+ * The List mutators throw UnsupportedOperationException. Use plus, with and pop instead, which
+ * return a new vector and leave this one as it was.
+ * <p/>
+ * <code>
+ * PersistentVector.copyOf(_a(1, 2, 3)).plus(4).with(0, 0)
+ * </code>
+ *
+ * @param <E>
+ * @see com.github.gilch.saccharin.BuiltIn#persist(java.util.List)
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final Object[] EMPTY_NODE = new Object[32];
+    private static final PersistentVector<Object> EMPTY =
+            new PersistentVector<Object>(0, 5, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    private final int shift;//of the root level
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(
+            final int size, final int shift, final Object[] root, final Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * @return a vector of the elements, or elements itself if it is already a vector.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> copyOf(final Iterable<? extends E> elements) {
+        if (elements instanceof PersistentVector) return (PersistentVector<E>) elements;
+        PersistentVector<E> v = empty();
+        for (final E e : elements) v = v.plus(e);
+        return v;
+    }
+
+    // the index of the first element in the tail
+    private int tailOffset() {
+        return size < 32 ? 0 : ((size - 1) >>> 5) << 5;
+    }
+
+    // the array holding element i
+    private Object[] arrayFor(final int i) {
+        if (i >= tailOffset()) return tail;
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= 5) node = (Object[]) node[(i >>> level) & 31];
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(final int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        return (E) arrayFor(i)[i & 31];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy with e appended
+     */
+    public PersistentVector<E> plus(final E e) {
+        if (size - tailOffset() < 32) {
+            final Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = e;
+            return new PersistentVector<E>(size + 1, shift, root, newTail);
+        }
+        // the tail is full, so it goes into the tree.
+        final Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> 5) > (1 << shift)) {
+            newRoot = new Object[32];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += 5;
+        } else {
+            newRoot = pushTail(shift, root);
+        }
+        return new PersistentVector<E>(size + 1, newShift, newRoot, new Object[]{e});
+    }
+
+    private Object[] pushTail(final int level, final Object[] parent) {
+        final int i = ((size - 1) >>> level) & 31;
+        final Object[] node = parent.clone();
+        if (level == 5) {
+            node[i] = tail;
+        } else {
+            final Object[] child = (Object[]) parent[i];
+            node[i] = child == null ? newPath(level - 5, tail) : pushTail(level - 5, child);
+        }
+        return node;
+    }
+
+    private static Object[] newPath(final int level, final Object[] node) {
+        if (level == 0) return node;
+        final Object[] path = new Object[32];
+        path[0] = newPath(level - 5, node);
+        return path;
+    }
+
+    /**
+     * @return a copy with the element at i replaced by e. If i is the size, appends e.
+     */
+    public PersistentVector<E> with(final int i, final E e) {
+        if (i == size) return plus(e);
+        if (i < 0 || i > size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        if (i >= tailOffset()) {
+            final Object[] newTail = tail.clone();
+            newTail[i & 31] = e;
+            return new PersistentVector<E>(size, shift, root, newTail);
+        }
+        return new PersistentVector<E>(size, shift, with(shift, root, i, e), tail);
+    }
+
+    private static Object[] with(
+            final int level, final Object[] node, final int i, final Object e) {
+        final Object[] copy = node.clone();
+        if (level == 0) {
+            copy[i & 31] = e;
+        } else {
+            final int j = (i >>> level) & 31;
+            copy[j] = with(level - 5, (Object[]) node[j], i, e);
+        }
+        return copy;
+    }
+
+    /**
+     * @return a copy without the last element
+     * @throws IllegalStateException if empty
+     */
+    public PersistentVector<E> pop() {
+        if (size == 0) throw new IllegalStateException("Can't pop empty vector");
+        if (size == 1) return empty();
+        if (size - tailOffset() > 1)
+            return new PersistentVector<E>(
+                    size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        // the tail is emptied, so the last leaf comes out of the tree to replace it.
+        final Object[] newTail = arrayFor(size - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null) newRoot = EMPTY_NODE;
+        if (shift > 5 && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0];
+            newShift -= 5;
+        }
+        return new PersistentVector<E>(size - 1, newShift, newRoot, newTail);
+    }
+
+    // the node without its last leaf, or null if that leaves it empty
+    private Object[] popTail(final int level, final Object[] node) {
+        final int i = ((size - 2) >>> level) & 31;
+        if (level > 5) {
+            final Object[] child = popTail(level - 5, (Object[]) node[i]);
+            if (child == null && i == 0) return null;
+            final Object[] copy = node.clone();
+            copy[i] = child;
+            return copy;
+        }
+        if (i == 0) return null;
+        final Object[] copy = node.clone();
+        copy[i] = null;
+        return copy;
+    }
+}
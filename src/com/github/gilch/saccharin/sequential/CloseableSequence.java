@@ -0,0 +1,64 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import java.io.Closeable;
+
+/**
+ * A LookAheadSequence that holds resources, such as the background thread of a Generator or
+ * other sequences it reads from. Closing it releases them, and closes every upstream sequence
+ * registered with closing(Object...), so closing the outermost sequence of a pipeline tears
+ * down the whole pipeline. After close() the sequence has no next element.
+ * <p/>
+ * Closeable is AutoCloseable on Java 7 or later, so these work in try-with-resources.
+ *
+ * @param <E>
+ */
+public abstract class CloseableSequence<E> extends LookAheadSequence<E> implements Closeable {
+    // kept apart from the sequence itself so it can still be closed after the sequence is
+    // garbage collected.
+    final Resources resources = new Resources();
+    private Reaper reaper;
+
+    /**
+     * Registers upstream sources to be closed along with this sequence. Arguments that are not
+     * Closeable are ignored, so any Iterator may be passed.
+     *
+     * @param upstream sources this sequence reads from
+     * @return this
+     */
+    public final CloseableSequence<E> closing(final Object... upstream) {
+        for (final Object o : upstream) {
+            if (o instanceof Closeable) resources.add((Closeable) o);
+        }
+        return this;
+    }
+
+    /**
+     * Closes the resources if this sequence is garbage collected without being closed.
+     *
+     * @param reap closes the resources; must not refer to this sequence.
+     */
+    final void reapWhenUnreachable(final Closeable reap) {
+        reaper = Reaper.register(this, reap);
+    }
+
+    @Override
+    public void close() {
+        exhaust();
+        if (reaper != null) reaper.cancel();
+        resources.close();
+    }
+}
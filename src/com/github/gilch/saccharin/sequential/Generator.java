@@ -16,11 +16,8 @@ package com.github.gilch.saccharin.sequential;
 
 import com.github.gilch.saccharin.Literal;
 
-import java.util.Iterator;
+import java.io.Closeable;
 import java.util.NoSuchElementException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.SynchronousQueue;
 
 import static com.github.gilch.saccharin.Literal._;
 
@@ -29,21 +26,132 @@ import static com.github.gilch.saccharin.Literal._;
  * The place in the Generator is saved on a new call stack in a new background thread.
  * <p/>
  * If the iterator is not exhausted, the generator thread will not terminate until the iterator
- * is garbage collected, because otherwise the iterator might need to continue at a later time.
- * However, this means the program may not terminate at the end of the main thread unless
- * there is an explicit call to System.exit(int).
+ * is closed or garbage collected, because otherwise the iterator might need to continue at a
+ * later time. The garbage collector is not guaranteed to run, so close iterators that might be
+ * abandoned early, for example with try-with-resources on Java 7 or later.
+ * <p/>
+ * The background threads come from a {@link GeneratorExecutor}, either the one passed to the
+ * constructor or the shared default.
+ * <p/>
+ * By default each yield(E) waits for the consumer to take the element. A Generator constructed
+ * with a bufferSize greater than one instead fills chunks of that many elements and hands over a
+ * whole chunk at once, which saves two thread switches per element. The generate() method then
+ * runs up to bufferSize elements ahead of the consumer, so its side effects happen earlier.
  *
  * @param <E>
  */
 public abstract class Generator<E> {
-    private static final ExecutorService pool = Executors.newCachedThreadPool();
-    //queues can't hold nulls directly, but generators might return them, and
-    // there also has to be a termination signal, hence the cons pair.
-    private final SynchronousQueue<Literal._<E, Boolean>> q =
-            new SynchronousQueue<Literal._<E, Boolean>>();
+    private static volatile GeneratorExecutor defaultExecutor = GeneratorExecutor.cached();
+
+    /**
+     * Sets the backend for Generators constructed without an explicit GeneratorExecutor.
+     * Generators already constructed keep the backend they had.
+     *
+     * @param executor the new default
+     */
+    public static void setDefaultExecutor(final GeneratorExecutor executor) {
+        if (executor == null) throw new NullPointerException();
+        defaultExecutor = executor;
+    }
+
+    /**
+     * @return the backend for Generators constructed without an explicit GeneratorExecutor.
+     */
+    public static GeneratorExecutor getDefaultExecutor() {
+        return defaultExecutor;
+    }
+
+    private static volatile GeneratorListener listener;
+
+    /**
+     * Registers a listener for Generators started from now on.
+     *
+     * @param listener receives events, or null for none.
+     * @see GeneratorStats#register()
+     */
+    public static void setListener(final GeneratorListener listener) {
+        Generator.listener = listener;
+    }
+
+    /**
+     * @return the registered listener, or null.
+     */
+    public static GeneratorListener getListener() {
+        return listener;
+    }
+
+    private final GeneratorExecutor executor;
+    private final int bufferSize;
+    private GeneratorListener monitor;//the listener when this started, if any.
+    private volatile boolean running = true;
+
+    /**
+     * Runs on the default GeneratorExecutor, handing over one element at a time.
+     */
+    protected Generator() {
+        this(defaultExecutor, 1);
+    }
+
+    /**
+     * @param executor runs the generate() method in the background.
+     */
+    protected Generator(final GeneratorExecutor executor) {
+        this(executor, 1);
+    }
+
+    /**
+     * @param bufferSize number of elements handed to the consumer at once.
+     */
+    protected Generator(final int bufferSize) {
+        this(defaultExecutor, bufferSize);
+    }
+
+    /**
+     * @param executor   runs the generate() method in the background.
+     * @param bufferSize number of elements handed to the consumer at once. 1 waits for the
+     *                   consumer on every yield.
+     */
+    protected Generator(final GeneratorExecutor executor, final int bufferSize) {
+        if (executor == null) throw new NullPointerException();
+        if (bufferSize < 1) throw new IllegalArgumentException("bufferSize < 1");
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        chunk = bufferSize > 1 ? new Object[bufferSize] : null;
+    }
+
+    // elements may be null, and the termination signal is out of band, so nothing needs
+    // wrapping. In buffered mode the item is an Object[] chunk instead of an element.
+    private final Handoff q = new Handoff();
+
+    private Object[] chunk;//producer side of buffered mode.
+    private int filled = 0;
 
     protected final void yield(final E e) throws InterruptedException {
-        q.put(_(e, false));//new short-lived objects! HotSpot gc doesn't care, but Dalvik might.
+        if (chunk == null) {
+            put(e, 1);
+            return;
+        }
+        chunk[filled++] = e;
+        if (filled == bufferSize) flush();
+    }
+
+    private void flush() throws InterruptedException {
+        if (filled == 0) return;
+        // the consumer owns the chunk now, and gives back the one it finished draining.
+        final Object[] spare = (Object[]) put(chunk, filled);
+        chunk = spare != null ? spare : new Object[bufferSize];
+        filled = 0;
+    }
+
+    private Object put(final Object item, final int count) throws InterruptedException {
+        if (monitor == null) return q.put(item, count);
+        monitor.parked();
+        final long begin = System.nanoTime();
+        try {
+            return q.put(item, count);
+        } finally {
+            monitor.yielded(count, System.nanoTime() - begin);
+        }
     }
 
     /**
@@ -55,85 +163,119 @@ public abstract class Generator<E> {
 
     private boolean started = false;
 
-    public final Iterator<E> start() {
+    /**
+     * Starts generate() in the background.
+     *
+     * @return the generated sequence. Closing it stops the background thread.
+     */
+    public final CloseableSequence<E> start() {
         if (started) {
             throw new IllegalStateException(
                     "start() may only be called once per Generator instance");
         }
 
         final Literal.Out<Thread> putThread = _();
+        monitor = listener;
 
-        pool.execute(
+        executor.execute(
                 new Runnable() {
                     @Override
                     public void run() {
                         synchronized (putThread) {
                             putThread._ = Thread.currentThread();
                         }
+                        q.register();
+                        if (monitor != null) monitor.started();
                         try {
                             // signal that putThread has started.
-                            q.put(_((E) null, true));//start signal.
+                            q.put(null, 0);//start signal.
                             generate();
-                            q.put(_((E) null, true));//done signal.
+                            if (chunk != null) flush();
+                            if (monitor != null) monitor.exhausted();
                         } catch (final InterruptedException e) {
-                            // putThread could be aborted by finalizer, correct action is nop.
+                            // putThread could be aborted by close, correct action is nop.
                         } finally {
+                            running = false;
+                            q.finish();//done signal.
                             synchronized (putThread) {
                                 putThread._ = null;
                             }
+                            if (monitor != null) monitor.stopped();
                         }
                     }
                 });
         try {
             // Don't create the iterator until putThread initializes.
-            q.take();//blocks until "start signal".
+            q.take(null);//blocks until "start signal".
         } catch (final InterruptedException e) {
             //if an interruption happened here, there is a bug!
             throw new RuntimeException();
         }
         started = true;
         // create and return the iterator.
-        return new LookAheadSequence<E>() {
+        final CloseableSequence<E> out = new CloseableSequence<E>() {
+            private Object[] drain;//consumer side of buffered mode.
+            private int drained = 0;
+            private int drainEnd = 0;
+
+            @SuppressWarnings("unchecked")
             @Override
             protected E getNext() throws NoSuchElementException {
+                if (drained < drainEnd) return (E) drainOne();
                 try {
-                    final _<E, Boolean> shuttle = q.take();
-                    if (shuttle.tail) throw new NoSuchElementException();//done signal.
-                    return shuttle.head;
+                    if (!q.take(drain)) return done();//done signal.
+                    if (bufferSize == 1) return (E) q.taken;
+                    drain = (Object[]) q.taken;//never empty.
+                    drained = 0;
+                    drainEnd = q.takenCount;
+                    return (E) drainOne();
                 } catch (final InterruptedException e) {
-                    throw new NoSuchElementException();
+                    return done();
                 }
             }
 
-            /*
-            The Generator is visible from the background thread, so it won't get garbage
-            collected as long as the background thread exists. A generator may never terminate
-            or may not be exhausted, which would be a memory leak without this finalizer.
+            private Object drainOne() {
+                final Object out = drain[drained];
+                drain[drained++] = null;//don't keep drained elements reachable.
+                return out;
+            }
 
-            This delegate iterator exists only in the foreground (take) thread so it can be
-            collected, and on finalize will kill the background thread. The garbage collector
-            is not guaranteed to run; if you use generators, call System.exit(int) at the end
-            of the program to ensure all remaining blocked threads terminate.
-             */
             @Override
-            protected void finalize() throws Throwable {
-                try {
-                    try {
-                        synchronized (putThread) {
-                            putThread._.interrupt();
-                        }
-                    } catch (NullPointerException e) {
-                        // may have been nullified if putThread already completed or aborted.
-                        // correct action is nop.
-                    } finally {
-                        super.finalize();
-                    }
-                } catch (final Throwable t) {
-                    // unexpected throw and I want to know, but don't interrupt finalizers!
-                    t.printStackTrace();
-                }
+            public void close() {
+                if (monitor != null && running) monitor.closed();
+                drained = drainEnd = 0;
+                super.close();
             }
         };
+        /*
+        The Generator is visible from the background thread, so it won't get garbage
+        collected as long as the background thread exists. A generator may never terminate
+        or may not be exhausted, which would be a memory leak without a way to stop it.
+
+        The iterator exists only in the foreground (take) thread so it can be collected, and
+        then the Reaper kills the background thread. The cancellation must not refer to the
+        iterator, or it would never become unreachable.
+         */
+        out.resources.add(new Closeable() {
+            @Override
+            public void close() {
+                q.cancel();
+                synchronized (putThread) {
+                    // may have been nullified if putThread already completed or aborted.
+                    if (putThread._ != null) putThread._.interrupt();
+                }
+            }
+        });
+        final Resources resources = out.resources;
+        if (monitor == null) out.reapWhenUnreachable(resources);
+        else out.reapWhenUnreachable(new Closeable() {
+            @Override
+            public void close() {
+                if (running) monitor.reaped();
+                resources.close();
+            }
+        });
+        return out;
     }
 
 }
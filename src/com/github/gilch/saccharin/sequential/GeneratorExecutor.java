@@ -0,0 +1,172 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import com.github.gilch.saccharin.Rx;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Strategy for running the background half of a {@link Generator}. Every live Generator occupies
+ * one task of its executor until it is exhausted or abandoned, so the choice of backend decides
+ * how many Generators can be alive at once.
+ * <p/>
+ * <code>
+ * cached() //unbounded platform threads (the default)<br />
+ * virtual() //one virtual thread per Generator, if the JDK has them<br />
+ * platformRx().maxThreads.is(256).stackSize.is(64L*1024).go() //bounded platform pool<br />
+ * of(myExecutor) //caller-supplied<br />
+ * </code>
+ * A bounded backend refuses to start more Generators than it has threads; start() throws the
+ * executor's RejectedExecutionException rather than queueing, since a queued Generator would
+ * never signal that it has started.
+ *
+ * @see Generator#setDefaultExecutor(GeneratorExecutor)
+ */
+public abstract class GeneratorExecutor {
+
+    /**
+     * Runs the task on a thread of this backend. The task blocks for as long as its Generator
+     * is alive.
+     *
+     * @param task the body of a Generator
+     */
+    public abstract void execute(Runnable task);
+
+    private static GeneratorExecutor cached;
+
+    /**
+     * @return the shared unbounded pool of platform daemon threads. Idle threads are reused and
+     * expire after a minute. This is the default backend.
+     */
+    public static synchronized GeneratorExecutor cached() {
+        if (cached == null) cached = platformRx().go();
+        return cached;
+    }
+
+    private static GeneratorExecutor virtual;
+
+    /**
+     * Virtual threads are cheap to park, so a blocked Generator costs a small heap object
+     * instead of a platform thread and its stack.
+     *
+     * @return the shared virtual thread backend, or {@link #cached()} on JDKs without virtual
+     * threads.
+     * @see #hasVirtualThreads()
+     */
+    public static synchronized GeneratorExecutor virtual() {
+        if (virtual == null) {
+            // looked up reflectively so the library still runs on old JDKs.
+            try {
+                final Method factory =
+                        Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                virtual = of((Executor) factory.invoke(null));
+            } catch (final Exception e) {
+                virtual = cached();
+            }
+        }
+        return virtual;
+    }
+
+    /**
+     * @return true if this JDK supports virtual threads, so {@link #virtual()} is not just an
+     * alias of {@link #cached()}.
+     */
+    public static boolean hasVirtualThreads() {
+        return virtual() != cached();
+    }
+
+    /**
+     * Wraps a caller-supplied executor. The executor must not queue tasks behind running ones,
+     * or start() will wait forever for the Generator to begin.
+     *
+     * @param executor runs the Generator tasks
+     * @return a GeneratorExecutor view of the executor
+     */
+    public static GeneratorExecutor of(final Executor executor) {
+        return new GeneratorExecutor() {
+            @Override
+            public void execute(final Runnable task) {
+                executor.execute(task);
+            }
+        };
+    }
+
+    public static abstract class PlatformRx extends Rx<GeneratorExecutor, PlatformRx> {
+        @Override
+        protected PlatformRx getThis() {
+            return this;
+        }
+
+        /**
+         * The most Generators that may be alive at once.
+         */
+        public final Term<Integer> maxThreads = is(Integer.MAX_VALUE);
+        /**
+         * Requested stack size in bytes, or 0 for the platform default. Generators with
+         * shallow bodies run fine on much less than the default.
+         */
+        public final Term<Long> stackSize = is(0L);
+        /**
+         * Daemon threads don't keep the JVM alive if a Generator is abandoned.
+         */
+        public final Term<Boolean> daemon = is(true);
+        /**
+         * Seconds an idle thread waits for another Generator before it expires.
+         */
+        public final Term<Long> keepAlive = is(60L);
+        public final Term<String> name = is("generator");
+    }
+
+    /**
+     * A new pool of platform threads with configurable bound, stack size and daemon flag.
+     *
+     * @return a recipe for the pool. Call go() to create it.
+     */
+    public static PlatformRx platformRx() {
+        return new PlatformRx() {
+            @Override
+            public GeneratorExecutor go() {
+                final String name = this.name._;
+                final long stackSize = this.stackSize._;
+                final boolean daemon = this.daemon._;
+                final ExecutorService pool = new ThreadPoolExecutor(
+                        0, maxThreads._, keepAlive._, TimeUnit.SECONDS,
+                        new SynchronousQueue<Runnable>(),
+                        new ThreadFactory() {
+                            private final AtomicInteger count = new AtomicInteger();
+
+                            @Override
+                            public Thread newThread(final Runnable r) {
+                                final Thread t = new Thread(
+                                        null, r, name + "-" + count.incrementAndGet(),
+                                        stackSize);
+                                t.setDaemon(daemon);
+                                return t;
+                            }
+                        });
+                return of(pool);
+            }
+        };
+    }
+}
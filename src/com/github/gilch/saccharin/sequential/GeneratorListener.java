@@ -0,0 +1,73 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+/**
+ * Receives lifecycle and handoff events from Generators. Every method does nothing by default,
+ * so override only the events of interest. Methods are called from the generator threads and
+ * from whichever thread closes a sequence, so implementations must be thread safe and fast.
+ * <p/>
+ * A Generator reports to the listener that was registered when it started. With no listener
+ * registered, Generators skip the timing entirely.
+ *
+ * @see Generator#setListener(GeneratorListener)
+ * @see GeneratorStats
+ */
+public abstract class GeneratorListener {
+    /**
+     * The background thread began running generate().
+     */
+    public void started() {
+    }
+
+    /**
+     * The background thread is about to wait in yield for the consumer.
+     */
+    public void parked() {
+    }
+
+    /**
+     * The consumer took elements handed over by yield.
+     *
+     * @param elements    how many; more than one in buffered mode.
+     * @param handoffNanos how long the background thread waited for the consumer.
+     */
+    public void yielded(final int elements, final long handoffNanos) {
+    }
+
+    /**
+     * generate() returned normally.
+     */
+    public void exhausted() {
+    }
+
+    /**
+     * The sequence was closed while generate() was still running.
+     */
+    public void closed() {
+    }
+
+    /**
+     * The sequence was garbage collected while generate() was still running.
+     */
+    public void reaped() {
+    }
+
+    /**
+     * The background thread is done with the Generator, for any reason.
+     */
+    public void stopped() {
+    }
+}
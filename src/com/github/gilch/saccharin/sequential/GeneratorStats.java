@@ -0,0 +1,161 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A GeneratorListener that counts events, for sizing pools and finding leaked pipelines.
+ * Use register() to install one as the Generator listener and publish it as an MBean.
+ * <p/>
+ * A high reaped count relative to exhausted and closed means sequences are being abandoned
+ * without close(), which holds their threads until a garbage collection happens to run.
+ */
+public class GeneratorStats extends GeneratorListener implements GeneratorStatsMBean {
+    /**
+     * The MBean name used by register().
+     */
+    public static final String OBJECT_NAME = "com.github.gilch.saccharin:type=GeneratorStats";
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong stopped = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+    private final AtomicLong unparked = new AtomicLong();
+    private final AtomicLong yields = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+    private final AtomicLong reaped = new AtomicLong();
+    // bucket i counts handoffs that waited less than 2^i nanoseconds.
+    private final AtomicLongArray latency = new AtomicLongArray(64);
+
+    private long lastYields = 0;
+    private long lastNanos = System.nanoTime();
+
+    /**
+     * Installs a new GeneratorStats as the Generator listener and registers it with the
+     * platform MBean server under {@link #OBJECT_NAME}, replacing any previous one.
+     *
+     * @return the installed instance
+     */
+    public static GeneratorStats register() {
+        final GeneratorStats stats = new GeneratorStats();
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats, name);
+        } catch (final JMException e) {
+            throw new RuntimeException(e);
+        }
+        Generator.setListener(stats);
+        return stats;
+    }
+
+    @Override
+    public void started() {
+        started.incrementAndGet();
+    }
+
+    @Override
+    public void parked() {
+        parked.incrementAndGet();
+    }
+
+    @Override
+    public void yielded(final int elements, final long handoffNanos) {
+        unparked.incrementAndGet();
+        yields.addAndGet(elements);
+        latency.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(handoffNanos, 0)));
+    }
+
+    @Override
+    public void exhausted() {
+        exhausted.incrementAndGet();
+    }
+
+    @Override
+    public void closed() {
+        closed.incrementAndGet();
+    }
+
+    @Override
+    public void reaped() {
+        reaped.incrementAndGet();
+    }
+
+    @Override
+    public void stopped() {
+        stopped.incrementAndGet();
+    }
+
+    @Override
+    public long getLiveGenerators() {
+        return started.get() - stopped.get();
+    }
+
+    @Override
+    public long getParkedInYield() {
+        return parked.get() - unparked.get();
+    }
+
+    @Override
+    public long getYields() {
+        return yields.get();
+    }
+
+    /**
+     * @return the rate since the previous call.
+     */
+    @Override
+    public synchronized double getYieldsPerSecond() {
+        final long now = System.nanoTime();
+        final long total = yields.get();
+        final double out = (total - lastYields) * 1e9 / Math.max(now - lastNanos, 1);
+        lastYields = total;
+        lastNanos = now;
+        return out;
+    }
+
+    @Override
+    public long getExhausted() {
+        return exhausted.get();
+    }
+
+    @Override
+    public long getClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public long getReaped() {
+        return reaped.get();
+    }
+
+    /**
+     * @return element i counts handoffs that waited at least 2^(i-1) and less than 2^i
+     * nanoseconds.
+     */
+    @Override
+    public long[] getHandoffLatencyHistogram() {
+        final long[] out = new long[latency.length()];
+        for (int i = 0; i < out.length; i++) out[i] = latency.get(i);
+        return out;
+    }
+}
@@ -0,0 +1,135 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-slot rendezvous between one producer thread and one consumer thread. Unlike a
+ * SynchronousQueue it allocates nothing per transfer: the item (which may be null) sits in a
+ * plain field published by the volatile state, and the waiting side parks. The termination
+ * signal is a state rather than a special item.
+ * <p/>
+ * Either side may cancel. A cancelled Handoff looks finished to the consumer, and the producer's
+ * next put throws InterruptedException, as does a pending one unless its item was already taken.
+ * DONE is a flag over EMPTY and FULL, so the producer can tell which of those it cancelled.
+ */
+final class Handoff {
+    private static final int EMPTY = 0;
+    private static final int FULL = 1;
+    private static final int DONE = 2;//flag
+
+    private static final AtomicIntegerFieldUpdater<Handoff> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Handoff.class, "state");
+    private volatile int state = EMPTY;
+    private volatile Thread producer;
+    private volatile Thread consumer;
+
+    // the plain fields are published by the volatile writes of state.
+    private Object item;
+    private int count;
+    private Object returned;
+
+    /**
+     * Consumer side. Valid from a successful take() until the next one.
+     */
+    Object taken;
+    int takenCount;
+
+    /**
+     * Call from the producer thread before the first put.
+     */
+    void register() {
+        producer = Thread.currentThread();
+    }
+
+    /**
+     * Blocks until the consumer has taken the item.
+     *
+     * @param item  the element or chunk
+     * @param count the number of elements in a chunk
+     * @return whatever the consumer gave back for reuse, possibly null.
+     * @throws InterruptedException if the producer thread is interrupted while waiting, or
+     *                              the Handoff was cancelled before the item was taken.
+     */
+    Object put(final Object item, final int count) throws InterruptedException {
+        this.item = item;
+        this.count = count;
+        if (!STATE.compareAndSet(this, EMPTY, FULL)) throw new InterruptedException();
+        LockSupport.unpark(consumer);
+        boolean interrupted = false;
+        int s;
+        while ((s = state) == FULL) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                if (state == FULL) throw new InterruptedException();
+                interrupted = true;//raced with a take or cancel, decided below.
+            }
+        }
+        if (s == (DONE | FULL)) throw new InterruptedException();//cancelled before the take.
+        // taken, even if cancelled since. The next put will throw.
+        if (interrupted) Thread.currentThread().interrupt();
+        final Object out = returned;
+        returned = null;
+        return out;
+    }
+
+    /**
+     * The done signal. Does not block.
+     */
+    void finish() {
+        markDone();
+        LockSupport.unpark(consumer);
+    }
+
+    /**
+     * Finishes early and wakes the producer. Does not block.
+     */
+    void cancel() {
+        markDone();
+        LockSupport.unpark(producer);
+        LockSupport.unpark(consumer);
+    }
+
+    private void markDone() {
+        int s;
+        do s = state; while ((s & DONE) == 0 && !STATE.compareAndSet(this, s, s | DONE));
+    }
+
+    /**
+     * Blocks until the producer puts an item or finishes.
+     *
+     * @param giveBack handed to the producer as the result of its put, for reuse.
+     * @return false on the done signal
+     * @throws InterruptedException if the consumer thread is interrupted while waiting
+     */
+    boolean take(final Object giveBack) throws InterruptedException {
+        consumer = Thread.currentThread();
+        int s;
+        while ((s = state) == EMPTY) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+        if ((s & DONE) != 0) return false;
+        taken = item;
+        takenCount = count;
+        item = null;
+        returned = giveBack;
+        if (!STATE.compareAndSet(this, FULL, EMPTY)) return false;//cancelled meanwhile.
+        LockSupport.unpark(producer);
+        return true;
+    }
+}
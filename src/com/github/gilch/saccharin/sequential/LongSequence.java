@@ -0,0 +1,164 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A sequence of primitive longs. Implement nextLong() instead of next(); loops that call
+ * nextLong() never box. It is still an Iterator of Long, boxing only when next() is called.
+ * <p/>
+ * The nested Infinite, LookAhead and Closing classes play the parts of {@link InfiniteSequence},
+ * {@link LookAheadSequence} and {@link CloseableSequence}.
+ *
+ * @see #valueOf(Iterator)
+ */
+public abstract class LongSequence extends SequenceAdapter<Long> {
+
+    /**
+     * @return the next element, unboxed.
+     * @throws NoSuchElementException if there isn't one.
+     */
+    public abstract long nextLong();
+
+    /**
+     * Boxes nextLong().
+     */
+    @Override
+    public final Long next() {
+        return nextLong();
+    }
+
+    /**
+     * Unboxing view of an Iterator of Longs.
+     *
+     * @param it the boxed Iterator
+     * @return it, if it is already a LongSequence.
+     */
+    public static LongSequence valueOf(final Iterator<Long> it) {
+        if (it instanceof LongSequence) return (LongSequence) it;
+        return new LongSequence() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return it.next();
+            }
+        };
+    }
+
+    /**
+     * An LongSequence that doesn't end.
+     */
+    public static abstract class Infinite extends LongSequence {
+        @Override
+        public final boolean hasNext() {
+            return true;
+        }
+    }
+
+    /**
+     * An LongSequence that looks ahead to decide if it hasNext(). Implement getNextLong().
+     */
+    public static abstract class LookAhead extends LongSequence {
+        private static final byte USED = 0;
+        private static final byte FRESH = 1;
+        private static final byte DONE = 2;
+
+        private byte state = USED;
+        private boolean ended;//set by done()
+        private long ahead;
+
+        /**
+         * The end-of-sequence signal for getNextLong(): <code>return done();</code>
+         *
+         * @return a dummy value, which is not an element.
+         */
+        protected final long done() {
+            ended = true;
+            return 0L;
+        }
+
+        /**
+         * @return the next element, or done() if there are no more.
+         */
+        protected abstract long getNextLong();
+
+        private boolean refresh() {
+            ahead = getNextLong();
+            state = ended ? DONE : FRESH;
+            return !ended;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            switch (state) {
+                case FRESH:
+                    return true;
+                case USED:
+                    return refresh();
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        public final long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            state = USED;
+            return ahead;
+        }
+
+        /**
+         * Ends the sequence early, discarding any element already looked ahead.
+         */
+        final void exhaust() {
+            state = DONE;
+        }
+    }
+
+    /**
+     * A LookAhead that holds resources, like {@link CloseableSequence}. Closing it ends the
+     * sequence and closes every upstream sequence registered with closing(Object...).
+     */
+    public static abstract class Closing extends LookAhead implements Closeable {
+        private final Resources resources = new Resources();
+
+        /**
+         * Registers upstream sources to be closed along with this sequence. Arguments that are
+         * not Closeable are ignored, so any Iterator may be passed.
+         *
+         * @param upstream sources this sequence reads from
+         * @return this
+         */
+        public final Closing closing(final Object... upstream) {
+            for (final Object o : upstream) {
+                if (o instanceof Closeable) resources.add((Closeable) o);
+            }
+            return this;
+        }
+
+        @Override
+        public void close() {
+            exhaust();
+            resources.close();
+        }
+    }
+}
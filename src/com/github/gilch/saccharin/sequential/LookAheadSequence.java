@@ -21,7 +21,9 @@ import java.util.NoSuchElementException;
  * minimize the effort required to implement this interface.
  * <p/>
  * The programmer need only extend this class with an implementation of getNext(). The getNext()
- * method must throw a NoSuchElementException if there isn't a next.
+ * method must signal the end of the sequence, either by returning done() or by throwing a
+ * NoSuchElementException. Returning done() is much cheaper, since it doesn't capture a stack
+ * trace.
  * <p/>
  * The remove() method throws UnsupportedOperationException.
  * The hasNext() and next() methods are implemented based on the abstract getNext(). This class
@@ -30,69 +32,74 @@ import java.util.NoSuchElementException;
  * @param <E>
  */
 public abstract class LookAheadSequence<E> extends SequenceAdapter<E> {
-    private static abstract class Strategy {
-        abstract boolean onHasNext(LookAheadSequence l);
+    // simple state machine. A switch on a byte keeps hasNext() and next() monomorphic.
+    private static final byte USED = 0;
+    private static final byte FRESH = 1;
+    private static final byte DONE = 2;
 
-        abstract void onNext(LookAheadSequence l);
-    }
+    private byte state = USED;//starting state.
+    private boolean ended;//set by done()
+    private E ahead;//the look-ahead element.
 
-    // simple state machine via subclasses.
-    private static final Strategy DONE = new Strategy() {
-        @Override
-        boolean onHasNext(final LookAheadSequence l) {
+    private boolean refresh() { // looks ahead.
+        final E e;
+        try {
+            e = getNext();
+        } catch (final NoSuchElementException x) {
+            state = DONE;
             return false;
         }
-
-        @Override
-        void onNext(final LookAheadSequence l) {
-            throw new NoSuchElementException();
-        }
-    };
-    private static final Strategy FRESH = new Strategy() {
-        @Override
-        boolean onHasNext(final LookAheadSequence l) {
-            return true;
-        }
-
-        @Override
-        void onNext(final LookAheadSequence l) {
-            l.state = USED;
-        }
-    };
-    private static final Strategy USED = new Strategy() {
-        @Override
-        boolean onHasNext(final LookAheadSequence l) {
-            return l.refresh().onHasNext(l);
-        }
-
-        @Override
-        void onNext(final LookAheadSequence l) {
-            l.refresh().onNext(l);
+        if (ended) {
+            state = DONE;
+            return false;
         }
-    };
+        ahead = e;
+        state = FRESH;
+        return true;
+    }
 
-    private Strategy state = USED;//starting state.
-    private E ahead;//the look-ahead element.
+    /**
+     * Ends the sequence early, discarding any element already looked ahead.
+     */
+    final void exhaust() {
+        state = DONE;
+        ahead = null;
+    }
 
-    private Strategy refresh() { // looks ahead.
-        try {
-            ahead = getNext();
-            return state = FRESH;
-        } catch (final NoSuchElementException e) {
-            return state = DONE;
-        }
+    /**
+     * The end-of-sequence signal for getNext(): <code>return done();</code>
+     *
+     * @return null, which is not an element.
+     */
+    protected final E done() {
+        ended = true;
+        return null;
     }
 
     @Override
     public final boolean hasNext() {
-        return state.onHasNext(this);
+        switch (state) {
+            case FRESH:
+                return true;
+            case USED:
+                return refresh();
+            default:
+                return false;
+        }
     }
 
     @Override
     public final E next() {
-        state.onNext(this);
-        return ahead;
+        if (!hasNext()) throw new NoSuchElementException();
+        state = USED;
+        final E out = ahead;
+        ahead = null;
+        return out;
     }
 
+    /**
+     * @return the next element, or done() if there are no more.
+     * @throws NoSuchElementException may be thrown instead of returning done().
+     */
     protected abstract E getNext() throws NoSuchElementException;
 }
@@ -0,0 +1,204 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pulls from several Iterators in parallel, one background task per source, and interleaves
+ * their elements into one sequence. Each source runs ahead of the consumer by at most
+ * bufferSize elements.
+ * <p/>
+ * Unordered, the next element comes from whichever source has one ready. Ordered, the sources
+ * take strict turns (first element of each source in order, then the second of each, and so
+ * on, skipping sources that have ended), so the output doesn't depend on timing.
+ * <p/>
+ * If a source throws, next() rethrows it (wrapped if checked) and the other sources are
+ * stopped. Closing the sequence stops every background task and closes the sources.
+ *
+ * @param <E>
+ * @see com.github.gilch.saccharin.Lazy#mergeRx(List)
+ */
+public final class MergedSequence<E> extends CloseableSequence<E> {
+    // queues can't hold nulls, and the end and failure signals are in band.
+    private static final Object NULL = new Object();
+    private static final Object END = new Object();
+
+    private static final class Failure {
+        final Throwable t;
+
+        Failure(final Throwable t) {
+            this.t = t;
+        }
+    }
+
+    private final Pumps pumps;
+    private final boolean ordered;
+    private final boolean[] ended;
+    private int live;
+    private int cursor = 0;
+
+    /**
+     * Starts pulling from the sources immediately.
+     *
+     * @param sources    the Iterators to merge
+     * @param ordered    take strict turns instead of first come, first served
+     * @param bufferSize how many elements each source may run ahead
+     * @param executor   runs one task per source
+     */
+    public MergedSequence(
+            final List<? extends Iterator<? extends E>> sources, final boolean ordered,
+            final int bufferSize, final GeneratorExecutor executor) {
+        if (bufferSize < 1) throw new IllegalArgumentException("bufferSize < 1");
+        this.ordered = ordered;
+        live = sources.size();
+        ended = new boolean[live];
+        pumps = new Pumps(live, bufferSize, !ordered);
+        // the pumps must not refer to this sequence, so it can be reaped.
+        resources.add(pumps);
+        closing(sources.toArray());
+        reapWhenUnreachable(resources);
+        for (int i = 0; i < live; i++) pumps.start(i, sources.get(i), executor);
+    }
+
+    /**
+     * The background half. Kept apart from the sequence so the sequence can be collected.
+     */
+    private static final class Pumps implements Closeable {
+        final BlockingQueue<Object>[] queues;
+        final Semaphore available;//total of queued items, when unordered.
+        private final Thread[] threads;
+        private volatile boolean closed = false;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Pumps(final int n, final int bufferSize, final boolean signal) {
+            queues = new BlockingQueue[n];
+            for (int i = 0; i < n; i++) queues[i] = new ArrayBlockingQueue<Object>(bufferSize);
+            available = signal ? new Semaphore(0) : null;
+            threads = new Thread[n];
+        }
+
+        void start(final int i, final Iterator<?> source, final GeneratorExecutor executor) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (Pumps.this) {
+                        if (closed) return;
+                        threads[i] = Thread.currentThread();
+                    }
+                    try {
+                        while (source.hasNext()) {
+                            final Object e = source.next();
+                            put(i, e == null ? NULL : e);
+                        }
+                        put(i, END);
+                    } catch (final InterruptedException e) {
+                        // aborted by close, correct action is nop.
+                    } catch (final Throwable t) {
+                        try {
+                            put(i, new Failure(t));
+                        } catch (final InterruptedException e) {
+                            // closed meanwhile, nobody left to tell.
+                        }
+                    } finally {
+                        synchronized (Pumps.this) {
+                            threads[i] = null;
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * @throws InterruptedException once closed. A source may swallow the interrupt from
+         *                              close, and then nobody would drain a full queue.
+         */
+        private void put(final int i, final Object o) throws InterruptedException {
+            // close interrupts after setting closed, so a put that passes this check still wakes.
+            if (closed) throw new InterruptedException();
+            queues[i].put(o);
+            if (available != null) available.release();
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            for (final Thread t : threads) if (t != null) t.interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected E getNext() throws NoSuchElementException {
+        try {
+            while (live > 0) {
+                final Object o = ordered ? takeInTurn() : takeAny();
+                if (o == null) continue;//that source ended.
+                if (o == NULL) return null;
+                if (o instanceof Failure) {
+                    close();
+                    final Throwable t = ((Failure) o).t;
+                    if (t instanceof RuntimeException) throw (RuntimeException) t;
+                    if (t instanceof Error) throw (Error) t;
+                    throw new RuntimeException(t);
+                }
+                return (E) o;
+            }
+        } catch (final InterruptedException e) {
+            // fall through.
+        }
+        return done();
+    }
+
+    /**
+     * @return the next item, or null if it was the end of a source.
+     */
+    private Object takeInTurn() throws InterruptedException {
+        while (ended[cursor]) cursor = (cursor + 1) % ended.length;
+        final int i = cursor;
+        cursor = (cursor + 1) % ended.length;
+        return check(i, pumps.queues[i].take());
+    }
+
+    /**
+     * @return the next item, or null if it was the end of a source.
+     */
+    private Object takeAny() throws InterruptedException {
+        pumps.available.acquire();
+        // round robin, so a fast source can't starve the others.
+        for (int k = 0; k < ended.length; k++) {
+            final int i = (cursor + k) % ended.length;
+            final Object o = pumps.queues[i].poll();
+            if (o != null) {
+                cursor = (i + 1) % ended.length;
+                return check(i, o);
+            }
+        }
+        throw new IllegalStateException();//a permit always means an item.
+    }
+
+    private Object check(final int i, final Object o) {
+        if (o != END) return o;
+        ended[i] = true;
+        live--;
+        return null;
+    }
+}
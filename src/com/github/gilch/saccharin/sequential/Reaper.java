@@ -0,0 +1,87 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Closes a resource once its owner becomes unreachable, like java.lang.ref.Cleaner, which
+ * doesn't exist before Java 9. Unlike finalize(), the owner is never resurrected, and an owner
+ * that closes its resource early and deterministically can cancel().
+ * <p/>
+ * The resource must not refer to its owner, or the owner will never become unreachable.
+ */
+final class Reaper extends PhantomReference<Object> {
+    private static final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+    // phantom references must themselves stay reachable until they are enqueued.
+    private static final Set<Reaper> pending = Collections.synchronizedSet(new HashSet<Reaper>());
+
+    static {
+        final Thread reaper = new Thread("saccharin-reaper") {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        ((Reaper) queue.remove()).reap();
+                    } catch (final InterruptedException e) {
+                        // nothing else to do on this thread, so keep reaping.
+                    } catch (final Throwable t) {
+                        // unexpected throw and I want to know, but don't stop reaping!
+                        t.printStackTrace();
+                    }
+                }
+            }
+        };
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    private final Closeable resource;
+
+    private Reaper(final Object owner, final Closeable resource) {
+        super(owner, queue);
+        this.resource = resource;
+    }
+
+    static Reaper register(final Object owner, final Closeable resource) {
+        final Reaper out = new Reaper(owner, resource);
+        pending.add(out);
+        return out;
+    }
+
+    /**
+     * Deregisters, so the resource won't be closed by the Reaper. Call when the owner closes
+     * the resource itself.
+     */
+    void cancel() {
+        pending.remove(this);
+        clear();
+    }
+
+    private void reap() {
+        if (!pending.remove(this)) return;
+        try {
+            resource.close();
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
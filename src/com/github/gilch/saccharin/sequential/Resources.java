@@ -0,0 +1,60 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Closeables that are closed together, in the order added, at most once. Every one is closed
+ * even if an earlier one throws; the first exception is rethrown afterwards.
+ */
+final class Resources implements Closeable {
+    private List<Closeable> closeables = new ArrayList<Closeable>();
+
+    synchronized void add(final Closeable c) {
+        if (closeables == null) close(c);//already closed.
+        else closeables.add(c);
+    }
+
+    @Override
+    public void close() {
+        final List<Closeable> toClose;
+        synchronized (this) {
+            toClose = closeables;
+            closeables = null;
+        }
+        if (toClose == null) return;
+        RuntimeException first = null;
+        for (final Closeable c : toClose) {
+            try {
+                close(c);
+            } catch (final RuntimeException e) {
+                if (first == null) first = e;
+            }
+        }
+        if (first != null) throw first;
+    }
+
+    private static void close(final Closeable c) {
+        try {
+            c.close();
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
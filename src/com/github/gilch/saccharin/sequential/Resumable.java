@@ -0,0 +1,50 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Generator subclass to be translated into a thread-free {@link StateMachine} when it
+ * is compiled. {@link ResumableProcessor} writes a sibling class named after the Generator
+ * with StateMachine appended, so <code>Countdown</code> also gets a
+ * <code>CountdownStateMachine</code>. It has the same fields, methods and constructors, and
+ * its resume() runs the body of generate() on the caller's thread.
+ * <p/>
+ * <code>
+ * &#64;Resumable<br />
+ * public class Countdown extends Generator&lt;Integer&gt; {<br />
+ * &nbsp;&nbsp;final int n;<br />
+ * &nbsp;&nbsp;public Countdown(int n) { this.n = n; }<br />
+ * &nbsp;&nbsp;protected void generate() { for (int i = n; i &gt; 0; i--) yield(i); }<br />
+ * }<br />
+ * ...<br />
+ * new Countdown(3).start() // on a background thread<br />
+ * new CountdownStateMachine(3) // the same sequence, on this thread
+ * </code>
+ * <p/>
+ * The class must be top level or a static member class, and must extend Generator directly.
+ * A nested class's name is prefixed with the names of the classes around it. See
+ * ResumableProcessor for the statements a yield may appear in.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Resumable {
+}
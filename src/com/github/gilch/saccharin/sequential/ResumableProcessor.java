@@ -0,0 +1,864 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import com.sun.source.tree.*;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a {@link StateMachine} for each {@link Resumable} Generator. It reads the source of
+ * generate() through the compiler's tree API, so it needs javac (JDK 7 or later) to run, but
+ * the classes it writes need only the library.
+ * <p/>
+ * The translation follows the recipe in StateMachine. Locals of generate() become fields, and
+ * the body is cut into numbered blocks at each yield and at each branch of the control flow
+ * around one. resume() runs blocks until the next yield. Statements that contain no yield are
+ * copied as they are.
+ * <p/>
+ * A yield(E) must be a statement of its own. It may be nested in blocks, if/else, while,
+ * do/while, for and for-each loops, and try/finally, along with break, continue and return.
+ * The finally blocks run on exhaustion, on an exception, and when the sequence is closed
+ * early. These are reported as errors around a yield: labeled statements, switch, synchronized,
+ * try with catch clauses or resources, and local classes. Since Java 14 javac reads a bare
+ * yield(E) as a switch expression's yield, so write this.yield(E) there.
+ * <p/>
+ * Since the locals are now fields, a lambda or anonymous class in a loop sees the field's
+ * latest value, not the value from its own iteration. Copy such a local inside a statement
+ * without a yield first.
+ */
+@SupportedAnnotationTypes("com.github.gilch.saccharin.sequential.Resumable")
+public class ResumableProcessor extends AbstractProcessor {
+    private static final String SUFFIX = "StateMachine";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(
+            final Set<? extends TypeElement> annotations, final RoundEnvironment round) {
+        final Trees trees = Trees.instance(processingEnv);
+        for (final Element e : round.getElementsAnnotatedWith(Resumable.class)) {
+            final TreePath path = trees.getPath(e);
+            if (path == null) continue;//not from source.
+            final TypeElement type = (TypeElement) e;
+            try {
+                final Translation t = new Translation(trees, path, type);
+                final String source = t.toSource();
+                final Writer out = processingEnv.getFiler()
+                        .createSourceFile(t.qualifiedName(), type).openWriter();
+                try {
+                    out.write(source);
+                } finally {
+                    out.close();
+                }
+            } catch (final Unsupported u) {
+                trees.printMessage(Diagnostic.Kind.ERROR, u.getMessage(), u.tree,
+                        path.getCompilationUnit());
+            } catch (final IOException x) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, x.toString(), e);
+            }
+        }
+        return true;
+    }
+
+    private static final class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final transient Tree tree;
+
+        Unsupported(final Tree tree, final String message) {
+            super(message);
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * The loops and tries around the statement being translated, innermost last.
+     */
+    private static class Frame {
+    }
+
+    private static final class Loop extends Frame {
+        final int breakTo;
+        final int continueTo;
+
+        Loop(final int breakTo, final int continueTo) {
+            this.breakTo = breakTo;
+            this.continueTo = continueTo;
+        }
+    }
+
+    private static final class Try extends Frame {
+        final int index;
+        final int after;//block that runs the finally on the normal path. Outside this try.
+        final Try parent;
+        final BlockTree finallyBlock;
+
+        Try(final int index, final int after, final Try parent, final BlockTree finallyBlock) {
+            this.index = index;
+            this.after = after;
+            this.parent = parent;
+            this.finallyBlock = finallyBlock;
+        }
+    }
+
+    private static final class Translation {
+        private static final String DONE = "-1";
+
+        private final CompilationUnitTree unit;
+        private final ClassTree cls;
+        private final TypeElement type;
+        private final SourcePositions positions;
+        private final CharSequence source;
+
+        private final List<StringBuilder> blocks = new ArrayList<StringBuilder>();
+        private final List<Try> owners = new ArrayList<Try>();//innermost try of each block
+        private final List<Try> tries = new ArrayList<Try>();
+        private final List<Frame> frames = new ArrayList<Frame>();
+        private final Set<Integer> ended = new HashSet<Integer>();//blocks ending in a jump
+        private final Map<String, String> fields = new LinkedHashMap<String, String>();
+        private final List<String> memberNames = new ArrayList<String>();
+        private Try innermost;
+        private int current = -1;//the block being written, or -1 after a jump.
+
+        Translation(final Trees trees, final TreePath path, final TypeElement type) {
+            unit = path.getCompilationUnit();
+            cls = (ClassTree) path.getLeaf();
+            this.type = type;
+            positions = trees.getSourcePositions();
+            try {
+                source = unit.getSourceFile().getCharContent(true);
+            } catch (final IOException e) {
+                throw new Unsupported(cls, "can't read the source: " + e);
+            }
+        }
+
+        String qualifiedName() {
+            final String pkg = packageName();
+            return pkg.isEmpty() ? simpleName() : pkg + '.' + simpleName();
+        }
+
+        private String packageName() {
+            Element e = type;
+            while (e.getKind() != ElementKind.PACKAGE) e = e.getEnclosingElement();
+            return e.toString().equals("unnamed package") || e.getSimpleName().length() == 0
+                    ? "" : e.toString();
+        }
+
+        private String simpleName() {
+            final StringBuilder name = new StringBuilder(SUFFIX);
+            for (Element e = type; e.getKind() != ElementKind.PACKAGE;
+                 e = e.getEnclosingElement()) {
+                if (!(e instanceof TypeElement)) throw new Unsupported(cls, "not a member class");
+                name.insert(0, e.getSimpleName());
+            }
+            return name.toString();
+        }
+
+        private String text(final Tree t) {
+            final long start = positions.getStartPosition(unit, t);
+            final long end = positions.getEndPosition(unit, t);
+            if (start < 0 || end < 0) throw new Unsupported(t, "no source positions");
+            return source.subSequence((int) start, (int) end).toString();
+        }
+
+        private String condition(final ExpressionTree e) {
+            if (e instanceof ParenthesizedTree)
+                return "(" + text(((ParenthesizedTree) e).getExpression()) + ")";
+            return "(" + text(e) + ")";
+        }
+
+        String toSource() {
+            final Set<Modifier> mods = type.getModifiers();
+            if (mods.contains(Modifier.ABSTRACT)) throw new Unsupported(cls, "abstract Generator");
+            if (type.getEnclosingElement().getKind() != ElementKind.PACKAGE
+                    && !mods.contains(Modifier.STATIC))
+                throw new Unsupported(cls, "a nested Generator must be static");
+            final String element = elementType();
+            final String name = simpleName();
+
+            MethodTree generate = null;
+            final StringBuilder members = new StringBuilder();
+            for (final Tree m : cls.getMembers()) {
+                if (m instanceof VariableTree)
+                    memberNames.add(((VariableTree) m).getName().toString());
+            }
+            for (final Tree m : cls.getMembers()) {
+                if (positions.getEndPosition(unit, m) < 0) continue;//the default constructor
+                if (m instanceof MethodTree) {
+                    final MethodTree method = (MethodTree) m;
+                    final String methodName = method.getName().toString();
+                    if (methodName.equals("generate") && method.getParameters().isEmpty()) {
+                        generate = method;
+                        continue;
+                    }
+                    if (methodName.equals("<init>")) {
+                        members.append("    ").append(constructor(method, name)).append("\n\n");
+                        continue;
+                    }
+                }
+                final String member = text(m);
+                members.append("    ").append(member)
+                        .append(member.endsWith(";") || member.endsWith("}") ? "" : ";")
+                        .append("\n\n");
+            }
+            if (generate == null || generate.getBody() == null)
+                throw new Unsupported(cls, "no generate() body");
+
+            current = newBlock();
+            lower(generate.getBody());
+            for (int i = 0; i < blocks.size(); i++) {
+                if (ended.contains(i)) continue;
+                current = i;//the end of generate(), or a block nothing jumps to.
+                emit("label = " + DONE + ";");
+                emit("return;");
+            }
+
+            final StringBuilder out = new StringBuilder();
+            out.append("// Generated by ResumableProcessor from ").append(type.getSimpleName())
+                    .append(". Edit that class, not this one.\n");
+            final String pkg = packageName();
+            if (!pkg.isEmpty()) out.append("package ").append(pkg).append(";\n");
+            out.append('\n');
+            for (final ImportTree i : unit.getImports()) {
+                out.append("import ").append(i.isStatic() ? "static " : "")
+                        .append(i.getQualifiedIdentifier()).append(";\n");
+            }
+            for (Element e = type.getEnclosingElement(); e instanceof TypeElement;
+                 e = e.getEnclosingElement()) {
+                final String outer = ((TypeElement) e).getQualifiedName().toString();
+                out.append("import ").append(outer).append(".*;\n");
+                out.append("import static ").append(outer).append(".*;\n");
+            }
+            out.append('\n');
+            if (mods.contains(Modifier.PUBLIC)) out.append("public ");
+            if (mods.contains(Modifier.FINAL)) out.append("final ");
+            out.append("class ").append(name).append(typeParameters())
+                    .append(" extends com.github.gilch.saccharin.sequential.StateMachine<")
+                    .append(element).append('>').append(interfaces()).append(" {\n");
+            out.append(members);
+            out.append("    // the locals of generate().\n");
+            for (final Map.Entry<String, String> f : fields.entrySet()) {
+                out.append("    private ").append(f.getValue()).append(' ').append(f.getKey())
+                        .append(";\n");
+            }
+            out.append('\n');
+            appendResume(out);
+            appendUnwind(out);
+            for (final Try t : tries) {
+                out.append("    private void $finally").append(t.index).append("() ")
+                        .append(text(t.finallyBlock)).append("\n\n");
+            }
+            out.append("}\n");
+            return out.toString();
+        }
+
+        private String elementType() {
+            final Tree ext = cls.getExtendsClause();
+            if (ext instanceof ParameterizedTypeTree) {
+                final ParameterizedTypeTree p = (ParameterizedTypeTree) ext;
+                final String raw = text(p.getType());
+                if ((raw.equals("Generator") || raw.endsWith(".Generator"))
+                        && p.getTypeArguments().size() == 1)
+                    return text(p.getTypeArguments().get(0));
+            }
+            throw new Unsupported(cls, "a Resumable class must extend Generator<E> directly");
+        }
+
+        private String typeParameters() {
+            final List<? extends TypeParameterTree> params = cls.getTypeParameters();
+            if (params.isEmpty()) return "";
+            final StringBuilder out = new StringBuilder("<");
+            for (final TypeParameterTree p : params) {
+                if (out.length() > 1) out.append(", ");
+                out.append(text(p));
+            }
+            return out.append('>').toString();
+        }
+
+        private String interfaces() {
+            final List<? extends Tree> impl = cls.getImplementsClause();
+            if (impl.isEmpty()) return "";
+            final StringBuilder out = new StringBuilder(" implements ");
+            for (final Tree i : impl) {
+                if (out.length() > 12) out.append(", ");
+                out.append(text(i));
+            }
+            return out.toString();
+        }
+
+        /**
+         * The constructor, renamed, without its super(...) call to a Generator constructor.
+         */
+        private String constructor(final MethodTree c, final String name) {
+            final long start = positions.getStartPosition(unit, c);
+            String body = text(c.getBody());
+            final List<? extends StatementTree> statements = c.getBody().getStatements();
+            if (!statements.isEmpty() && statements.get(0) instanceof ExpressionStatementTree) {
+                final ExpressionTree call =
+                        ((ExpressionStatementTree) statements.get(0)).getExpression();
+                if (call instanceof MethodInvocationTree && ((MethodInvocationTree) call)
+                        .getMethodSelect().toString().equals("super")) {
+                    final Tree superCall = statements.get(0);
+                    final long from = positions.getStartPosition(unit, superCall)
+                            - positions.getStartPosition(unit, c.getBody());
+                    final long to = positions.getEndPosition(unit, superCall)
+                            - positions.getStartPosition(unit, c.getBody());
+                    body = body.substring(0, (int) from) + "//super call dropped."
+                            + body.substring((int) to);
+                }
+            }
+            final String head = source.subSequence(
+                    (int) start, (int) positions.getStartPosition(unit, c.getBody())).toString();
+            final String simple = type.getSimpleName().toString();
+            final int at = head.indexOf(simple + "(") >= 0
+                    ? head.indexOf(simple + "(") : head.indexOf(simple);
+            return head.substring(0, at) + name + head.substring(at + simple.length()) + body;
+        }
+
+        private void appendResume(final StringBuilder out) {
+            out.append("    @Override\n");
+            out.append("    protected void resume() {\n");
+            out.append("        boolean $finished = false;\n");
+            out.append("        try {\n");
+            out.append("            $resume();\n");
+            out.append("            $finished = true;\n");
+            out.append("        } catch (final InterruptedException $e) {\n");
+            out.append("            Thread.currentThread().interrupt();\n");
+            out.append("        } finally {\n");
+            out.append("            if (!$finished) $unwind();\n");
+            out.append("        }\n");
+            out.append("    }\n\n");
+            out.append("    private void $resume() throws InterruptedException {\n");
+            out.append("        while (true) {\n");
+            out.append("            switch (label) {\n");
+            for (int i = 0; i < blocks.size(); i++) {
+                out.append("                case ").append(i).append(": {\n");
+                out.append(blocks.get(i));
+                out.append("                }\n");
+            }
+            out.append("                default:\n");
+            out.append("                    return;\n");
+            out.append("            }\n");
+            out.append("        }\n");
+            out.append("    }\n\n");
+        }
+
+        /**
+         * Runs the finally blocks around the current label, innermost first, even if one throws.
+         */
+        private void appendUnwind(final StringBuilder out) {
+            out.append("    private void $unwind() {\n");
+            out.append("        try {\n");
+            out.append("            switch (label) {\n");
+            for (final Try t : tries) {
+                boolean any = false;
+                for (int i = 0; i < owners.size(); i++) {
+                    if (owners.get(i) != t) continue;
+                    out.append("                case ").append(i).append(":\n");
+                    any = true;
+                }
+                if (!any) continue;
+                out.append("                    label = ").append(t.after).append(";\n");
+                out.append("                    $finally").append(t.index).append("();\n");
+                out.append("                    break;\n");
+            }
+            out.append("                default:\n");
+            out.append("                    label = ").append(DONE).append(";\n");
+            out.append("            }\n");
+            out.append("        } finally {\n");
+            out.append("            if (label != ").append(DONE).append(") $unwind();\n");
+            out.append("        }\n");
+            out.append("    }\n\n");
+            out.append("    @Override\n");
+            out.append("    public void close() {\n");
+            out.append("        try {\n");
+            out.append("            $unwind();\n");
+            out.append("        } finally {\n");
+            out.append("            super.close();\n");
+            out.append("        }\n");
+            out.append("    }\n\n");
+        }
+
+        private int newBlock() {
+            blocks.add(new StringBuilder());
+            owners.add(innermost);
+            return blocks.size() - 1;
+        }
+
+        private void emit(final String code) {
+            if (current < 0) current = newBlock();//unreachable, as javac already checked.
+            blocks.get(current).append("                    ").append(code).append('\n');
+        }
+
+        private void jump(final int target) {
+            emit("label = " + target + ";");
+            emit("continue;");
+            end();
+        }
+
+        private void end() {
+            ended.add(current);
+            current = -1;
+        }
+
+        /**
+         * Continues in the given block, jumping to it if the current one can reach its end.
+         */
+        private void enter(final int block) {
+            if (current >= 0) jump(block);
+            current = block;
+        }
+
+        private void field(final String name, final String fieldType, final Tree at) {
+            if (name.equals("label") || memberNames.contains(name))
+                throw new Unsupported(at, "local " + name + " clashes with a field; rename it");
+            final String old = fields.put(name, fieldType);
+            if (old != null && !old.equals(fieldType))
+                throw new Unsupported(at, "locals named " + name + " have different types");
+        }
+
+        private void lower(final StatementTree s) {
+            if (s instanceof VariableTree) {
+                hoist((VariableTree) s);
+                return;
+            }
+            if (s instanceof ClassTree) throw new Unsupported(s, "local classes aren't supported");
+            if (!Yields.in(s) && !Escapes.in(s)) {
+                final String code = s instanceof ExpressionStatementTree
+                        ? text(((ExpressionStatementTree) s).getExpression()) + ";" : text(s);
+                final String statement = code.endsWith(";") || code.endsWith("}")
+                        ? code : code + ";";
+                if (s instanceof ThrowTree) {
+                    emit(statement);
+                    end();
+                } else {
+                    // javac rejects the jump after a statement that can't complete normally.
+                    emit(Throws.in(s) ? "if (true) " + statement : statement);
+                }
+                return;
+            }
+            switch (s.getKind()) {
+                case BLOCK:
+                    for (final StatementTree t : ((BlockTree) s).getStatements()) lower(t);
+                    return;
+                case EMPTY_STATEMENT:
+                    return;
+                case EXPRESSION_STATEMENT:
+                    lowerYield((ExpressionStatementTree) s);
+                    return;
+                case IF:
+                    lowerIf((IfTree) s);
+                    return;
+                case WHILE_LOOP:
+                    lowerWhile((WhileLoopTree) s);
+                    return;
+                case DO_WHILE_LOOP:
+                    lowerDoWhile((DoWhileLoopTree) s);
+                    return;
+                case FOR_LOOP:
+                    lowerFor((ForLoopTree) s);
+                    return;
+                case ENHANCED_FOR_LOOP:
+                    lowerForEach((EnhancedForLoopTree) s);
+                    return;
+                case TRY:
+                    lowerTry((TryTree) s);
+                    return;
+                case BREAK:
+                    if (((BreakTree) s).getLabel() != null)
+                        throw new Unsupported(s, "labeled break isn't supported around a yield");
+                    leave(s, true);
+                    return;
+                case CONTINUE:
+                    if (((ContinueTree) s).getLabel() != null)
+                        throw new Unsupported(s, "labeled continue isn't supported around a yield");
+                    leave(s, false);
+                    return;
+                case RETURN:
+                    for (int i = frames.size() - 1; i >= 0; i--) {
+                        if (frames.get(i) instanceof Try) runFinally((Try) frames.get(i));
+                    }
+                    emit("label = " + DONE + ";");
+                    emit("return;");
+                    end();
+                    return;
+                default:
+                    throw new Unsupported(s, s.getKind().toString().toLowerCase()
+                            .replace('_', ' ') + " isn't supported around a yield");
+            }
+        }
+
+        private void hoist(final VariableTree v) {
+            final String name = v.getName().toString();
+            final String fieldType = text(v.getType());
+            if (fieldType.equals("var")) throw new Unsupported(v, "give " + name + " a type");
+            field(name, fieldType, v);
+            final ExpressionTree init = v.getInitializer();
+            if (init == null) return;
+            if (Yields.in(init)) throw new Unsupported(init, "yield(E) must be a statement");
+            final boolean bare = init instanceof NewArrayTree
+                    && ((NewArrayTree) init).getType() == null;//{1, 2}
+            emit(name + " = " + (bare ? "new " + fieldType + " " : "") + text(init) + ";");
+        }
+
+        private void lowerYield(final ExpressionStatementTree s) {
+            final ExpressionTree e = s.getExpression();
+            if (!(e instanceof MethodInvocationTree) || !Yields.isYield((MethodInvocationTree) e)
+                    || ((MethodInvocationTree) e).getArguments().size() != 1)
+                throw new Unsupported(s, "yield(E) must be a statement of its own");
+            final int next = newBlock();
+            emit("this.yield(" + text(((MethodInvocationTree) e).getArguments().get(0)) + ");");
+            emit("label = " + next + ";");
+            emit("return;");
+            end();
+            current = next;
+        }
+
+        private void lowerIf(final IfTree s) {
+            final int join = newBlock();
+            final int otherwise = s.getElseStatement() == null ? join : newBlock();
+            emit("if (!" + condition(s.getCondition()) + ") {");
+            emit("    label = " + otherwise + ";");
+            emit("    continue;");
+            emit("}");
+            lower(s.getThenStatement());
+            if (s.getElseStatement() != null) {
+                if (current >= 0) jump(join);
+                current = otherwise;
+                lower(s.getElseStatement());
+            }
+            enter(join);
+        }
+
+        private void exitUnless(final String condition, final int exit) {
+            emit("if (!" + condition + ") {");
+            emit("    label = " + exit + ";");
+            emit("    continue;");
+            emit("}");
+        }
+
+        private void loopBody(final StatementTree body, final int exit, final int next) {
+            frames.add(new Loop(exit, next));
+            lower(body);
+            frames.remove(frames.size() - 1);
+        }
+
+        private void lowerWhile(final WhileLoopTree s) {
+            final int top = newBlock();
+            final int exit = newBlock();
+            enter(top);
+            exitUnless(condition(s.getCondition()), exit);
+            loopBody(s.getStatement(), exit, top);
+            enter(top);
+            current = exit;
+        }
+
+        private void lowerDoWhile(final DoWhileLoopTree s) {
+            final int body = newBlock();
+            final int test = newBlock();
+            final int exit = newBlock();
+            enter(body);
+            loopBody(s.getStatement(), exit, test);
+            enter(test);
+            emit("if " + condition(s.getCondition()) + " {");
+            emit("    label = " + body + ";");
+            emit("    continue;");
+            emit("}");
+            enter(exit);
+        }
+
+        private void lowerFor(final ForLoopTree s) {
+            for (final StatementTree init : s.getInitializer()) lower(init);
+            final int top = newBlock();
+            final int step = newBlock();
+            final int exit = newBlock();
+            enter(top);
+            if (s.getCondition() != null) exitUnless(condition(s.getCondition()), exit);
+            loopBody(s.getStatement(), exit, step);
+            enter(step);
+            for (final ExpressionStatementTree update : s.getUpdate())
+                emit(text(update.getExpression()) + ";");
+            enter(top);
+            current = exit;
+        }
+
+        private void lowerForEach(final EnhancedForLoopTree s) {
+            final VariableTree v = s.getVariable();
+            final String name = v.getName().toString();
+            final String elementType = text(v.getType());
+            final String it = "$it" + fields.size();
+            field(it, "java.util.Iterator<? extends " + boxed(elementType) + ">", s);
+            field(name, elementType, v);
+            emit(it + " = iterate(" + text(s.getExpression()) + ");");
+            final int top = newBlock();
+            final int exit = newBlock();
+            enter(top);
+            exitUnless(it + ".hasNext()", exit);
+            emit(name + " = " + it + ".next();");
+            loopBody(s.getStatement(), exit, top);
+            enter(top);
+            current = exit;
+            emit(it + " = null;");
+        }
+
+        private static String boxed(final String type) {
+            if (type.equals("int")) return "Integer";
+            if (type.equals("char")) return "Character";
+            if (type.equals("byte") || type.equals("short") || type.equals("long")
+                    || type.equals("float") || type.equals("double") || type.equals("boolean"))
+                return Character.toUpperCase(type.charAt(0)) + type.substring(1);
+            return type;
+        }
+
+        private void lowerTry(final TryTree s) {
+            if (!s.getCatches().isEmpty() || !s.getResources().isEmpty())
+                throw new Unsupported(s, "a yield can't be in a try with catches or resources");
+            final BlockTree fin = s.getFinallyBlock();
+            if (Yields.in(fin) || Escapes.in(fin))
+                throw new Unsupported(fin,
+                        "a finally block can't yield, break, continue or return");
+            final Try t = new Try(tries.size(), newBlock(), innermost, fin);
+            tries.add(t);
+            innermost = t;
+            frames.add(t);
+            enter(newBlock());
+            lower(s.getBlock());
+            frames.remove(frames.size() - 1);
+            innermost = t.parent;
+            enter(t.after);
+            emit("$finally" + t.index + "();");
+        }
+
+        private void runFinally(final Try t) {
+            emit("label = " + t.after + ";");
+            emit("$finally" + t.index + "();");
+        }
+
+        /**
+         * break or continue the innermost loop, running the finally blocks in between.
+         */
+        private void leave(final StatementTree s, final boolean isBreak) {
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                final Frame f = frames.get(i);
+                if (f instanceof Try) {
+                    runFinally((Try) f);
+                } else {
+                    final Loop loop = (Loop) f;
+                    jump(isBreak ? loop.breakTo : loop.continueTo);
+                    return;
+                }
+            }
+            throw new Unsupported(s, "no loop to leave");
+        }
+    }
+
+    /**
+     * Finds yield calls, even in nested classes, where they can't be translated.
+     */
+    private static final class Yields extends TreeScanner<Boolean, Void> {
+        static boolean in(final Tree t) {
+            return Boolean.TRUE.equals(new Yields().scan(t, null));
+        }
+
+        static boolean isYield(final MethodInvocationTree call) {
+            final ExpressionTree select = call.getMethodSelect();
+            if (select instanceof IdentifierTree)
+                return ((IdentifierTree) select).getName().contentEquals("yield");
+            if (select instanceof MemberSelectTree) {
+                final MemberSelectTree member = (MemberSelectTree) select;
+                return member.getIdentifier().contentEquals("yield")
+                        && member.getExpression().toString().equals("this");
+            }
+            return false;
+        }
+
+        @Override
+        public Boolean visitMethodInvocation(final MethodInvocationTree node, final Void p) {
+            if (isYield(node)) return true;
+            return super.visitMethodInvocation(node, p);
+        }
+
+        @Override
+        public Boolean reduce(final Boolean a, final Boolean b) {
+            return Boolean.TRUE.equals(a) || Boolean.TRUE.equals(b);
+        }
+    }
+
+    /**
+     * Finds throw statements and loops, which may keep a statement from completing normally.
+     */
+    private static final class Throws extends TreeScanner<Boolean, Void> {
+        static boolean in(final Tree t) {
+            return Boolean.TRUE.equals(new Throws().scan(t, null));
+        }
+
+        @Override
+        public Boolean scan(final Tree tree, final Void p) {
+            if (tree instanceof ClassTree) return false;
+            if (tree != null && tree.getKind().name().equals("LAMBDA_EXPRESSION")) return false;
+            if (tree instanceof ThrowTree || tree instanceof WhileLoopTree
+                    || tree instanceof DoWhileLoopTree || tree instanceof ForLoopTree)
+                return true;
+            return super.scan(tree, p);
+        }
+
+        @Override
+        public Boolean reduce(final Boolean a, final Boolean b) {
+            return Boolean.TRUE.equals(a) || Boolean.TRUE.equals(b);
+        }
+    }
+
+    /**
+     * Finds break, continue and return statements that jump out of the scanned statement.
+     */
+    private static final class Escapes extends TreeScanner<Boolean, Void> {
+        private int loops = 0;
+        private int switches = 0;
+        private final List<String> labels = new ArrayList<String>();
+
+        static boolean in(final Tree t) {
+            return Boolean.TRUE.equals(new Escapes().scan(t, null));
+        }
+
+        @Override
+        public Boolean scan(final Tree tree, final Void p) {
+            // jumps in a nested class or lambda stay there.
+            if (tree instanceof ClassTree) return false;
+            if (tree != null && tree.getKind().name().equals("LAMBDA_EXPRESSION")) return false;
+            return super.scan(tree, p);
+        }
+
+        @Override
+        public Boolean reduce(final Boolean a, final Boolean b) {
+            return Boolean.TRUE.equals(a) || Boolean.TRUE.equals(b);
+        }
+
+        private Boolean loop(final Tree node) {
+            loops++;
+            try {
+                return reduceAll(node);
+            } finally {
+                loops--;
+            }
+        }
+
+        private Boolean reduceAll(final Tree node) {
+            Boolean out = false;
+            for (final Tree child : children(node)) out = reduce(out, scan(child, null));
+            return out;
+        }
+
+        private static List<Tree> children(final Tree node) {
+            final List<Tree> out = new ArrayList<Tree>();
+            if (node instanceof WhileLoopTree) {
+                out.add(((WhileLoopTree) node).getCondition());
+                out.add(((WhileLoopTree) node).getStatement());
+            } else if (node instanceof DoWhileLoopTree) {
+                out.add(((DoWhileLoopTree) node).getStatement());
+                out.add(((DoWhileLoopTree) node).getCondition());
+            } else if (node instanceof ForLoopTree) {
+                final ForLoopTree f = (ForLoopTree) node;
+                out.addAll(f.getInitializer());
+                out.add(f.getCondition());
+                out.addAll(f.getUpdate());
+                out.add(f.getStatement());
+            } else if (node instanceof EnhancedForLoopTree) {
+                out.add(((EnhancedForLoopTree) node).getExpression());
+                out.add(((EnhancedForLoopTree) node).getStatement());
+            }
+            return out;
+        }
+
+        @Override
+        public Boolean visitWhileLoop(final WhileLoopTree node, final Void p) {
+            return loop(node);
+        }
+
+        @Override
+        public Boolean visitDoWhileLoop(final DoWhileLoopTree node, final Void p) {
+            return loop(node);
+        }
+
+        @Override
+        public Boolean visitForLoop(final ForLoopTree node, final Void p) {
+            return loop(node);
+        }
+
+        @Override
+        public Boolean visitEnhancedForLoop(final EnhancedForLoopTree node, final Void p) {
+            return loop(node);
+        }
+
+        @Override
+        public Boolean visitSwitch(final SwitchTree node, final Void p) {
+            switches++;
+            try {
+                return super.visitSwitch(node, p);
+            } finally {
+                switches--;
+            }
+        }
+
+        @Override
+        public Boolean visitLabeledStatement(final LabeledStatementTree node, final Void p) {
+            labels.add(node.getLabel().toString());
+            try {
+                return super.visitLabeledStatement(node, p);
+            } finally {
+                labels.remove(labels.size() - 1);
+            }
+        }
+
+        @Override
+        public Boolean visitBreak(final BreakTree node, final Void p) {
+            if (node.getLabel() != null) return !labels.contains(node.getLabel().toString());
+            return loops == 0 && switches == 0;
+        }
+
+        @Override
+        public Boolean visitContinue(final ContinueTree node, final Void p) {
+            if (node.getLabel() != null) return !labels.contains(node.getLabel().toString());
+            return loops == 0;
+        }
+
+        @Override
+        public Boolean visitReturn(final ReturnTree node, final Void p) {
+            return true;
+        }
+    }
+}
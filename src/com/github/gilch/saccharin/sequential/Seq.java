@@ -0,0 +1,342 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import com.github.gilch.saccharin.functional.Function;
+import com.github.gilch.saccharin.functional.Predicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A lazy pipeline of map, filter, take and drop stages over a source. Building a Seq only
+ * records the stages; nothing is pulled from the source until a terminal method such as
+ * toList() runs it.
+ * <p/>
+ * A run is a single loop over the source that pushes each element through the stages as
+ * nested Sink calls, instead of stacking one wrapper Iterator per stage. Adjacent stages of the
+ * same kind are fused when the pipeline is built: two maps compose into one function, two
+ * filters into one test, and consecutive takes or drops into one count.
+ * <p/>
+ * <code>
+ * Seq.of(lines).map(trim).filter(notEmpty).drop(1).take(10).toList()
+ * </code>
+ * A Seq made from an Iterable may be run any number of times. One made from an Iterator can
+ * only be run once.
+ *
+ * @param <E>
+ */
+public abstract class Seq<E> implements Iterable<E> {
+
+    /**
+     * Receives the elements pushed through a pipeline.
+     *
+     * @param <E>
+     */
+    public static abstract class Sink<E> {
+        /**
+         * @param e the next element
+         * @return false if no more elements are wanted
+         */
+        public abstract boolean accept(E e);
+    }
+
+    Seq() {
+        // only the stages below.
+    }
+
+    /**
+     * @return a fresh Iterator over the elements entering the first stage.
+     */
+    abstract Iterator<?> source();
+
+    /**
+     * @param down receives this pipeline's output
+     * @return the Sink that receives source elements and feeds them through every stage.
+     */
+    abstract Sink<?> wrap(Sink<? super E> down);
+
+    public static <E> Seq<E> of(final Iterable<? extends E> source) {
+        return new Seq<E>() {
+            @Override
+            Iterator<?> source() {
+                return source.iterator();
+            }
+
+            @Override
+            Sink<?> wrap(final Sink<? super E> down) {
+                return down;
+            }
+        };
+    }
+
+    public static <E> Seq<E> of(final Iterator<? extends E> source) {
+        return new Seq<E>() {
+            @Override
+            Iterator<?> source() {
+                return source;
+            }
+
+            @Override
+            Sink<?> wrap(final Sink<? super E> down) {
+                return down;
+            }
+        };
+    }
+
+    /**
+     * Pushes every element of this pipeline into the sink, until either runs out.
+     *
+     * @param sink receives the elements
+     */
+    @SuppressWarnings("unchecked")
+    public final void push(final Sink<? super E> sink) {
+        final Iterator<?> it = source();
+        final Sink<Object> head = (Sink<Object>) wrap(sink);
+        while (it.hasNext()) if (!head.accept(it.next())) return;
+    }
+
+    /**
+     * Pulls one source element at a time through the stages, for callers that need an Iterator.
+     * Prefer the terminal methods, which don't stop at every element.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final CloseableSequence<E> iterator() {
+        final Iterator<?> it = source();
+        return new StateMachine<E>() {
+            boolean got;
+            final Sink<Object> head = (Sink<Object>) wrap(new Sink<E>() {
+                @Override
+                public boolean accept(final E e) {
+                    got = true;
+                    yield(e);
+                    return true;
+                }
+            });
+
+            @Override
+            protected void resume() {
+                while (label == 0 && it.hasNext()) {
+                    got = false;
+                    if (!head.accept(it.next())) label = 1;//stopped by a stage.
+                    if (got) return;
+                }
+            }
+        }.closing(it);
+    }
+
+    public final List<E> toList() {
+        final List<E> out = new ArrayList<E>();
+        push(new Sink<E>() {
+            @Override
+            public boolean accept(final E e) {
+                out.add(e);
+                return true;
+            }
+        });
+        return out;
+    }
+
+    /**
+     * Applies the function to each element, discarding the results.
+     *
+     * @param action run for its side effect
+     */
+    public final void forEach(final Function<? super E, ?> action) {
+        push(new Sink<E>() {
+            @Override
+            public boolean accept(final E e) {
+                action.apply(e);
+                return true;
+            }
+        });
+    }
+
+    public final int count() {
+        final int[] count = {0};
+        push(new Sink<E>() {
+            @Override
+            public boolean accept(final E e) {
+                count[0]++;
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    public <R> Seq<R> map(final Function<? super E, ? extends R> f) {
+        return new Mapped<E, R>(this, f);
+    }
+
+    public Seq<E> filter(final Predicate<? super E> p) {
+        return new Filtered<E>(this, p);
+    }
+
+    /**
+     * @param n the most elements to keep
+     * @return a pipeline that stops pulling from the source once it has n elements.
+     */
+    public Seq<E> take(final int n) {
+        if (n <= 0) return of(Collections.<E>emptyList());
+        return new Taken<E>(this, n);
+    }
+
+    public Seq<E> drop(final int n) {
+        if (n <= 0) return this;
+        return new Dropped<E>(this, n);
+    }
+
+    /**
+     * A stage after the first.
+     */
+    private static abstract class Stage<T, E> extends Seq<E> {
+        final Seq<T> up;
+
+        Stage(final Seq<T> up) {
+            this.up = up;
+        }
+
+        @Override
+        final Iterator<?> source() {
+            return up.source();
+        }
+
+        @Override
+        final Sink<?> wrap(final Sink<? super E> down) {
+            return up.wrap(sink(down));
+        }
+
+        /**
+         * @return a new Sink for this stage, since a Sink may hold the state of one run.
+         */
+        abstract Sink<T> sink(Sink<? super E> down);
+    }
+
+    private static final class Mapped<T, E> extends Stage<T, E> {
+        final Function<? super T, ? extends E> f;
+
+        Mapped(final Seq<T> up, final Function<? super T, ? extends E> f) {
+            super(up);
+            this.f = f;
+        }
+
+        @Override
+        Sink<T> sink(final Sink<? super E> down) {
+            return new Sink<T>() {
+                @Override
+                public boolean accept(final T t) {
+                    return down.accept(f.apply(t));
+                }
+            };
+        }
+
+        @Override
+        public <R> Seq<R> map(final Function<? super E, ? extends R> g) {
+            return new Mapped<T, R>(up, new Function<T, R>() {
+                @Override
+                public R apply(final T t) {
+                    return g.apply(f.apply(t));
+                }
+            });
+        }
+    }
+
+    private static final class Filtered<E> extends Stage<E, E> {
+        final Predicate<? super E> p;
+
+        Filtered(final Seq<E> up, final Predicate<? super E> p) {
+            super(up);
+            this.p = p;
+        }
+
+        @Override
+        Sink<E> sink(final Sink<? super E> down) {
+            return new Sink<E>() {
+                @Override
+                public boolean accept(final E e) {
+                    return !p.test(e) || down.accept(e);
+                }
+            };
+        }
+
+        @Override
+        public Seq<E> filter(final Predicate<? super E> q) {
+            return new Filtered<E>(up, new Predicate<E>() {
+                @Override
+                public boolean test(final E e) {
+                    return p.test(e) && q.test(e);
+                }
+            });
+        }
+    }
+
+    private static final class Taken<E> extends Stage<E, E> {
+        final int n;
+
+        Taken(final Seq<E> up, final int n) {
+            super(up);
+            this.n = n;
+        }
+
+        @Override
+        Sink<E> sink(final Sink<? super E> down) {
+            return new Sink<E>() {
+                int remaining = n;
+
+                @Override
+                public boolean accept(final E e) {
+                    return down.accept(e) & --remaining > 0;
+                }
+            };
+        }
+
+        @Override
+        public Seq<E> take(final int m) {
+            return m < n ? up.take(m) : this;
+        }
+    }
+
+    private static final class Dropped<E> extends Stage<E, E> {
+        final int n;
+
+        Dropped(final Seq<E> up, final int n) {
+            super(up);
+            this.n = n;
+        }
+
+        @Override
+        Sink<E> sink(final Sink<? super E> down) {
+            return new Sink<E>() {
+                int remaining = n;
+
+                @Override
+                public boolean accept(final E e) {
+                    if (remaining == 0) return down.accept(e);
+                    remaining--;
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        public Seq<E> drop(final int m) {
+            if (m <= 0) return this;
+            return new Dropped<E>(up, n + m < 0 ? Integer.MAX_VALUE : n + m);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import com.github.gilch.saccharin.Literal.Primitives;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A thread-free alternative to {@link Generator}. The same yield(E) style, but the body runs on
+ * the consumer's thread, so there is no handoff cost and nothing to leak.
+ * <p/>
+ * Java can't suspend a method, so the body must be written as a resumable state machine, the
+ * way a compiler would translate a Generator:
+ * <ul>
+ * <li>local variables that live across a yield become fields.</li>
+ * <li>each yield(E) is followed by a return, and the code after it gets a new label.</li>
+ * <li>resume() switches on label to continue where the last call left off.</li>
+ * <li>returning without a yield ends the sequence.</li>
+ * <li>finally blocks that must run when the sequence is abandoned go in close().</li>
+ * </ul>
+ * For example, the Generator body
+ * <code>for (i = 0; i &lt; n; i++) yield(i);</code> becomes <br />
+ * <code>
+ * int i;<br />
+ * protected void resume() {<br />
+ * &nbsp;&nbsp;switch (label) {<br />
+ * &nbsp;&nbsp;&nbsp;&nbsp;case 0: i = 0; break;<br />
+ * &nbsp;&nbsp;&nbsp;&nbsp;case 1: i++; break;<br />
+ * &nbsp;&nbsp;}<br />
+ * &nbsp;&nbsp;if (i &lt; n) { yield(i); label = 1; }<br />
+ * }
+ * </code>
+ * Rather than translating by hand, mark a Generator {@link Resumable} and the compiler will
+ * write its StateMachine.
+ *
+ * @param <E>
+ */
+public abstract class StateMachine<E> extends CloseableSequence<E> {
+    /**
+     * The resumption point. Starts at 0; the meaning of other values is up to the subclass.
+     */
+    protected int label = 0;
+    private boolean yielded;
+    private E value;
+
+    /**
+     * Call at most once per resume(), then return.
+     *
+     * @param e the next element
+     */
+    protected final void yield(final E e) {
+        value = e;
+        yielded = true;
+    }
+
+    /**
+     * Runs the body from the current label until the next yield(E) or the end.
+     */
+    protected abstract void resume();
+
+    @Override
+    protected final E getNext() throws NoSuchElementException {
+        yielded = false;
+        resume();
+        if (!yielded) return done();
+        final E out = value;
+        value = null;
+        return out;
+    }
+
+    /**
+     * Starts a for-each loop of a translated Generator, which may loop over an Iterable or an
+     * array alike.
+     *
+     * @param it what the loop iterates over
+     * @return an Iterator over it
+     */
+    protected static <T> Iterator<T> iterate(final Iterable<T> it) {
+        return it.iterator();
+    }
+
+    protected static <T> Iterator<T> iterate(final T[] array) {
+        return Arrays.asList(array).iterator();
+    }
+
+    protected static Iterator<Byte> iterate(final byte[] array) {
+        return Primitives.valueOf(array).iterator();
+    }
+
+    protected static Iterator<Short> iterate(final short[] array) {
+        return Primitives.valueOf(array).iterator();
+    }
+
+    protected static Iterator<Integer> iterate(final int[] array) {
+        return Primitives.valueOf(array).iterator();
+    }
+
+    protected static Iterator<Long> iterate(final long[] array) {
+        return Primitives.valueOf(array).iterator();
+    }
+
+    protected static Iterator<Float> iterate(final float[] array) {
+        return Primitives.valueOf(array).iterator();
+    }
+
+    protected static Iterator<Double> iterate(final double[] array) {
+        return Primitives.valueOf(array).iterator();
+    }
+
+    protected static Iterator<Character> iterate(final char[] array) {
+        return Primitives.valueOf(array).iterator();
+    }
+
+    protected static Iterator<Boolean> iterate(final boolean[] array) {
+        return Primitives.valueOf(array).iterator();
+    }
+}
@@ -1,7 +1,9 @@
 package com.github.gilch.saccharin;
 
+import com.github.gilch.saccharin.Literal.Thru;
 import org.junit.Test;
 
+import static com.github.gilch.saccharin.Literal._;
 import static org.junit.Assert.*;
 
 /**
@@ -29,20 +31,53 @@ public class Cons_Test {
 
     @Test
     public void testToString() throws Exception {
-        fail();
-
+        assertEquals("_(1,_(null,_(a,null)))", _(1, _(null, _("a", null))).toString());
+        // a long stack must not recurse.
+        _<Integer, ?> stack = _(0, null);
+        for (int i = 1; i < 100000; i++) stack = _(i, stack);
+        assertTrue(stack.toString().startsWith("_(99999,_(99998,"));
+        // cycles are broken.
+        final Thru<Object> thru = Literal._(null);
+        final _<Integer, Thru<Object>> cycle = _(1, thru);
+        thru._ = cycle;
+        assertTrue(cycle.toString().startsWith("_(1,_(_(@"));
+        assertEquals(cycle.hashCode(), cycle.hashCode());
+        assertEquals(cycle, cycle);
+        assertFalse(cycle.equals(_(1, thru)));
     }
 
     @Test
     public void testEquals() throws Exception {
-        fail();
-
+        assertEquals(_(1, _("a", null)), _(1, _("a", null)));
+        assertFalse(_(1, _("a", null)).equals(_(1, _("b", null))));
+        assertFalse(_(1, 2).equals(_(1, _(2, null))));
+        assertFalse(_(1, 2).equals("_(1,2)"));
+        assertEquals(_(null, null), _(null, null));
+        // a long stack must not recurse.
+        _<Integer, ?> a = _(0, null);
+        _<Integer, ?> b = _(0, null);
+        for (int i = 1; i < 100000; i++) {
+            a = _(i, a);
+            b = _(i, b);
+        }
+        assertEquals(a, b);
+        assertFalse(a.equals(_(-1, b)));
     }
 
     @Test
     public void testHashCode() throws Exception {
-        fail();
-
+        assertEquals(_(1, _("a", null)).hashCode(), _(1, _("a", null)).hashCode());
+        assertEquals(_(null, null).hashCode(), _(null, null).hashCode());
+        // mutable elements are hashed again on every call.
+        final Thru<String> thru = Literal._("a");
+        final _<Thru<String>, Void> cell = _(thru, null);
+        final int before = cell.hashCode();
+        thru._ = "b";
+        assertFalse(before == cell.hashCode());
+        // a long stack must not recurse.
+        _<Integer, ?> stack = _(0, null);
+        for (int i = 1; i < 100000; i++) stack = _(i, stack);
+        assertEquals(stack.hashCode(), _(99999, stack.tail).hashCode());
     }
 
     @Test
@@ -0,0 +1,74 @@
+package com.github.gilch.saccharin;
+
+import com.github.gilch.saccharin.Literal.DoubleList;
+import com.github.gilch.saccharin.Literal.IntList;
+import com.github.gilch.saccharin.Literal.LongList;
+import com.github.gilch.saccharin.Literal.Primitives;
+import org.junit.Test;
+
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+public class IntListTest {
+
+    @Test
+    public void testChain() throws Exception {
+        final IntList list = new IntList(0)._(1)._(2)._(3, 4, 5, 6, 7);
+        assertEquals(7, list.size());
+        assertEquals(_t(1, 2, 3, 4, 5, 6, 7), list.view());
+        assertEquals("[1, 2, 3, 4, 5, 6, 7]", list.toString());
+        assertEquals(3, list.set(2, 30));
+        assertEquals(30, list.get(2));
+    }
+
+    @Test
+    public void testGrowth() throws Exception {
+        final IntList list = new IntList();
+        for (int i = 0; i < 100000; i++) list._(i);
+        assertEquals(100000, list.size());
+        assertEquals(99999, list.get(99999));
+        assertEquals(4999950000L, list.view().sum());
+        assertEquals(100000, list.trimToSize().view()._.length);
+    }
+
+    @Test
+    public void testView() throws Exception {
+        final IntList list = new IntList(10)._(3)._(1)._(2);
+        final Primitives<int[], Integer> view = list.view();
+        assertEquals(3, view.size());
+        assertEquals(10, view._.length);//not copied, spare capacity included
+        assertEquals(3, view.length);
+        view.sort();
+        assertEquals(1, list.get(0));//writes through
+        list._(0);
+        assertEquals(3, view.size());//doesn't see later adds
+        assertFalse(view.contains(0));
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testViewBounds() throws Exception {
+        new IntList(10)._(1).view().get(1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBounds() throws Exception {
+        new IntList(10)._(1).get(1);
+    }
+
+    @Test
+    public void testAddAll() throws Exception {
+        final int[] ints = {1, 2, 3};
+        final IntList list = new IntList(1).addAll(ints).addAll(ints, 1, 3)
+                .addAll(BuiltIn.range(2).iterator());
+        assertArrayEquals(new int[]{1, 2, 3, 2, 3, 0, 1}, list.toArray());
+
+        final LongList longs = new LongList().addAll(1L, 2L)
+                .addAll(Lazy.longRepeat(7L, 2));
+        assertEquals(_t(1L, 2L, 7L, 7L), longs.view());
+
+        final DoubleList doubles = new DoubleList()._(0.5).addAll(Lazy.doubleRepeat(1.5, 1));
+        assertArrayEquals(new double[]{0.5, 1.5}, doubles.toArray(), 0.0);
+    }
+}
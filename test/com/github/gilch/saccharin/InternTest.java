@@ -0,0 +1,40 @@
+package com.github.gilch.saccharin;
+
+import com.github.gilch.saccharin.Literal.Intern;
+import com.github.gilch.saccharin.Literal.Thru;
+import org.junit.Test;
+
+import static com.github.gilch.saccharin.Literal._;
+import static com.github.gilch.saccharin.Literal.intern;
+import static org.junit.Assert.*;
+
+public class InternTest {
+
+    @Test
+    public void testIntern() throws Exception {
+        final _<String, _<String, Void>> a = intern("IBM", intern("NYSE", null));
+        final long hits = Intern.hits();
+        final _<String, _<String, Void>> b = intern("IBM", intern("NYSE", null));
+        assertSame(a, b);
+        assertSame(a.tail, b.tail);
+        assertEquals(hits + 2, Intern.hits());
+        assertTrue(Intern.size() >= 2);
+        assertTrue(Intern.hitRate() > 0);
+        assertEquals(_("IBM", _("NYSE", null)), a);
+    }
+
+    @Test
+    public void testDistinct() throws Exception {
+        assertNotSame(intern(1, null), intern(1L, null));
+        assertNotSame(intern(1, 2), intern(2, 1));
+        final long misses = Intern.misses();
+        intern(new Object().toString(), null);
+        assertEquals(misses + 1, Intern.misses());
+    }
+
+    @Test
+    public void testMutable() throws Exception {
+        final Thru<String> thru = Literal._("a");
+        assertNotSame(intern(thru, null), intern(thru, null));
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.gilch.saccharin;
+
+import com.github.gilch.saccharin.functional.Predicate;
+import com.github.gilch.saccharin.sequential.DoubleSequence;
+import com.github.gilch.saccharin.sequential.IntSequence;
+import com.github.gilch.saccharin.sequential.Itr;
+import com.github.gilch.saccharin.sequential.LongSequence;
+import com.github.gilch.saccharin.sequential.StateMachine;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static com.github.gilch.saccharin.Literal._;
+import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+public class LazyTest {
+
+    private static final Predicate<Integer> small = new Predicate<Integer>() {
+        @Override
+        public boolean test(final Integer i) {
+            return i < 3;
+        }
+    };
+
+    @Test
+    public void testLexCart() throws Exception {
+        assertEquals(_t(_(1, "a"), _(1, "b"), _(2, "a"), _(2, "b")).toString(),
+                _a(Lazy.lexCart(_t(1, 2).iterator(), _t("a", "b"))).toString());
+        assertFalse(Lazy.lexCart(_t(1, 2).iterator(), _t()).hasNext());
+    }
+
+    @Test
+    public void testColexCart() throws Exception {
+        assertEquals(_t(_("a", 1), _("b", 1), _("a", 2), _("b", 2)).toString(),
+                _a(Lazy.colexCart(_t("a", "b"), _t(1, 2).iterator())).toString());
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        final Iterator<Integer> cycle = Lazy.cycle(_t(1, 2, 3).iterator());
+        for (int i = 0; i < 7; i++) assertEquals(i % 3 + 1, (int) cycle.next());
+        assertFalse(Lazy.cycle(_t().iterator()).hasNext());
+    }
+
+    @Test
+    public void testChain() throws Exception {
+        assertEquals(_t(1, 2, 3), _a(Lazy.chain(_t(
+                _t(1, 2).iterator(), _t().iterator(), _t(3).iterator()).iterator())));
+    }
+
+    @Test
+    public void testDropWhile() throws Exception {
+        assertEquals(_t(3, 1, 4), _a(Lazy.dropWhile(small, _t(1, 2, 3, 1, 4).iterator())));
+        assertFalse(Lazy.dropWhile(small, _t(1, 2).iterator()).hasNext());
+    }
+
+    @Test
+    public void testISlice() throws Exception {
+        assertEquals(_t(1, 3, 5),
+                _a(Lazy.iSlice(_t(0, 1, 2, 3, 4, 5, 6).iterator(), 1, 6, 2)));
+        assertEquals(_t(0, 1), _a(Lazy.iSlice(_t(0, 1).iterator(), null, null, null)));
+    }
+
+    @Test
+    public void testISliceRandomAccess() throws Exception {
+        // would take far too long if it walked the Range.
+        assertEquals(_t(Integer.MAX_VALUE - 1), _a(Lazy.iSliceList(
+                BuiltIn.range(Integer.MAX_VALUE), Integer.MAX_VALUE - 1, null, null)));
+        assertEquals(_t(8, 9), _a(Lazy.iSliceList(BuiltIn.range(10), 8, 100, null)));
+        final long[] longs = {1, 2, 3, 4};
+        assertEquals(_t(2L, 4L), _a(Lazy.iSliceList(Literal.Primitives.valueOf(longs), 1, 4, 2)));
+    }
+
+    @Test
+    public void testISliceItr() throws Exception {
+        // Itr is an Iterable and an Iterator, so only one iSlice may accept it.
+        final Itr<Integer> itr = new Itr<Integer>(_t(0, 1, 2, 3));
+        itr.iterator();
+        assertEquals(_t(0, 1), _a(Lazy.iSlice(itr, 0, 2, 1)));
+    }
+
+    @Test
+    public void testISliceStopsPulling() throws Exception {
+        final int[] pulled = {0};
+        final Iterator<Integer> endless = new StateMachine<Integer>() {
+            @Override
+            protected void resume() {
+                yield(pulled[0]++);
+            }
+        };
+        assertEquals(_t(0, 1, 2), _a(Lazy.iSlice(endless, null, 3, null)));
+        assertEquals(3, pulled[0]);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRangeBounds() throws Exception {
+        BuiltIn.range(3).get(3);
+    }
+
+    @Test
+    public void testCompress() throws Exception {
+        assertEquals(_t(1, 3), _a(Lazy.compress(
+                _t(1, 2, 3, 4).iterator(), _t(true, false, true).iterator())));
+        // a long run of false selectors must not recurse.
+        final int n = 1000000;
+        assertEquals(_t(n), _a(Lazy.compress(BuiltIn.range(n + 1).iterator(),
+                Lazy.chain(_t(Lazy.repeat(false, n), Lazy.repeat(true, 1)).iterator()))));
+    }
+
+    @Test
+    public void testTakeWhile() throws Exception {
+        assertEquals(_t(1, 2), _a(Lazy.takeWhile(small, _t(1, 2, 3, 1).iterator())));
+        assertEquals(_t(1, 2), _a(Lazy.takeWhile(small, _t(1, 2).iterator())));
+    }
+
+    @Test
+    public void testPrimitives() throws Exception {
+        final IntSequence counted = Lazy.iSlice(BuiltIn.intCount(10, -2), 1, 4, 2);
+        assertEquals(8, counted.nextInt());
+        assertEquals(4, counted.nextInt());
+        assertFalse(counted.hasNext());
+
+        final LongSequence longs = Lazy.longChain(_t(
+                Lazy.longRepeat(1L, 2), Lazy.longRepeat(2L, 0), Lazy.longRepeat(3L)).iterator());
+        assertEquals(_t(1L, 1L, 3L, 3L),
+                _t(longs.nextLong(), longs.nextLong(), longs.next(), longs.next()));
+
+        final DoubleSequence doubles = DoubleSequence.valueOf(_t(0.5, 1.5).iterator());
+        assertEquals(0.5, doubles.nextDouble(), 0.0);
+        assertEquals(_t(1.5), _a(Lazy.iSlice(doubles, null, null, null)));
+
+        final IntSequence range = BuiltIn.range(3).iterator();
+        assertSame(range, IntSequence.valueOf(range));
+        int sum = 0;
+        while (range.hasNext()) sum += range.nextInt();
+        assertEquals(3, sum);
+    }
+
+    @Test
+    public void testPrimitiveChainCloses() throws Exception {
+        final int[] closed = {0};
+        final IntSequence link = new IntSequence.Closing() {
+            int i = 0;
+
+            @Override
+            protected int getNextInt() {
+                return i < 3 ? i++ : done();
+            }
+
+            @Override
+            public void close() {
+                closed[0]++;
+                super.close();
+            }
+        };
+        final Iterator<IntSequence> links = new StateMachine<IntSequence>() {
+            @Override
+            protected void resume() {
+                if (label++ == 0) yield(link);
+            }
+
+            @Override
+            public void close() {
+                closed[0]++;
+                super.close();
+            }
+        };
+        final IntSequence.Closing chain = Lazy.intChain(links);
+        assertEquals(0, chain.nextInt());
+        chain.close();
+        assertEquals(2, closed[0]);//the current link and the links.
+        assertFalse(chain.hasNext());
+    }
+
+    @Test
+    public void testPrimitiveSliceCloses() throws Exception {
+        final int[] closed = {0};
+        final IntSequence source = new IntSequence.Closing() {
+            int i = 0;
+
+            @Override
+            protected int getNextInt() {
+                return i++;
+            }
+
+            @Override
+            public void close() {
+                closed[0]++;
+                super.close();
+            }
+        };
+        final IntSequence.Closing slice = Lazy.iSlice(source, 1, null, 2);
+        assertEquals(1, slice.nextInt());
+        assertEquals(3, slice.nextInt());
+        slice.close();
+        assertEquals(1, closed[0]);
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    public void testCallerThread() throws Exception {
+        // every element is computed on the thread that asks for it.
+        final Thread caller = Thread.currentThread();
+        final Iterator<Integer> source = new StateMachine<Integer>() {
+            @Override
+            protected void resume() {
+                assertSame(caller, Thread.currentThread());
+                if (label++ < 5) yield(label);
+            }
+        };
+        assertEquals(_t(3, 4),
+                _a(Lazy.iSlice(Lazy.dropWhile(small, Lazy.chain(_t(source).iterator())),
+                        0, 2, 1)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.gilch.saccharin;
+
+import com.github.gilch.saccharin.sequential.LongSequence;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.github.gilch.saccharin.BuiltIn.longCount;
+import static com.github.gilch.saccharin.BuiltIn.longRange;
+import static com.github.gilch.saccharin.BuiltIn.range;
+import static com.github.gilch.saccharin.Literal._a;
+import static org.junit.Assert.*;
+
+public class LongRangeTest {
+
+    @Test
+    public void testSameAsRange() throws Exception {
+        final int[][] args = {{0, 10, 1}, {3, 17, 4}, {10, -7, -3}, {5, 5, 1}, {7, 8, 100}};
+        for (final int[] a : args) {
+            final BuiltIn.Range r = range(a[0], a[1], a[2]);
+            final BuiltIn.LongRange l = longRange(a[0], a[1], a[2]);
+            assertEquals(r.length, l.length);
+            for (int i = 0; i < r.length; i++) assertEquals(r.sub(i), l.get(i));
+            for (int x = -20; x < 20; x++) assertEquals(r.indexOf(x), l.indexOf(x));
+            final List<Long> elements = _a(l.iterator());
+            assertEquals(r.length, elements.size());
+        }
+    }
+
+    @Test
+    public void testBeyondInt() throws Exception {
+        final BuiltIn.LongRange offsets = longRange(0, 1L << 40, 4096);
+        assertEquals(1L << 28, offsets.length);
+        assertEquals((1L << 40) - 4096, offsets.get(offsets.length - 1));
+        assertTrue(offsets.contains(4096L * 1000000));
+        assertFalse(offsets.contains(4096L * 1000000 + 1));
+        assertEquals(1000000, offsets.indexOf(4096L * 1000000));
+
+        final BuiltIn.LongRange all = longRange(Long.MIN_VALUE + 2, Long.MAX_VALUE, 2);
+        assertEquals(Long.MAX_VALUE, all.length);
+        assertEquals(Long.MAX_VALUE - 1, all.get(all.length - 1));
+        assertTrue(all.contains(0));
+        assertFalse(all.contains(1));
+        final BuiltIn.LongRange down = longRange(Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE);
+        assertEquals(2, down.length);
+        assertEquals(-1, down.get(1));
+        assertEquals(1, down.indexOf(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLong() throws Exception {
+        longRange(Long.MIN_VALUE, Long.MAX_VALUE, 2);
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        final BuiltIn.LongRange r = longRange(10, 10 + 3 * 10, 3);
+        final List<BuiltIn.LongRange> parts = r.split(4);
+        assertEquals(4, parts.size());
+        long expected = 10;
+        for (final BuiltIn.LongRange part : parts) {
+            assertTrue(part.length == 2 || part.length == 3);
+            for (final LongSequence it = part.iterator(); it.hasNext(); expected += 3)
+                assertEquals(expected, it.nextLong());
+        }
+        assertEquals(40, expected);
+        assertEquals(2, longRange(2).split(5).size());
+        assertEquals(longRange(13, 19, 3), r.subRange(1, 3));
+    }
+
+    @Test
+    public void testLongCount() throws Exception {
+        final LongSequence it = longCount(Integer.MAX_VALUE, 1);
+        it.nextLong();
+        assertEquals(Integer.MAX_VALUE + 1L, it.nextLong());
+    }
+}
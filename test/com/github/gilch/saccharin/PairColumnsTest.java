@@ -0,0 +1,67 @@
+package com.github.gilch.saccharin;
+
+import com.github.gilch.saccharin.Literal.DoubleList;
+import com.github.gilch.saccharin.Literal.IntList;
+import com.github.gilch.saccharin.Literal._A;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.github.gilch.saccharin.BuiltIn.zip;
+import static com.github.gilch.saccharin.Literal._;
+import static com.github.gilch.saccharin.Literal._t;
+import static com.github.gilch.saccharin.PairColumns.DOUBLES;
+import static com.github.gilch.saccharin.PairColumns.INTS;
+import static org.junit.Assert.*;
+
+public class PairColumnsTest {
+
+    @Test
+    public void testColumns() throws Exception {
+        final PairColumns<Integer, Double, IntList, DoubleList> prices =
+                PairColumns.of(INTS, DOUBLES)._(1, 0.5)._(2, 1.5);
+        prices.and(zip(_t(3, 4).iterator(), _t(2.5, 3.5).iterator()));
+        assertEquals(4, prices.size());
+        assertEquals(_(3, 2.5), prices.get(2));
+        assertArrayEquals(new int[]{1, 2, 3, 4}, prices.heads.toArray());
+        assertEquals(8.0, (Double) prices.tails.view().sum(), 0.0);
+        prices.tails.set(0, 9.0);//writes through
+        assertEquals(_(1, 9.0), prices.get(0));
+    }
+
+    @Test
+    public void testListView() throws Exception {
+        final PairColumns<String, Integer, _A<String>, IntList> pairs =
+                PairColumns.of(PairColumns.<String>objects(), INTS);
+        final List<Literal._<String, Integer>> view = pairs;
+        view.add(_("a", 1));
+        view.add(_("b", 2));
+        assertEquals(_t(_("a", 1), _("b", 2)), view);
+        assertEquals(_("a", 1), view.set(0, _("c", 3)));
+        assertEquals(_t("c", "b"), pairs.heads);
+        assertEquals(3, pairs.tails.get(0));
+        assertEquals(1, pairs.indexOf(_("b", 2)));
+        assertEquals(2, pairs.trimToSize().size());
+    }
+
+    @Test
+    public void testNullInPrimitiveColumn() throws Exception {
+        final PairColumns<Integer, Double, IntList, DoubleList> pairs =
+                PairColumns.of(INTS, DOUBLES)._(1, 1.0);
+        try {
+            pairs._(2, null);
+            fail();
+        } catch (final NullPointerException expected) {
+            // neither column changed.
+        }
+        try {
+            pairs.set(0, _(3, (Double) null));
+            fail();
+        } catch (final NullPointerException expected) {
+            // neither column changed.
+        }
+        assertEquals(1, pairs.heads.size());
+        assertEquals(1, pairs.tails.size());
+        assertEquals(_(1, 1.0), pairs.get(0));
+    }
+}
@@ -1,7 +1,17 @@
 package com.github.gilch.saccharin;
 
+import com.github.gilch.saccharin.Literal.Primitives;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+import static com.github.gilch.saccharin.Literal._t;
 import static org.junit.Assert.*;
 
 /**
@@ -74,4 +84,119 @@ public class PrimitivesTest {
         fail();
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSort() throws Exception {
+        final Primitives<int[], Integer> ints = Primitives.valueOf(new int[]{3, 1, 2, 0});
+        ints.sort(0, 3);
+        assertArrayEquals(new int[]{1, 2, 3, 0}, ints._);
+        ints.sort();
+        assertArrayEquals(new int[]{0, 1, 2, 3}, ints._);
+        assertEquals(2, ints.binarySearch(2));
+        assertEquals(-5, ints.binarySearch(7));
+        final boolean[] booleans = {true, false, true, false};
+        Primitives.valueOf(booleans).sort();
+        assertArrayEquals(new boolean[]{false, false, true, true}, booleans);
+        assertEquals(2, Primitives.valueOf(booleans).binarySearch(2, 4, true));
+    }
+
+    @Test
+    public void testFillAndCopy() throws Exception {
+        final Primitives<long[], Long> longs = Primitives.valueOf(new long[4]);
+        longs.fill(1, 3, 7L);
+        assertArrayEquals(new long[]{0, 7, 7, 0}, longs._);
+        final long[] copy = longs.copy();
+        assertNotSame(longs._, copy);
+        assertArrayEquals(longs._, copy);
+        assertArrayEquals(new long[]{7, 0}, longs.copyRange(2, 4));
+        longs.fill(5L);
+        assertArrayEquals(new long[]{5, 5, 5, 5}, longs._);
+    }
+
+    @Test
+    public void testListMethods() throws Exception {
+        final Primitives<double[], Double> doubles =
+                Primitives.valueOf(new double[]{0.0, Double.NaN, -0.0, 0.0});
+        final java.util.List<Double> boxed = _t(0.0, Double.NaN, -0.0, 0.0);
+        assertEquals(boxed.indexOf(-0.0), doubles.indexOf(-0.0));
+        assertEquals(boxed.indexOf(Double.NaN), doubles.indexOf(Double.NaN));
+        assertEquals(boxed.lastIndexOf(0.0), doubles.lastIndexOf(0.0));
+        assertFalse(doubles.contains(1.0));
+        assertFalse(doubles.contains(0));//an Integer
+        assertEquals(boxed.hashCode(), doubles.hashCode());
+        assertTrue(doubles.equals(boxed));
+        assertTrue(boxed.equals(doubles));
+        assertTrue(doubles.equals(Primitives.valueOf(doubles.copy())));
+        assertFalse(doubles.equals(Primitives.valueOf(new double[]{0.0, 1.0, 0.0, 0.0})));
+        assertArrayEquals(boxed.toArray(), doubles.toArray());
+
+        final Primitives<char[], Character> chars = Primitives.valueOf("abc".toCharArray());
+        assertEquals(_t('a', 'b', 'c').hashCode(), chars.hashCode());
+        assertEquals(1, chars.indexOf('b'));
+    }
+
+    @Test
+    public void testMinMaxSum() throws Exception {
+        final Primitives<byte[], Byte> bytes = Primitives.valueOf(new byte[]{3, -8, 100, 100});
+        assertEquals((Byte) (byte) -8, bytes.min());
+        assertEquals((Byte) (byte) 100, bytes.max());
+        assertEquals(195L, bytes.sum());
+        assertEquals(1.5, Primitives.valueOf(new float[]{1f, 0.5f}).sum());
+        assertEquals(false, Primitives.valueOf(new boolean[]{true, false}).min());
+    }
+
+    @Test(expected = java.util.NoSuchElementException.class)
+    public void testMinEmpty() throws Exception {
+        Primitives.valueOf(new int[0]).min();
+    }
+
+    @Test
+    public void testBuffers() throws Exception {
+        final Primitives<IntBuffer, Integer> ints =
+                Primitives.valueOf(ByteBuffer.allocateDirect(16).asIntBuffer());
+        assertEquals(4, ints.length);
+        ints.set(0, 3);
+        ints.set(1, 1);
+        ints.set(3, 2);
+        assertEquals(_t(3, 1, 0, 2), ints);
+        assertEquals(_t(3, 1, 0, 2).hashCode(), ints.hashCode());
+        assertEquals(3, ints.indexOf(2));
+        ints.sort();
+        assertEquals(_t(0, 1, 2, 3), ints);
+        assertEquals(2, ints.binarySearch(2));
+        assertEquals(6L, ints.sum());
+        assertEquals((Integer) 3, ints.max());
+        final IntBuffer copy = ints.copyRange(1, 3);
+        assertEquals(_t(1, 2), Primitives.valueOf(copy));
+        ints.fill(7);
+        assertEquals(_t(7, 7, 7, 7), ints);
+        assertTrue(ints.equals(Primitives.valueOf(ints.copy())));
+    }
+
+    @Test
+    public void testMapped() throws Exception {
+        final File file = File.createTempFile("primitives", ".bin");
+        file.deleteOnExit();
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.writeInt(0xCAFE);//a header before the longs
+            raf.writeLong(1L);
+            raf.writeLong(-2L);
+            raf.writeLong(3L << 40);
+            final FileChannel channel = raf.getChannel();
+            final Primitives<LongBuffer, Long> longs =
+                    Primitives.mapLongs(channel, 4, 3, ByteOrder.BIG_ENDIAN);
+            assertEquals(_t(1L, -2L, 3L << 40), longs);
+            longs.set(1, 5L);//writes through to the file
+            raf.seek(12);
+            assertEquals(5L, raf.readLong());
+
+            final Primitives<IntBuffer, Integer> little =
+                    Primitives.mapInts(channel, 0, 1, ByteOrder.LITTLE_ENDIAN);
+            assertEquals((Integer) Integer.reverseBytes(0xCAFE), little.get(0));
+            assertEquals(28, Primitives.valueOf(channel, 0, 28).length);
+        } finally {
+            raf.close();
+        }
+    }
+}
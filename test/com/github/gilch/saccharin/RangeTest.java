@@ -0,0 +1,100 @@
+package com.github.gilch.saccharin;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.gilch.saccharin.BuiltIn.range;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+public class RangeTest {
+    private static final List<BuiltIn.Range> ranges = _t(
+            range(0), range(5), range(3, 17, 4), range(10, -7, -3), range(-4, -3),
+            range(Integer.MIN_VALUE, Integer.MAX_VALUE, 1 << 30), range(7, 8, 100));
+
+    private static List<Integer> copy(final List<Integer> r) {
+        final List<Integer> out = new ArrayList<Integer>();
+        for (int i = 0; i < r.size(); i++) out.add(r.get(i));
+        return out;
+    }
+
+    @Test
+    public void testLength() throws Exception {
+        assertEquals(4, range(3, 17, 4).length);
+        assertEquals(6, range(10, -7, -3).length);
+        assertEquals(0, range(3, 3).length);
+        assertEquals(Integer.MAX_VALUE, range(-1, Integer.MAX_VALUE - 1).length);
+        assertEquals(4, range(Integer.MIN_VALUE, Integer.MAX_VALUE, 1 << 30).length);
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        for (final BuiltIn.Range r : ranges) {
+            final List<Integer> list = copy(r);
+            for (int x = -20; x < 20; x++) {
+                assertEquals(list.contains(x), r.contains(x));
+                assertEquals(list.indexOf(x), r.indexOf((Object) x));
+                assertEquals(list.lastIndexOf(x), r.lastIndexOf((Object) x));
+            }
+            for (final Integer x : list) assertEquals(list.indexOf(x), r.indexOf((int) x));
+            assertFalse(r.contains("0"));
+        }
+    }
+
+    @Test
+    public void testEqualsAndHashCode() throws Exception {
+        for (final BuiltIn.Range r : ranges) {
+            final List<Integer> list = copy(r);
+            assertEquals(list.hashCode(), r.hashCode());
+            assertTrue(r.equals(list));
+            assertTrue(list.equals(r));
+        }
+        assertEquals(range(3, 4), range(3, 100, 100));
+        assertEquals(range(5, 5), range(8, 2));
+        assertNotEquals(range(0, 4, 2), range(0, 4, 3));
+        assertEquals(copy(range(100000)).hashCode(), range(100000).hashCode());
+    }
+
+    @Test
+    public void testViews() throws Exception {
+        for (final BuiltIn.Range r : ranges) {
+            final List<Integer> list = copy(r);
+            for (int from = 0; from <= r.length; from++)
+                for (int to = from; to <= r.length; to++)
+                    assertEquals(list.subList(from, to), r.subList(from, to));
+            Collections.reverse(list);
+            assertEquals(list, r.reversed());
+            assertEquals(list, r.slice(Integer.MAX_VALUE, Integer.MIN_VALUE, -1));
+        }
+        assertEquals(_t(3, 11), range(3, 17, 4).slice(0, 100, 2));
+        assertEquals(_t(1, 7), range(10, -7, -3).slice(3, -100, -2));
+        assertTrue(range(10).subList(2, 5) instanceof BuiltIn.Range);
+    }
+
+    @Test
+    public void testTooLong() throws Exception {
+        final int min = Integer.MIN_VALUE;
+        final int max = Integer.MAX_VALUE;
+        assertEquals(max, range(0, max).length);
+        assertEquals(max, range(max, 0, -1).length);
+        final int[][] bounds = {{min, max, 1}, {-2, max, 1}, {-1, max, 1}, {max, -2, -1},
+                {max, min, -1}, {min, max, 2}};
+        for (final int[] b : bounds) {
+            try {
+                range(b[0], b[1], b[2]);
+                fail();
+            } catch (final IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertEquals(1L << 32, BuiltIn.longRange(min, max + 1L).length);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSubListBounds() throws Exception {
+        range(3).subList(1, 4);
+    }
+}
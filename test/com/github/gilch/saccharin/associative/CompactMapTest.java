@@ -0,0 +1,57 @@
+package com.github.gilch.saccharin.associative;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static com.github.gilch.saccharin.Literal._x;
+import static org.junit.Assert.*;
+
+public class CompactMapTest {
+
+    @Test
+    public void testTiny() throws Exception {
+        final CompactMap<String, Integer> map = _x("one", 1)._("two", 2)._(null, 0).compact();
+        assertEquals(3, map.size());
+        assertEquals((Integer) 2, map.get("two"));
+        assertEquals((Integer) 0, map.get(null));
+        assertNull(map.get("three"));
+        assertTrue(map.containsKey(null));
+        assertEquals(_x("one", 1)._("two", 2)._(null, 0), map);
+    }
+
+    @Test
+    public void testLarge() throws Exception {
+        final Map<Integer, String> expected = new LinkedHashMap<Integer, String>();
+        for (int i = 0; i < 1000; i++) expected.put(i * 31, i % 3 == 0 ? null : "v" + i);
+        final CompactMap<Integer, String> map = CompactMap.copyOf(expected);
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+        for (int i = -10; i < 31000; i++) {
+            assertEquals(expected.containsKey(i), map.containsKey(i));
+            assertEquals(expected.get(i), map.get(i));
+        }
+        // keeps the order of the source map.
+        assertEquals(new ArrayList<Integer>(expected.keySet()),
+                new ArrayList<Integer>(map.keySet()));
+        assertSame(map, CompactMap.copyOf(map));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        final CompactMap<String, String> map = CompactMap.copyOf(new HashMap<String, String>());
+        assertTrue(map.isEmpty());
+        assertNull(map.get("a"));
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() throws Exception {
+        _x("a", 1).compact().put("b", 2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutableEntry() throws Exception {
+        _x("a", 1).compact().entrySet().iterator().next().setValue(2);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.gilch.saccharin.associative;
+
+import com.github.gilch.saccharin.Literal;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntObjMapTest {
+
+    @Test
+    public void testLiteral() throws Exception {
+        final IntObjMap<String> map = IntObjMap.of(1, "one")._(0, "zero")._(-1, "minus one");
+        assertEquals(3, map.size());
+        assertEquals("zero", map.get(0));
+        assertEquals("minus one", map.get(-1));
+        assertNull(map.get(2));
+        assertEquals(new HashMap<Integer, String>(map), map);
+        assertEquals(new HashMap<Integer, String>(map).hashCode(), map.hashCode());
+
+        final Map<Integer, String> wrapped = Literal._x(new IntObjMap<String>())._(2, "two")._;
+        assertEquals("two", wrapped.get(2));
+        assertFalse(wrapped.containsKey("two"));
+    }
+
+    @Test
+    public void testZeroKey() throws Exception {
+        final IntObjMap<String> map = new IntObjMap<String>();
+        assertFalse(map.containsKey(0));
+        assertNull(map.put(0, "a"));
+        assertEquals("a", map.put(0, "b"));
+        assertTrue(map.containsKey(0));
+        assertEquals(1, map.size());
+        assertEquals("b", map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testSameAsHashMap() throws Exception {
+        final Random random = new Random(42);
+        final IntObjMap<Integer> map = new IntObjMap<Integer>(0);
+        final Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int n = 0; n < 200000; n++) {
+            final int key = random.nextInt(2000) - 1000;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, n), map.put(key, (Integer) n));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+            }
+        }
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void testIteratorRemove() throws Exception {
+        // removing while iterating shifts entries, including around the end of the table.
+        final Random random = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            final IntObjMap<Integer> map = new IntObjMap<Integer>();
+            final Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+            for (int n = 0; n < 50; n++) {
+                final int key = random.nextInt();
+                map.put(key, (Integer) n);
+                expected.put(key, n);
+            }
+            map.put(0, (Integer) (-1));
+            expected.put(0, -1);
+            int seen = 0;
+            for (final Iterator<Map.Entry<Integer, Integer>> it = map.entrySet().iterator();
+                 it.hasNext(); seen++) {
+                final Map.Entry<Integer, Integer> e = it.next();
+                assertEquals(expected.get(e.getKey()), e.getValue());
+                if (e.getValue() % 2 == 0) {
+                    it.remove();
+                    expected.remove(e.getKey());
+                }
+            }
+            assertEquals(51, seen);
+            assertEquals(expected, map);
+        }
+    }
+
+    @Test
+    public void testSetValue() throws Exception {
+        final IntObjMap<String> map = IntObjMap.of(1, "one")._(0, "zero");
+        for (final Map.Entry<Integer, String> e : map.entrySet()) e.setValue(e.getValue() + "!");
+        assertEquals("one!", map.get(1));
+        assertEquals("zero!", map.get(0));
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.gilch.saccharin.associative;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongLongMapTest {
+
+    @Test
+    public void testSameAsHashMap() throws Exception {
+        final Random random = new Random(3);
+        final LongLongMap map = new LongLongMap();
+        final Map<Long, Long> expected = new HashMap<Long, Long>();
+        for (int n = 0; n < 200000; n++) {
+            final long key = (random.nextInt(1000) - 500) * 0x100000000L;//only the high bits vary
+            switch (random.nextInt(3)) {
+                case 0:
+                    final Long old = expected.put(key, (long) n);
+                    assertEquals(old == null ? 0 : old, map.put(key, n));
+                    break;
+                case 1:
+                    final Long removed = expected.remove(key);
+                    assertEquals(removed == null ? 0 : removed, map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+            }
+        }
+        assertEquals(expected, map);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0L));
+    }
+
+    @Test
+    public void testAdd() throws Exception {
+        final LongLongMap map = LongLongMap.of(0L, 5L);
+        assertEquals(7L, map.add(0L, 2L));
+        assertEquals(3L, map.add(1L << 40, 3L));
+        assertEquals(-1L, map.getOrDefault(2L, -1L));
+        assertEquals((Long) 3L, map.get((Object) (1L << 40)));
+    }
+}
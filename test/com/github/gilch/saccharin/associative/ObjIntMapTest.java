@@ -0,0 +1,47 @@
+package com.github.gilch.saccharin.associative;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ObjIntMapTest {
+
+    @Test
+    public void testCount() throws Exception {
+        final ObjIntMap<String> counts = new ObjIntMap<String>();
+        for (final String word : "the cat and the hat and the bat".split(" ")) counts.add(word, 1);
+        assertEquals(3, counts.getInt("the"));
+        assertEquals(2, counts.getInt("and"));
+        assertEquals(0, counts.getInt("dog"));
+        assertEquals(-1, counts.getOrDefault("dog", -1));
+        assertEquals(5, counts.size());
+        assertEquals((Integer) 1, counts.get("cat"));
+        assertNull(counts.get("dog"));
+    }
+
+    @Test
+    public void testNullKey() throws Exception {
+        final ObjIntMap<String> map = ObjIntMap.of((String) null, 1)._("a", 2);
+        assertTrue(map.containsKey(null));
+        assertEquals(1, map.getInt(null));
+        assertEquals((Integer) 1, map.remove(null));
+        assertNull(map.remove(null));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testBoxedMethods() throws Exception {
+        final Map<String, Integer> map = new ObjIntMap<String>();
+        assertNull(map.put("a", 1));
+        assertEquals((Integer) 1, map.put("a", 2));
+        final Map<String, Integer> expected = new HashMap<String, Integer>();
+        expected.put("a", 2);
+        assertEquals(expected, map);
+        assertEquals("{a=2}", map.toString());
+        map.keySet().remove("a");
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.Lazy;
+import org.junit.Test;
+
+import static com.github.gilch.saccharin.BuiltIn.range;
+import static com.github.gilch.saccharin.BuiltIn.reduce;
+import static com.github.gilch.saccharin.BuiltIn.zipWith;
+import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+public class Function2Test {
+    private static final BinaryOperator<Integer> plus = new BinaryOperator<Integer>() {
+        @Override
+        public Integer apply(final Integer a, final Integer b) {
+            return a + b;
+        }
+    };
+    private static final Function2<String, Integer, String> repeat =
+            new Function2<String, Integer, String>() {
+                @Override
+                public String apply(final String s, final Integer n) {
+                    final StringBuilder out = new StringBuilder();
+                    for (int i = 0; i < n; i++) out.append(s);
+                    return out.toString();
+                }
+            };
+
+    @Test
+    public void testReduce() throws Exception {
+        assertEquals((Integer) 10, reduce(plus, range(5)));
+        assertEquals((Integer) 15, reduce(plus, 5, range(5)));
+        assertEquals("aab", reduce(new Function2<String, Integer, String>() {
+            @Override
+            public String apply(final String s, final Integer i) {
+                return s + "ab".charAt(i);
+            }
+        }, "a", _t(0, 1)));
+    }
+
+    @Test
+    public void testZipWith() throws Exception {
+        assertEquals(_t("", "b", "cc"),
+                _a(zipWith(repeat, _t("a", "b", "c", "d").iterator(), range(3).iterator())));
+    }
+
+    @Test
+    public void testCartWith() throws Exception {
+        assertEquals(_t("a", "aa", "b", "bb"),
+                _a(Lazy.cartWith(repeat, _t("a", "b").iterator(), _t(1, 2))));
+    }
+
+    @Test
+    public void testCompose() throws Exception {
+        assertEquals("xx", repeat.bind("x").apply(2));
+        assertEquals((Integer) 4, repeat.andThen(new Function<String, Integer>() {
+            @Override
+            public Integer apply(final String s) {
+                return s.length();
+            }
+        }).apply("ab", 2));
+    }
+}
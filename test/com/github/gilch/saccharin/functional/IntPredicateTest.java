@@ -0,0 +1,50 @@
+package com.github.gilch.saccharin.functional;
+
+import com.github.gilch.saccharin.sequential.IntSequence;
+import org.junit.Test;
+
+import static com.github.gilch.saccharin.BuiltIn.range;
+import static org.junit.Assert.*;
+
+public class IntPredicateTest {
+    private static final IntPredicate even = new IntPredicate() {
+        @Override
+        public boolean test(final int x) {
+            return x % 2 == 0;
+        }
+    };
+    private static final IntPredicate small = new IntPredicate() {
+        @Override
+        public boolean test(final int x) {
+            return x < 5;
+        }
+    };
+
+    @Test
+    public void testCombinators() throws Exception {
+        assertTrue(even.and(small).test(2));
+        assertFalse(even.and(small).test(6));
+        assertTrue(even.or(small).test(3));
+        assertTrue(even.negate().test(3));
+        assertTrue(even.compose(new IntUnaryOperator() {
+            @Override
+            public int apply(final int x) {
+                return x + 1;
+            }
+        }).test(3));
+        assertTrue(even.toPredicate().test(4));
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        final int[] xs = {1, 2, 3, 4, 6};
+        assertArrayEquals(new int[]{2, 4, 6}, even.filter(xs));
+        assertEquals(4, small.filter(xs, xs));//in place
+        assertArrayEquals(new int[]{1, 2, 3, 4, 6}, xs);
+        final IntSequence evens = even.filter(range(5).iterator());
+        assertEquals(0, evens.nextInt());
+        assertEquals(2, evens.nextInt());
+        assertEquals(4, evens.nextInt());
+        assertFalse(evens.hasNext());
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.gilch.saccharin.functional;
+
+import org.junit.Test;
+
+import static com.github.gilch.saccharin.BuiltIn.range;
+import static org.junit.Assert.*;
+
+public class IntUnaryOperatorTest {
+    private static final IntUnaryOperator inc = new IntUnaryOperator() {
+        @Override
+        public int apply(final int x) {
+            return x + 1;
+        }
+    };
+    private static final IntUnaryOperator twice = new IntUnaryOperator() {
+        @Override
+        public int apply(final int x) {
+            return x * 2;
+        }
+    };
+    private static final IntBinaryOperator plus = new IntBinaryOperator() {
+        @Override
+        public int apply(final int a, final int b) {
+            return a + b;
+        }
+    };
+
+    @Test
+    public void testCompose() throws Exception {
+        assertEquals(7, inc.compose(twice).apply(3));
+        assertEquals(8, inc.andThen(twice).apply(3));
+        assertEquals(3, IntUnaryOperator.identity().apply(3));
+        assertEquals((Integer) 4, inc.toFunction().apply(3));
+    }
+
+    @Test
+    public void testForEach() throws Exception {
+        final int[] xs = {1, 2, 3};
+        assertArrayEquals(new int[]{2, 3, 4}, inc.forEach(xs));
+        assertArrayEquals(new int[]{1, 2, 3}, xs);
+        assertSame(xs, twice.forEach(xs, xs));//in place
+        assertArrayEquals(new int[]{2, 4, 6}, xs);
+        assertEquals(6, plus.reduce(0, inc.forEach(range(3).iterator())));
+        assertArrayEquals(new int[]{3, 6, 9}, plus.forEach(xs, new int[]{1, 2, 3}));
+        assertEquals(24, plus.andThen(twice).apply(5, 7));
+    }
+}
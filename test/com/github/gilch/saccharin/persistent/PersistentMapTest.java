@@ -0,0 +1,94 @@
+package com.github.gilch.saccharin.persistent;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.github.gilch.saccharin.BuiltIn.persist;
+import static com.github.gilch.saccharin.Literal._x;
+import static org.junit.Assert.*;
+
+public class PersistentMapTest {
+
+    // a key with few distinct hashes, to make collision nodes.
+    private static final class Key {
+        final int id;
+
+        Key(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Key && ((Key) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id % 50;
+        }
+    }
+
+    @Test
+    public void testLiteral() throws Exception {
+        final PersistentMap<String, Integer> m = persist(_x("a", 1)._("b", 2));
+        final PersistentMap<String, Integer> m2 = m.plus("c", 3).minus("a");
+        assertEquals(_x("b", 2)._("c", 3), m2);
+        assertEquals(_x("a", 1)._("b", 2), m);//unchanged
+        assertSame(m, m.minus("z"));
+        assertSame(m, m.plus("a", 1));
+    }
+
+    @Test
+    public void testNullKey() throws Exception {
+        final PersistentMap<String, String> m = PersistentMap.<String, String>empty()
+                .plus(null, "x").plus("a", null);
+        assertEquals(2, m.size());
+        assertEquals("x", m.get(null));
+        assertTrue(m.containsKey("a"));
+        assertNull(m.get("a"));
+        assertFalse(m.minus(null).containsKey(null));
+        assertEquals(1, m.minus(null).size());
+    }
+
+    @Test
+    public void testSameAsHashMap() throws Exception {
+        for (final int range : new int[]{200, 100000}) {
+            final Random random = new Random(range);
+            final Map<Object, Integer> expected = new HashMap<Object, Integer>();
+            PersistentMap<Object, Integer> m = PersistentMap.empty();
+            for (int n = 0; n < 200000; n++) {
+                final int id = random.nextInt(range);
+                final Object key = range < 1000 ? new Key(id) : (Object) id;
+                if (random.nextInt(3) == 0) {
+                    expected.remove(key);
+                    m = m.minus(key);
+                } else {
+                    expected.put(key, n);
+                    m = m.plus(key, n);
+                }
+                assertEquals(expected.size(), m.size());
+            }
+            assertEquals(expected, m);
+            assertEquals(expected.hashCode(), m.hashCode());
+            for (final Object key : expected.keySet()) m = m.minus(key);
+            assertTrue(m.isEmpty());
+            assertFalse(m.entrySet().iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void testSet() throws Exception {
+        PersistentSet<Integer> s = PersistentSet.empty();
+        for (int i = 0; i < 1000; i++) s = s.plus(i);
+        final PersistentSet<Integer> all = s;
+        for (int i = 0; i < 1000; i += 2) s = s.minus(i);
+        assertEquals(500, s.size());
+        assertTrue(s.contains(1));
+        assertFalse(s.contains(2));
+        assertEquals(1000, all.size());
+        assertSame(s, s.plus(1));
+    }
+}
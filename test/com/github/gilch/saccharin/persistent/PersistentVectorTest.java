@@ -0,0 +1,81 @@
+package com.github.gilch.saccharin.persistent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.gilch.saccharin.BuiltIn.freeze;
+import static com.github.gilch.saccharin.BuiltIn.persist;
+import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+public class PersistentVectorTest {
+
+    @Test
+    public void testLiteral() throws Exception {
+        final PersistentVector<Integer> v = persist(_a(1, 2, 3));
+        assertEquals(_t(1, 2, 3, 4), v.plus(4));
+        assertEquals(_t(0, 2, 3), v.with(0, 0));
+        assertEquals(_t(1, 2), v.pop());
+        assertEquals(_t(1, 2, 3), v);//unchanged
+        assertSame(v, freeze(v));
+        assertSame(v, PersistentVector.copyOf(v));
+    }
+
+    @Test
+    public void testGrowAndShrink() throws Exception {
+        // crosses the tail, root and level boundaries both ways.
+        final int n = 40000;
+        PersistentVector<Integer> v = PersistentVector.empty();
+        final List<PersistentVector<Integer>> versions = new ArrayList<PersistentVector<Integer>>();
+        for (int i = 0; i < n; i++) {
+            if (i % 1000 == 0) versions.add(v);
+            v = v.plus(i);
+        }
+        assertEquals(n, v.size());
+        for (int i = 0; i < n; i++) assertEquals(i, (int) v.get(i));
+        for (int k = 0; k < versions.size(); k++) assertEquals(k * 1000, versions.get(k).size());
+        assertEquals(999, (int) versions.get(1).get(999));
+        for (int i = n; i > 0; i--) {
+            assertEquals(i - 1, (int) v.get(i - 1));
+            v = v.pop();
+            assertEquals(i - 1, v.size());
+        }
+        assertTrue(v.isEmpty());
+    }
+
+    @Test
+    public void testSameAsArrayList() throws Exception {
+        final Random random = new Random(5);
+        final List<Integer> expected = new ArrayList<Integer>();
+        PersistentVector<Integer> v = PersistentVector.empty();
+        for (int n = 0; n < 100000; n++) {
+            final int op = random.nextInt(10);
+            if (op < 6) {
+                expected.add(n);
+                v = v.plus(n);
+            } else if (op < 9 && !expected.isEmpty()) {
+                final int i = random.nextInt(expected.size());
+                expected.set(i, -n);
+                v = v.with(i, -n);
+            } else if (!expected.isEmpty()) {
+                expected.remove(expected.size() - 1);
+                v = v.pop();
+            }
+        }
+        assertEquals(expected, v);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBounds() throws Exception {
+        persist(_a(1)).get(1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() throws Exception {
+        persist(_a(1)).add(2);
+    }
+}
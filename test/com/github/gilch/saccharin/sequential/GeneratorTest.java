@@ -0,0 +1,258 @@
+package com.github.gilch.saccharin.sequential;
+
+import com.github.gilch.saccharin.functional.Predicate;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.github.gilch.saccharin.BuiltIn.count;
+import static com.github.gilch.saccharin.Lazy.chain;
+import static com.github.gilch.saccharin.Lazy.dropWhile;
+import static com.github.gilch.saccharin.Lazy.takeWhile;
+import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+public class GeneratorTest {
+
+    private static Generator<Integer> upTo(final int n, final GeneratorExecutor executor) {
+        return new Generator<Integer>(executor) {
+            @Override
+            protected void generate() throws InterruptedException {
+                for (int i = 0; i < n; i++) yield(i);
+            }
+        };
+    }
+
+    @Test
+    public void testCached() throws Exception {
+        assertEquals(_t(0, 1, 2), _a(upTo(3, GeneratorExecutor.cached()).start()));
+    }
+
+    @Test
+    public void testVirtual() throws Exception {
+        assertEquals(_t(0, 1, 2), _a(upTo(3, GeneratorExecutor.virtual()).start()));
+    }
+
+    @Test
+    public void testOf() throws Exception {
+        final GeneratorExecutor executor = GeneratorExecutor.of(Executors.newCachedThreadPool());
+        assertEquals(_t(0, 1, 2), _a(upTo(3, executor).start()));
+    }
+
+    @Test
+    public void testPlatformRx() throws Exception {
+        final GeneratorExecutor executor = GeneratorExecutor.platformRx()
+                .maxThreads.is(1).stackSize.is(64L * 1024).go();
+        final Iterator<Integer> first = upTo(3, executor).start();
+        try {
+            upTo(3, executor).start();
+            fail();
+        } catch (final RejectedExecutionException e) {
+            // the only thread is still busy with the first Generator.
+        }
+        assertEquals(_t(0, 1, 2), _a(first));
+    }
+
+    @Test
+    public void testDefaultExecutor() throws Exception {
+        final GeneratorExecutor old = Generator.getDefaultExecutor();
+        try {
+            Generator.setDefaultExecutor(GeneratorExecutor.virtual());
+            assertSame(GeneratorExecutor.virtual(), Generator.getDefaultExecutor());
+            assertEquals(_t(0, 1), _a(new Generator<Integer>() {
+                @Override
+                protected void generate() throws InterruptedException {
+                    yield(0);
+                    yield(1);
+                }
+            }.start()));
+        } finally {
+            Generator.setDefaultExecutor(old);
+        }
+    }
+
+    @Test
+    public void testBuffered() throws Exception {
+        for (final int n : new int[]{0, 1, 3, 4, 5, 9}) {
+            final Iterator<Integer> it = new Generator<Integer>(4) {
+                @Override
+                protected void generate() throws InterruptedException {
+                    for (int i = 0; i < n; i++) yield(i);
+                }
+            }.start();
+            for (int i = 0; i < n; i++) assertEquals((Integer) i, it.next());
+            assertFalse(it.hasNext());
+        }
+    }
+
+    @Test
+    public void testBufferedNulls() throws Exception {
+        assertEquals(_t(null, "a", null), _a(new Generator<String>(2) {
+            @Override
+            protected void generate() throws InterruptedException {
+                yield(null);
+                yield("a");
+                yield(null);
+            }
+        }.start()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferSize() throws Exception {
+        new Generator<Integer>(0) {
+            @Override
+            protected void generate() throws InterruptedException {
+            }
+        };
+    }
+
+    private static long allocatedPerElement(final int bufferSize) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return 0;//can't measure on this JVM.
+        }
+        final com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final int warmup = 200000;
+        final int n = 1000000;
+        final long[] producerId = new long[1];
+        final long[] producerBytes = new long[2];
+        final Iterator<Integer> it = new Generator<Integer>(
+                GeneratorExecutor.cached(), bufferSize) {
+            @Override
+            protected void generate() throws InterruptedException {
+                producerId[0] = Thread.currentThread().getId();
+                for (int i = 0; i < warmup; i++) yield(i & 127);//cached boxes.
+                producerBytes[0] = bean.getThreadAllocatedBytes(producerId[0]);
+                for (int i = 0; i < n; i++) yield(i & 127);
+                producerBytes[1] = bean.getThreadAllocatedBytes(producerId[0]);
+            }
+        }.start();
+        for (int i = 0; i < warmup; i++) it.next();
+        final long consumerStart = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < n; i++) it.next();
+        final long consumerBytes =
+                bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - consumerStart;
+        assertFalse(it.hasNext());
+        return (consumerBytes + producerBytes[1] - producerBytes[0]) / n;
+    }
+
+    @Test
+    public void testAllocationFree() throws Exception {
+        assertEquals(0, allocatedPerElement(1));
+    }
+
+    @Test
+    public void testBufferedAllocationFree() throws Exception {
+        assertEquals(0, allocatedPerElement(64));
+    }
+
+    /**
+     * Counts forever, and counts down the latch when its thread stops.
+     */
+    private static CloseableSequence<Integer> endless(final CountDownLatch stopped) {
+        return new Generator<Integer>() {
+            @Override
+            protected void generate() throws InterruptedException {
+                try {
+                    for (final int i : count(0)) yield(i);
+                } finally {
+                    stopped.countDown();
+                }
+            }
+        }.start();
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final CloseableSequence<Integer> it = endless(stopped);
+        assertEquals((Integer) 0, it.next());
+        assertTrue(it.hasNext());
+        it.close();
+        assertFalse(it.hasNext());
+        assertTrue(stopped.await(10, TimeUnit.SECONDS));
+        it.close();//idempotent
+    }
+
+    @Test
+    public void testCloseBuffered() throws Exception {
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final CloseableSequence<Integer> it = new Generator<Integer>(16) {
+            @Override
+            protected void generate() throws InterruptedException {
+                try {
+                    for (final int i : count(0)) yield(i);
+                } finally {
+                    stopped.countDown();
+                }
+            }
+        }.start();
+        assertEquals((Integer) 0, it.next());
+        it.close();
+        assertFalse(it.hasNext());
+        assertTrue(stopped.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testClosePropagates() throws Exception {
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final Predicate<Integer> small = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer i) {
+                return i < 100;
+            }
+        };
+        // Closing the outer sequence stops the Generator three levels up.
+        final CloseableSequence<Integer> it = takeWhile(small, chain(_t(
+                dropWhile(small.negate(), endless(stopped))).iterator()));
+        assertEquals((Integer) 0, it.next());
+        it.close();
+        assertTrue(stopped.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReaped() throws Exception {
+        final CountDownLatch stopped = new CountDownLatch(1);
+        endless(stopped).next();//abandoned without close.
+        for (int i = 0; i < 100 && stopped.getCount() > 0; i++) {
+            System.gc();
+            stopped.await(100, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(0, stopped.getCount());
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        final GeneratorStats stats = GeneratorStats.register();
+        try {
+            assertEquals(_t(0, 1, 2), _a(upTo(3, GeneratorExecutor.cached()).start()));
+            final CountDownLatch closedStop = new CountDownLatch(1);
+            endless(closedStop).close();
+            assertTrue(closedStop.await(10, TimeUnit.SECONDS));
+            final CountDownLatch reapedStop = new CountDownLatch(1);
+            endless(reapedStop).next();
+            for (int i = 0; i < 100 && reapedStop.getCount() > 0; i++) {
+                System.gc();
+                reapedStop.await(100, TimeUnit.MILLISECONDS);
+            }
+            for (int i = 0; i < 100 && stats.getLiveGenerators() > 0; i++) Thread.sleep(10);
+            assertEquals(0, stats.getLiveGenerators());
+            assertEquals(0, stats.getParkedInYield());
+            assertEquals(1, stats.getExhausted());
+            assertEquals(1, stats.getClosed());
+            assertEquals(1, stats.getReaped());
+            assertTrue(stats.getYields() >= 4);
+            long handoffs = 0;
+            for (final long n : stats.getHandoffLatencyHistogram()) handoffs += n;
+            assertTrue(handoffs >= 4);
+        } finally {
+            Generator.setListener(null);
+        }
+    }
+}
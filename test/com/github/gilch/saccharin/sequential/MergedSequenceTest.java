@@ -0,0 +1,155 @@
+package com.github.gilch.saccharin.sequential;
+
+import com.github.gilch.saccharin.Lazy;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.gilch.saccharin.Literal._A;
+import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+public class MergedSequenceTest {
+
+    private static Iterator<Integer> from(final Integer... es) {
+        return _t(es).iterator();
+    }
+
+    @Test
+    public void testUnordered() throws Exception {
+        final _A<Integer> merged = _a(Lazy.merge(from(1, 2, 3), from(), from(4, 5)));
+        Collections.sort(merged);
+        assertEquals(_t(1, 2, 3, 4, 5), merged);
+    }
+
+    @Test
+    public void testOrdered() throws Exception {
+        final List<Iterator<Integer>> sources = _t(from(1, 2, 3), from(), from(4, 5));
+        assertEquals(_t(1, 4, 2, 5, 3),
+                _a(Lazy.<Integer>mergeRx(sources).ordered.is(true).bufferSize.is(1).go()));
+    }
+
+    @Test
+    public void testNulls() throws Exception {
+        final List<Iterator<Integer>> sources = _t(from(1, null), from((Integer) null));
+        assertEquals(_t(1, null, null),
+                _a(Lazy.<Integer>mergeRx(sources).ordered.is(true).go()));
+    }
+
+    @Test
+    public void testError() throws Exception {
+        final Iterator<Integer> broken = new StateMachine<Integer>() {
+            @Override
+            protected void resume() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        final List<Iterator<Integer>> sources = _t(from(1), broken);
+        final CloseableSequence<Integer> merged =
+                Lazy.<Integer>mergeRx(sources).ordered.is(true).go();
+        assertEquals(1, (int) merged.next());
+        try {
+            merged.next();
+            fail();
+        } catch (final IllegalStateException e) {
+            assertEquals("broken", e.getMessage());
+        }
+        assertFalse(merged.hasNext());
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        final AtomicInteger pulled = new AtomicInteger();
+        final CountDownLatch full = new CountDownLatch(1);
+        final Iterator<Integer> endless = new StateMachine<Integer>() {
+            @Override
+            protected void resume() {
+                if (pulled.incrementAndGet() > 3) full.countDown();
+                yield(0);
+            }
+        };
+        final List<Iterator<Integer>> sources = _t(endless);
+        final CloseableSequence<Integer> merged =
+                Lazy.<Integer>mergeRx(sources).bufferSize.is(3).go();
+        assertTrue(full.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(4, pulled.get());//3 queued and 1 waiting for room.
+        merged.close();
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final CountDownLatch closed = new CountDownLatch(2);
+        final _A<Iterator<Integer>> sources = _a();
+        for (int i = 0; i < 2; i++)
+            sources.add(new StateMachine<Integer>() {
+                @Override
+                protected void resume() {
+                    yield(0);
+                }
+
+                @Override
+                public void close() {
+                    closed.countDown();
+                    super.close();
+                }
+            });
+        final CloseableSequence<Integer> merged = Lazy.<Integer>mergeRx(sources).go();
+        merged.next();
+        merged.close();
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        try {
+            merged.next();
+            fail();
+        } catch (final NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCloseWhilePumpWaits() throws Exception {
+        // each pump fills its queue, then waits in the Generator's hasNext() when closed.
+        final CountDownLatch waiting = new CountDownLatch(2);
+        final _A<Iterator<Integer>> sources = _a();
+        for (int i = 0; i < 2; i++)
+            sources.add(new Generator<Integer>() {
+                @Override
+                protected void generate() throws InterruptedException {
+                    yield(0);
+                    yield(1);
+                    waiting.countDown();
+                    Thread.sleep(60000);
+                }
+            }.start());
+        final CountDownLatch pumped = new CountDownLatch(2);
+        final GeneratorExecutor counting = GeneratorExecutor.of(new Executor() {
+            @Override
+            public void execute(final Runnable task) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.run();
+                        } finally {
+                            pumped.countDown();
+                        }
+                    }
+                }).start();
+            }
+        });
+        final CloseableSequence<Integer> merged =
+                Lazy.<Integer>mergeRx(sources).bufferSize.is(2).executor.is(counting).go();
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        merged.close();
+        assertTrue(pumped.await(10, TimeUnit.SECONDS));
+    }
+}
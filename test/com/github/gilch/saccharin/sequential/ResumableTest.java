@@ -0,0 +1,221 @@
+// Copyright 2015 Matthew Egan Odendahl
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.github.gilch.saccharin.sequential;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+/**
+ * Each Generator here is marked Resumable, and its generated StateMachine must produce the same
+ * sequence.
+ */
+public class ResumableTest {
+    static final List<String> log = new ArrayList<String>();
+
+    private static <E> void assertSameSequence(
+            final Iterator<E> expected, final Iterator<E> actual) {
+        assertEquals(_a(expected), _a(actual));
+    }
+
+    @Resumable
+    static class Count extends Generator<Integer> {
+        private final int n;
+
+        Count(final int n) {
+            super();
+            this.n = n;
+        }
+
+        @Override
+        protected void generate() throws InterruptedException {
+            for (int i = 0; i < n; i++) this.yield(i);
+        }
+    }
+
+    @Test
+    public void testLoop() throws Exception {
+        assertSameSequence(new Count(5).start(), new ResumableTestCountStateMachine(5));
+        assertEquals(_t(0, 1, 2), _a(new ResumableTestCountStateMachine(3)));
+    }
+
+    @Resumable
+    static class Pairs extends Generator<String> {
+        final List<String> is;
+        final int[] js;
+
+        Pairs(final List<String> is, final int[] js) {
+            this.is = is;
+            this.js = js;
+        }
+
+        @Override
+        protected void generate() throws InterruptedException {
+            for (final String i : is)
+                for (final int j : js)
+                    if (j != 2 || !i.equals("b"))
+                        yield(i + j);
+                    else
+                        yield("skip");
+        }
+    }
+
+    @Test
+    public void testNestedLoops() throws Exception {
+        final List<String> is = _t("a", "b", "c");
+        final int[] js = {1, 2};
+        assertSameSequence(new Pairs(is, js).start(), new ResumableTestPairsStateMachine(is, js));
+    }
+
+    @Resumable
+    static class Jumps extends Generator<Integer> {
+        @Override
+        protected void generate() throws InterruptedException {
+            int i = 0;
+            while (true) {
+                i++;
+                if (i % 2 == 0) continue;
+                if (i > 9) break;
+                yield(i);
+            }
+            do {
+                yield(-i);
+                i -= 4;
+            } while (i > 0);
+            int[] rest = {7, 8, 9};
+            for (final int r : rest) {
+                if (r == 9) return;
+                yield(r);
+            }
+            yield(0);
+        }
+    }
+
+    @Test
+    public void testJumps() throws Exception {
+        assertSameSequence(new Jumps().start(), new ResumableTestJumpsStateMachine());
+        assertEquals(_t(1, 3, 5, 7, 9, -11, -7, -3, 7, 8),
+                _a(new ResumableTestJumpsStateMachine()));
+    }
+
+    @Resumable
+    static class Guarded extends Generator<String> {
+        @Override
+        protected void generate() throws InterruptedException {
+            log.add("start");
+            try {
+                for (int i = 0; i < 3; i++) {
+                    try {
+                        yield("a" + i);
+                        if (i == 1) continue;
+                        yield("b" + i);
+                    } finally {
+                        log.add("inner" + i);
+                    }
+                }
+            } finally {
+                log.add("outer");
+            }
+            yield("end");
+        }
+    }
+
+    @Test
+    public void testFinallyOnExhaustion() throws Exception {
+        log.clear();
+        final List<String> generated = _a(new Guarded().start());
+        final List<String> expected = new ArrayList<String>(log);
+        log.clear();
+        assertEquals(generated, _a(new ResumableTestGuardedStateMachine()));
+        assertEquals(expected, log);
+        assertEquals(_t("start", "inner0", "inner1", "inner2", "outer"), log);
+    }
+
+    @Test
+    public void testFinallyOnClose() throws Exception {
+        log.clear();
+        final ResumableTestGuardedStateMachine machine = new ResumableTestGuardedStateMachine();
+        assertEquals("a0", machine.next());
+        assertEquals("b0", machine.next());
+        assertEquals("a1", machine.next());
+        machine.close();
+        assertFalse(machine.hasNext());
+        assertEquals(_t("start", "inner0", "inner1", "outer"), log);
+        machine.close();
+        assertEquals(4, log.size());
+    }
+
+    @Resumable
+    static class Throwing extends Generator<Integer> {
+        @Override
+        protected void generate() throws InterruptedException {
+            try {
+                yield(1);
+                throw new IllegalStateException("boom");
+            } finally {
+                log.add("finally");
+            }
+        }
+    }
+
+    @Test
+    public void testFinallyOnException() throws Exception {
+        log.clear();
+        final ResumableTestThrowingStateMachine machine = new ResumableTestThrowingStateMachine();
+        assertEquals(1, (int) machine.next());
+        try {
+            machine.next();
+            fail();
+        } catch (final IllegalStateException expected) {
+            assertEquals("boom", expected.getMessage());
+        }
+        assertEquals(_t("finally"), log);
+    }
+
+    @Resumable
+    static class Cycle<E> extends Generator<E> {
+        private final Iterable<? extends E> iterable;
+
+        Cycle(final Iterable<? extends E> iterable) {
+            this.iterable = iterable;
+        }
+
+        @Override
+        protected void generate() throws InterruptedException {
+            final List<E> saved = new ArrayList<E>();
+            for (final E e : iterable) {
+                yield(e);
+                saved.add(e);
+            }
+            if (saved.isEmpty()) return;
+            while (true) for (final E e : saved) yield(e);
+        }
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        final Iterator<String> cycle = new ResumableTestCycleStateMachine<String>(_t("a", "b"));
+        final List<String> out = new ArrayList<String>();
+        for (int i = 0; i < 5; i++) out.add(cycle.next());
+        assertEquals(_t("a", "b", "a", "b", "a"), out);
+        assertFalse(new ResumableTestCycleStateMachine<String>(new ArrayList<String>()).hasNext());
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.gilch.saccharin.sequential;
+
+import com.github.gilch.saccharin.functional.Function;
+import com.github.gilch.saccharin.functional.Predicate;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static com.github.gilch.saccharin.BuiltIn.range;
+import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+public class SeqTest {
+    private static final Function<Integer, Integer> twice = new Function<Integer, Integer>() {
+        @Override
+        public Integer apply(final Integer i) {
+            return i * 2;
+        }
+    };
+    private static final Function<Integer, Integer> inc = new Function<Integer, Integer>() {
+        @Override
+        public Integer apply(final Integer i) {
+            return i + 1;
+        }
+    };
+    private static final Predicate<Integer> odd = new Predicate<Integer>() {
+        @Override
+        public boolean test(final Integer i) {
+            return i % 2 != 0;
+        }
+    };
+    private static final Predicate<Integer> small = new Predicate<Integer>() {
+        @Override
+        public boolean test(final Integer i) {
+            return i < 30;
+        }
+    };
+
+    @Test
+    public void testSameAsChained() throws Exception {
+        final Iterator<Integer> chained = odd.filter(inc.forEach(small.filter(
+                twice.forEach(range(100).iterator()))));
+        final Seq<Integer> fused = Seq.of(range(100)).map(twice).filter(small).map(inc)
+                .filter(odd);
+        assertEquals(_a(chained), fused.toList());
+        assertEquals(_a(fused.iterator()), fused.toList());//reusable from an Iterable.
+        assertEquals(15, fused.count());
+    }
+
+    @Test
+    public void testFusion() throws Exception {
+        assertEquals(_t(7, 9),
+                Seq.of(range(10)).map(inc).map(twice).filter(odd.negate()).filter(small)
+                        .drop(1).drop(1).take(3).take(2).map(inc).toList());
+        assertEquals(_t(), Seq.of(range(10)).take(0).toList());
+        assertEquals(_t(8, 9), Seq.of(range(10)).drop(3).drop(5).toList());
+    }
+
+    @Test
+    public void testShortCircuit() throws Exception {
+        final int[] pulled = {0};
+        final StateMachine<Integer> endless = new StateMachine<Integer>() {
+            @Override
+            protected void resume() {
+                yield(pulled[0]++);
+            }
+        };
+        assertEquals(_t(2, 3, 4), Seq.of(endless).drop(2).take(3).toList());
+        assertEquals(5, pulled[0]);
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+        final Iterator<Integer> it = Seq.of(range(10)).filter(odd).take(2).iterator();
+        assertEquals(1, (int) it.next());
+        assertTrue(it.hasNext());
+        assertEquals(3, (int) it.next());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testForEach() throws Exception {
+        final int[] sum = {0};
+        Seq.of(range(4)).forEach(new Function<Integer, Void>() {
+            @Override
+            public Void apply(final Integer i) {
+                sum[0] += i;
+                return null;
+            }
+        });
+        assertEquals(6, sum[0]);
+    }
+}
@@ -0,0 +1,239 @@
+package com.github.gilch.saccharin.sequential;
+
+import com.github.gilch.saccharin.functional.Predicate;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static com.github.gilch.saccharin.Literal._A;
+import static com.github.gilch.saccharin.Literal._a;
+import static com.github.gilch.saccharin.Literal._t;
+import static org.junit.Assert.*;
+
+/**
+ * Each case is a Generator body and its hand translation into a StateMachine, which must
+ * produce the same sequence, or a translation of an itertools recipe checked against literal
+ * output.
+ */
+public class StateMachineTest {
+
+    private static <E> void assertSameSequence(
+            final Iterator<E> expected, final Iterator<E> actual) {
+        assertEquals(_a(expected), _a(actual));
+    }
+
+    @Test
+    public void testLoop() throws Exception {
+        final int n = 5;
+        assertSameSequence(new Generator<Integer>() {
+            @Override
+            protected void generate() throws InterruptedException {
+                for (int i = 0; i < n; i++) yield(i);
+            }
+        }.start(), new StateMachine<Integer>() {
+            int i;
+
+            @Override
+            protected void resume() {
+                switch (label) {
+                    case 0:
+                        i = 0;
+                        break;
+                    case 1:
+                        i++;
+                        break;
+                }
+                if (i < n) {
+                    yield(i);
+                    label = 1;
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNestedLoops() throws Exception {
+        final List<String> is = _t("a", "b", "c");
+        final List<Integer> js = _t(1, 2);
+        assertSameSequence(new Generator<String>() {
+            @Override
+            protected void generate() throws InterruptedException {
+                for (final String i : is)
+                    for (final Integer j : js)
+                        if (j != 2 || !i.equals("b"))
+                            yield(i + j);
+            }
+        }.start(), new StateMachine<String>() {
+            Iterator<String> iIt;
+            Iterator<Integer> jIt;
+            String i;
+
+            @Override
+            protected void resume() {
+                switch (label) {
+                    case 0:
+                        iIt = is.iterator();
+                        jIt = null;
+                        label = 1;
+                    case 1:
+                        while (true) {
+                            if (jIt == null || !jIt.hasNext()) {
+                                if (!iIt.hasNext()) return;
+                                i = iIt.next();
+                                jIt = js.iterator();
+                                continue;
+                            }
+                            final Integer j = jIt.next();
+                            if (j != 2 || !i.equals("b")) {
+                                yield(i + j);
+                                return;
+                            }
+                        }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testTryFinally() throws Exception {
+        // try { yield("a"); yield("b"); } finally { log.add("finally"); }
+        final _A<String> log = _a();
+        final StateMachine<String> exhausted = new StateMachine<String>() {
+            @Override
+            protected void resume() {
+                switch (label) {
+                    case 0:
+                        yield("a");
+                        label = 1;
+                        return;
+                    case 1:
+                        yield("b");
+                        label = 2;
+                        return;
+                    case 2:
+                        label = 3;
+                        log.add("finally");
+                }
+            }
+
+            @Override
+            public void close() {
+                if (label > 0 && label < 3) log.add("finally");
+                label = 3;
+                super.close();
+            }
+        };
+        assertEquals(_t("a", "b"), _a(exhausted));
+        assertEquals(_t("finally"), log);
+        exhausted.close();//already ran.
+        assertEquals(_t("finally"), log);
+
+        log.clear();
+        final StateMachine<String> abandoned = new StateMachine<String>() {
+            @Override
+            protected void resume() {
+                switch (label) {
+                    case 0:
+                        yield("a");
+                        label = 1;
+                        return;
+                    case 1:
+                        yield("b");
+                        label = 2;
+                        return;
+                    case 2:
+                        label = 3;
+                        log.add("finally");
+                }
+            }
+
+            @Override
+            public void close() {
+                if (label > 0 && label < 3) log.add("finally");
+                label = 3;
+                super.close();
+            }
+        };
+        assertEquals("a", abandoned.next());
+        abandoned.close();
+        assertFalse(abandoned.hasNext());
+        assertEquals(_t("finally"), log);
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        final Iterator<Integer> source = _t(1, 2, 3).iterator();
+        final Iterator<Integer> cycle = new StateMachine<Integer>() {
+            final _A<Integer> saved = _a();
+            int index;
+
+            @Override
+            protected void resume() {
+                if (label == 0) {
+                    if (source.hasNext()) {
+                        final Integer e = source.next();
+                        saved.add(e);
+                        yield(e);
+                        return;
+                    }
+                    label = 1;
+                    index = 0;
+                }
+                if (saved.isEmpty()) return;
+                yield(saved.get(index));
+                index = (index + 1) % saved.size();
+            }
+        };
+        final _A<Integer> taken = _a();
+        for (int i = 0; i < 10; i++) taken.add(cycle.next());
+        assertEquals(_t(1, 2, 3, 1, 2, 3, 1, 2, 3, 1), taken);
+    }
+
+    @Test
+    public void testChain() throws Exception {
+        final Iterator<Iterator<Integer>> links =
+                _t(_t(1, 2).iterator(), _t(3).iterator()).iterator();
+        assertEquals(_t(1, 2, 3), _a(
+                new StateMachine<Integer>() {
+                    Iterator<Integer> link;
+
+                    @Override
+                    protected void resume() {
+                        while (link == null || !link.hasNext()) {
+                            if (!links.hasNext()) return;
+                            link = links.next();
+                        }
+                        yield(link.next());
+                    }
+                }));
+    }
+
+    @Test
+    public void testDropWhile() throws Exception {
+        final Predicate<Integer> small = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer i) {
+                return i < 3;
+            }
+        };
+        final Iterator<Integer> it = _t(1, 2, 3, 1, 4).iterator();
+        assertEquals(_t(3, 1, 4), _a(
+                new StateMachine<Integer>() {
+                    @Override
+                    protected void resume() {
+                        if (label == 0) {
+                            label = 1;
+                            while (it.hasNext()) {
+                                final Integer e = it.next();
+                                if (!small.test(e)) {
+                                    yield(e);
+                                    return;
+                                }
+                            }
+                        }
+                        if (it.hasNext()) yield(it.next());
+                    }
+                }));
+    }
+}